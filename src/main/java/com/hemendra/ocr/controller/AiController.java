@@ -2,17 +2,28 @@ package com.hemendra.ocr.controller;
 
 import com.hemendra.ocr.dto.AiAnalysisResponse;
 import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.exception.QueueFullException;
+import com.hemendra.ocr.service.ModelConcurrencyLimiter;
+import com.hemendra.ocr.service.ModelWarmupManager;
+import com.hemendra.ocr.service.OllamaModelRegistry;
+import com.hemendra.ocr.service.OllamaRouter;
 import com.hemendra.ocr.service.OllamaService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,36 +39,36 @@ public class AiController {
     @Autowired
     private OllamaService ollamaService;
     
+    @Autowired
+    private OllamaRouter ollamaRouter;
+    
+    @Autowired
+    private OllamaModelRegistry modelRegistry;
+    
+    @Autowired
+    private ModelWarmupManager warmupManager;
+    
+    @Autowired
+    private ModelConcurrencyLimiter concurrencyLimiter;
+    
     /**
-     * Analyze image using AI with default prompt
+     * Analyze image using AI with default prompt. The request thread is released while
+     * the vision model works; the response is written when the analysis completes.
      */
     @PostMapping(value = "/analyze", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<AiAnalysisResponse> analyzeImage(
+    public Mono<ResponseEntity<AiAnalysisResponse>> analyzeImage(
             @RequestParam("file") MultipartFile file) {
         
         logger.info("Received AI analysis request for file: {}", file.getOriginalFilename());
         
-        try {
-            AiAnalysisResponse response = ollamaService.analyzeImage(file);
-            return ResponseEntity.ok(response);
-            
-        } catch (OcrException e) {
-            logger.error("AI analysis failed: {}", e.getMessage());
-            AiAnalysisResponse errorResponse = new AiAnalysisResponse(e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
-            
-        } catch (Exception e) {
-            logger.error("Unexpected error during AI analysis", e);
-            AiAnalysisResponse errorResponse = new AiAnalysisResponse("Internal server error occurred");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+        return toResponseEntity(ollamaService.analyzeImageReactive(file));
     }
     
     /**
      * Analyze image using AI with custom prompt
      */
     @PostMapping(value = "/analyze-custom", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<AiAnalysisResponse> analyzeImageWithPrompt(
+    public Mono<ResponseEntity<AiAnalysisResponse>> analyzeImageWithPrompt(
             @RequestParam("file") MultipartFile file,
             @RequestParam("prompt") String prompt,
             @RequestParam(value = "model", defaultValue = "llava:latest") String model) {
@@ -65,20 +76,60 @@ public class AiController {
         logger.info("Received AI analysis request for file: {} with custom prompt and model: {}", 
                    file.getOriginalFilename(), model);
         
-        try {
-            AiAnalysisResponse response = ollamaService.analyzeImage(file, prompt, model);
-            return ResponseEntity.ok(response);
-            
-        } catch (OcrException e) {
-            logger.error("AI analysis failed: {}", e.getMessage());
-            AiAnalysisResponse errorResponse = new AiAnalysisResponse(e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
-            
-        } catch (Exception e) {
-            logger.error("Unexpected error during AI analysis", e);
-            AiAnalysisResponse errorResponse = new AiAnalysisResponse("Internal server error occurred");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+        return toResponseEntity(ollamaService.analyzeImageReactive(file, prompt, model));
+    }
+    
+    /**
+     * Analyze image using AI, relaying tokens over Server-Sent Events as the model generates them.
+     * Emits "token" events, then a final "stats" event with the Ollama timings, or an "error" event.
+     */
+    @PostMapping(value = "/analyze-stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+                 produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> analyzeImageStream(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "prompt", required = false) String prompt,
+            @RequestParam(value = "model", defaultValue = "llava:latest") String model) {
+        
+        logger.info("Received streaming AI analysis request for file: {} with model: {}", 
+                   file.getOriginalFilename(), model);
+        
+        String effectivePrompt = prompt != null && !prompt.isBlank() ? prompt : OllamaService.DEFAULT_PROMPT;
+        return ollamaService.analyzeImageStream(file, effectivePrompt, model)
+            .concatMap(chunk -> {
+                List<ServerSentEvent<Object>> events = new ArrayList<>(2);
+                if (chunk.getResponse() != null && !chunk.getResponse().isEmpty()) {
+                    events.add(ServerSentEvent.builder((Object) chunk.getResponse()).event("token").build());
+                }
+                if (chunk.isDone()) {
+                    events.add(ServerSentEvent.builder((Object) OllamaService.toStats(chunk)).event("stats").build());
+                }
+                return Flux.fromIterable(events);
+            })
+            .onErrorResume(e -> {
+                logger.error("Streaming AI analysis failed: {}", e.getMessage());
+                return Flux.just(ServerSentEvent.builder((Object) e.getMessage()).event("error").build());
+            });
+    }
+    
+    /**
+     * Map an analysis to 200, or to 400/500 error responses
+     */
+    private Mono<ResponseEntity<AiAnalysisResponse>> toResponseEntity(Mono<AiAnalysisResponse> analysis) {
+        return analysis
+            .map(ResponseEntity::ok)
+            .onErrorResume(QueueFullException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new AiAnalysisResponse(e.getMessage()))))
+            .onErrorResume(OcrException.class, e -> {
+                logger.error("AI analysis failed: {}", e.getMessage());
+                AiAnalysisResponse errorResponse = new AiAnalysisResponse(e.getMessage());
+                return Mono.just(ResponseEntity.badRequest().body(errorResponse));
+            })
+            .onErrorResume(e -> {
+                logger.error("Unexpected error during AI analysis", e);
+                AiAnalysisResponse errorResponse = new AiAnalysisResponse("Internal server error occurred");
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
+            });
     }
     
     /**
@@ -100,6 +151,22 @@ public class AiController {
         return ResponseEntity.status(status).body(health);
     }
     
+    /**
+     * Readiness: UP only once every warm-up model is loaded on at least one backend
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        boolean ready = warmupManager.isReady();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", ready ? "UP" : "DOWN");
+        response.put("models", warmupManager.getModelStates());
+        response.put("timestamp", System.currentTimeMillis());
+        
+        HttpStatus status = ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(response);
+    }
+    
     /**
      * Get available AI models
      */
@@ -107,9 +174,67 @@ public class AiController {
     public ResponseEntity<Map<String, Object>> getAvailableModels() {
         Map<String, Object> response = new HashMap<>();
         response.put("available_models", ollamaService.getAvailableModels());
+        response.put("installed_models", modelRegistry.getModels());
         response.put("default_model", "llava:latest");
-        response.put("max_file_size_mb", 50);
+        response.put("max_file_size_mb", ollamaService.getMaxFileSizeMb());
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Get per-backend load, latency and health of the Ollama servers
+     */
+    @GetMapping("/backends")
+    public ResponseEntity<Map<String, Object>> getBackends() {
+        return ResponseEntity.ok(ollamaRouter.getStats());
+    }
+    
+    /**
+     * Get vision analysis cache, request coalescing, model registry, warm-up and admission statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("cache", ollamaService.getCacheStats());
+        response.put("coalescing", ollamaService.getCoalescingStats());
+        response.put("models", modelRegistry.getStats());
+        response.put("warmup", warmupManager.getStats());
+        response.put("admission", concurrencyLimiter.getStats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get vision analysis cache statistics
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(ollamaService.getCacheStats());
+    }
+    
+    /**
+     * Drop every cached analysis, or only those produced by the given model
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Map<String, Object>> clearCache(@RequestParam(value = "model", required = false) String model) {
+        Map<String, Object> response = new HashMap<>();
+        if (model != null && !model.isBlank()) {
+            response.put("removed", ollamaService.invalidateCachedModel(model));
+            response.put("model", model);
+        } else {
+            ollamaService.clearCache();
+            response.put("cleared", true);
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Drop cached analyses of one image, identified by the SHA-256 of its bytes
+     */
+    @DeleteMapping("/cache/{imageSha256}")
+    public ResponseEntity<Map<String, Object>> invalidateImage(@PathVariable String imageSha256) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("image_sha256", imageSha256);
+        response.put("removed", ollamaService.invalidateCachedImage(imageSha256));
+        return ResponseEntity.ok(response);
+    }
 }
@@ -3,10 +3,15 @@ package com.hemendra.ocr.controller;
 import com.hemendra.ocr.dto.ChatRequest;
 import com.hemendra.ocr.dto.ChatResponse;
 import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.exception.QueueFullException;
 import com.hemendra.ocr.service.ChatService;
+import com.hemendra.ocr.service.ConversationStore;
+import com.hemendra.ocr.service.ModelConcurrencyLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.MediaType;
@@ -29,6 +34,12 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
     
+    @Autowired
+    private ModelConcurrencyLimiter concurrencyLimiter;
+    
+    @Autowired
+    private ConversationStore conversationStore;
+    
     /**
      * Send a chat message
      */
@@ -40,6 +51,11 @@ public class ChatController {
             ChatResponse response = chatService.chat(request);
             return ResponseEntity.ok(response);
             
+        } catch (QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ChatResponse(e.getMessage()));
+            
         } catch (OcrException e) {
             logger.error("Chat request failed", e);
             ChatResponse errorResponse = new ChatResponse(e.getMessage());
@@ -215,4 +231,17 @@ public class ChatController {
             return ResponseEntity.internalServerError().body(errorResponse);
         }
     }
+    
+    /**
+     * Get chat turn, conversation store, request coalescing and admission statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("turns", chatService.getTurnStats());
+        response.put("conversations", conversationStore.getStats());
+        response.put("coalescing", chatService.getCoalescingStats());
+        response.put("admission", concurrencyLimiter.getStats());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,66 @@
+package com.hemendra.ocr.controller;
+
+import com.hemendra.ocr.dto.HybridOcrResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.service.HybridOcrService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+
+/**
+ * REST Controller for confidence-gated OCR that falls back to the vision model
+ */
+@RestController
+@RequestMapping("/api/ocr/hybrid")
+@CrossOrigin(origins = "*")
+public class HybridOcrController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HybridOcrController.class);
+    
+    @Autowired
+    private HybridOcrService hybridOcrService;
+    
+    /**
+     * Extract text with Tesseract, escalating to the vision model below the confidence threshold
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<HybridOcrResponse> extractText(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "preprocess", required = false) String preprocess,
+            @RequestParam(value = "threshold", required = false) Double threshold) {
+        
+        logger.info("Received hybrid OCR request for file: {} with language: {}", 
+                   file.getOriginalFilename(), language);
+        
+        try {
+            HybridOcrResponse response = hybridOcrService.extract(file, new OcrOptions(language, preprocess), threshold);
+            return ResponseEntity.ok(response);
+            
+        } catch (OcrException e) {
+            logger.error("Hybrid OCR failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new HybridOcrResponse(e.getMessage()));
+            
+        } catch (Exception e) {
+            logger.error("Unexpected error during hybrid OCR processing", e);
+            HybridOcrResponse errorResponse = new HybridOcrResponse("Internal server error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
+    /**
+     * Escalation statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(hybridOcrService.getStats());
+    }
+}
@@ -1,8 +1,17 @@
 package com.hemendra.ocr.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hemendra.ocr.dto.BatchOcrResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrRegion;
 import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.dto.RegionOcrResponse;
 import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.service.FileBackedMultipartFile;
 import com.hemendra.ocr.service.OcrService;
+import com.hemendra.ocr.service.PageSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +20,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,19 +42,28 @@ public class OcrController {
     @Autowired
     private OcrService ocrService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
      * Extract text from uploaded image
      */
     @PostMapping(value = "/extract", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<OcrResponse> extractText(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "language", defaultValue = "eng") String language) {
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "preprocess", required = false) String preprocess,
+            @RequestParam(value = "tiled", required = false) Boolean tiled,
+            @RequestParam(value = "detail", defaultValue = "false") boolean detail) {
         
         logger.info("Received OCR request for file: {} with language: {}", 
                    file.getOriginalFilename(), language);
         
         try {
-            OcrResponse response = ocrService.extractTextFromImage(file, language);
+            OcrOptions options = new OcrOptions(language, preprocess);
+            options.setTiled(tiled);
+            options.setDetail(detail);
+            OcrResponse response = ocrService.extractTextFromImage(file, options);
             return ResponseEntity.ok(response);
             
         } catch (OcrException e) {
@@ -55,6 +78,135 @@ public class OcrController {
         }
     }
     
+    /**
+     * Extract text from named rectangles of an image only, given as a JSON array of
+     * {name, x, y, width, height, psm} objects
+     */
+    @PostMapping(value = "/regions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<RegionOcrResponse> extractRegions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("regions") String regions,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "preprocess", required = false) String preprocess) {
+        
+        logger.info("Received region OCR request for file: {} with language: {}", 
+                   file.getOriginalFilename(), language);
+        
+        try {
+            List<OcrRegion> regionList = objectMapper.readValue(regions, new TypeReference<List<OcrRegion>>() {});
+            RegionOcrResponse response = ocrService.extractRegions(file, regionList, new OcrOptions(language, preprocess));
+            return ResponseEntity.ok(response);
+            
+        } catch (JsonProcessingException e) {
+            logger.error("Invalid region definitions: {}", e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(new RegionOcrResponse("Invalid regions: " + e.getOriginalMessage()));
+            
+        } catch (OcrException e) {
+            logger.error("Region OCR failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new RegionOcrResponse(e.getMessage()));
+            
+        } catch (Exception e) {
+            logger.error("Unexpected error during region OCR processing", e);
+            RegionOcrResponse errorResponse = new RegionOcrResponse("Internal server error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
+    /**
+     * Extract text from many images in one request, given as repeated file parts or a zip archive
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BatchOcrResponse> extractBatch(
+            @RequestParam(value = "files", required = false) List<MultipartFile> files,
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "preprocess", required = false) String preprocess,
+            @RequestParam(value = "tiled", required = false) Boolean tiled) {
+        
+        List<FileBackedMultipartFile> expanded = List.of();
+        try {
+            List<MultipartFile> batch = new ArrayList<>();
+            if (files != null) {
+                batch.addAll(files);
+            }
+            if (archive != null && !archive.isEmpty()) {
+                expanded = ocrService.expandArchive(archive);
+                batch.addAll(expanded);
+            }
+            
+            logger.info("Received batch OCR request for {} files with language: {}", batch.size(), language);
+            
+            OcrOptions options = new OcrOptions(language, preprocess);
+            options.setTiled(tiled);
+            BatchOcrResponse response = ocrService.extractBatch(batch, options);
+            return ResponseEntity.ok(response);
+            
+        } catch (OcrException e) {
+            logger.error("Batch OCR failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new BatchOcrResponse(e.getMessage()));
+            
+        } catch (Exception e) {
+            logger.error("Unexpected error during batch OCR processing", e);
+            BatchOcrResponse errorResponse = new BatchOcrResponse("Internal server error occurred");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            
+        } finally {
+            // Archive entries were spooled to temp files for the duration of the batch
+            expanded.forEach(FileBackedMultipartFile::close);
+        }
+    }
+    
+    /**
+     * Extract text from every page of a multi-page TIFF or PDF.
+     * Streams one NDJSON line per page as soon as that page is recognized.
+     */
+    @PostMapping(value = "/pages", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> extractPages(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "preprocess", required = false) String preprocess) {
+        
+        logger.info("Received multi-page OCR request for file: {} with language: {}", 
+                   file.getOriginalFilename(), language);
+        
+        PageSource pages;
+        try {
+            pages = ocrService.openPages(file);
+        } catch (OcrException e) {
+            logger.error("Multi-page OCR failed: {}", e.getMessage());
+            // Streaming bodies are only handled for a declared StreamingResponseBody, so the error is written as one too
+            OcrResponse error = new OcrResponse(e.getMessage());
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> outputStream.write(objectMapper.writeValueAsBytes(error)));
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            try (pages) {
+                ocrService.extractPages(pages, new OcrOptions(language, preprocess), page -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(page));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (OcrException e) {
+                logger.error("Multi-page OCR failed for file: {}", file.getOriginalFilename(), e);
+                outputStream.write(objectMapper.writeValueAsBytes(new OcrResponse(e.getMessage())));
+                outputStream.write('\n');
+            } catch (UncheckedIOException e) {
+                logger.warn("Client stopped reading multi-page OCR results: {}", e.getMessage());
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+    
     /**
      * Health check endpoint
      */
@@ -76,7 +228,23 @@ public class OcrController {
     public ResponseEntity<Map<String, Object>> getSupportedFormats() {
         Map<String, Object> response = new HashMap<>();
         response.put("supported_formats", ocrService.getSupportedFormats());
-        response.put("max_file_size_mb", 10);
+        response.put("multi_page_formats", ocrService.getMultiPageFormats());
+        response.put("preprocessing", ocrService.getPreprocessingOptions());
+        response.put("max_file_size_mb", ocrService.getMaxFileSizeMb());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get OCR engine pool and result cache statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("engine_pool", ocrService.getPoolStats());
+        response.put("result_cache", ocrService.getCacheStats());
+        response.put("uploads", ocrService.getUploadStats());
+        response.put("timestamp", System.currentTimeMillis());
         
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,101 @@
+package com.hemendra.ocr.controller;
+
+import com.hemendra.ocr.dto.OcrJobResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.exception.QueueFullException;
+import com.hemendra.ocr.service.OcrJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+
+/**
+ * REST Controller for asynchronous OCR jobs
+ */
+@RestController
+@RequestMapping("/api/ocr/jobs")
+@CrossOrigin(origins = "*")
+public class OcrJobController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OcrJobController.class);
+    
+    @Autowired
+    private OcrJobService ocrJobService;
+    
+    /**
+     * Queue an OCR job and return its id immediately
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<OcrJobResponse> submitJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "preprocess", required = false) String preprocess,
+            @RequestParam(value = "tiled", required = false) Boolean tiled) {
+        
+        logger.info("Received OCR job for file: {} with language: {}", file.getOriginalFilename(), language);
+        
+        try {
+            OcrOptions options = new OcrOptions(language, preprocess);
+            options.setTiled(tiled);
+            OcrJobResponse response = ocrJobService.submit(file, options);
+            return ResponseEntity.accepted()
+                .header(HttpHeaders.LOCATION, "/api/ocr/jobs/" + response.getJobId())
+                .body(response);
+            
+        } catch (QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new OcrJobResponse(e.getMessage()));
+            
+        } catch (OcrException e) {
+            logger.error("OCR job submission failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new OcrJobResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get job status
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<OcrJobResponse> getJobStatus(@PathVariable String jobId) {
+        OcrJobResponse response = ocrJobService.getStatus(jobId);
+        if (response == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new OcrJobResponse("Job not found: " + jobId));
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get job result; responds 202 with the job status while the job is still pending
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId) {
+        OcrJobResponse status = ocrJobService.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new OcrResponse("Job not found: " + jobId));
+        }
+        
+        OcrResponse result = ocrJobService.getResult(jobId);
+        if (result == null) {
+            return ResponseEntity.accepted().body(status);
+        }
+        return result.isSuccess() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+    
+    /**
+     * Get job queue statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(ocrJobService.getStats());
+    }
+}
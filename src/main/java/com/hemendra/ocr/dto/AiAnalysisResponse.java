@@ -36,6 +36,15 @@ public class AiAnalysisResponse {
     @JsonProperty("error_message")
     private String errorMessage;
     
+    @JsonProperty("cached")
+    private boolean cached;
+    
+    @JsonProperty("original_bytes")
+    private Long originalBytes;
+    
+    @JsonProperty("sent_bytes")
+    private Long sentBytes;
+    
     @JsonProperty("ollama_stats")
     private OllamaStats ollamaStats;
 
@@ -131,6 +140,30 @@ public class AiAnalysisResponse {
         this.errorMessage = errorMessage;
     }
 
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public Long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public void setOriginalBytes(Long originalBytes) {
+        this.originalBytes = originalBytes;
+    }
+
+    public Long getSentBytes() {
+        return sentBytes;
+    }
+
+    public void setSentBytes(Long sentBytes) {
+        this.sentBytes = sentBytes;
+    }
+
     public OllamaStats getOllamaStats() {
         return ollamaStats;
     }
@@ -149,6 +182,12 @@ public class AiAnalysisResponse {
         @JsonProperty("load_duration_ms")
         private Long loadDurationMs;
         
+        @JsonProperty("prompt_eval_count")
+        private Integer promptEvalCount;
+        
+        @JsonProperty("prompt_eval_duration_ms")
+        private Long promptEvalDurationMs;
+        
         @JsonProperty("eval_count")
         private Integer evalCount;
         
@@ -171,6 +210,22 @@ public class AiAnalysisResponse {
             this.loadDurationMs = loadDurationMs;
         }
 
+        public Integer getPromptEvalCount() {
+            return promptEvalCount;
+        }
+
+        public void setPromptEvalCount(Integer promptEvalCount) {
+            this.promptEvalCount = promptEvalCount;
+        }
+
+        public Long getPromptEvalDurationMs() {
+            return promptEvalDurationMs;
+        }
+
+        public void setPromptEvalDurationMs(Long promptEvalDurationMs) {
+            this.promptEvalDurationMs = promptEvalDurationMs;
+        }
+
         public Integer getEvalCount() {
             return evalCount;
         }
@@ -0,0 +1,136 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for batch OCR operations
+ */
+public class BatchOcrResponse {
+    
+    @JsonProperty("results")
+    private List<OcrResponse> results;
+    
+    @JsonProperty("total_files")
+    private int totalFiles;
+    
+    @JsonProperty("succeeded")
+    private int succeeded;
+    
+    @JsonProperty("failed")
+    private int failed;
+    
+    @JsonProperty("total_processing_time_ms")
+    private Long totalProcessingTimeMs;
+    
+    @JsonProperty("wall_time_ms")
+    private Long wallTimeMs;
+    
+    @JsonProperty("timestamp")
+    private LocalDateTime timestamp;
+    
+    @JsonProperty("success")
+    private boolean success;
+    
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    public BatchOcrResponse() {
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public BatchOcrResponse(List<OcrResponse> results) {
+        this();
+        this.results = results;
+        this.totalFiles = results.size();
+        this.succeeded = (int) results.stream().filter(OcrResponse::isSuccess).count();
+        this.failed = totalFiles - succeeded;
+        this.totalProcessingTimeMs = results.stream()
+            .map(OcrResponse::getProcessingTimeMs)
+            .filter(time -> time != null)
+            .mapToLong(Long::longValue)
+            .sum();
+        this.success = true;
+    }
+
+    public BatchOcrResponse(String errorMessage) {
+        this();
+        this.errorMessage = errorMessage;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public List<OcrResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<OcrResponse> results) {
+        this.results = results;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public Long getTotalProcessingTimeMs() {
+        return totalProcessingTimeMs;
+    }
+
+    public void setTotalProcessingTimeMs(Long totalProcessingTimeMs) {
+        this.totalProcessingTimeMs = totalProcessingTimeMs;
+    }
+
+    public Long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    public void setWallTimeMs(Long wallTimeMs) {
+        this.wallTimeMs = wallTimeMs;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
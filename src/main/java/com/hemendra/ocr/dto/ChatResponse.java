@@ -36,6 +36,10 @@ public class ChatResponse {
     @JsonProperty("token_count")
     private Integer tokenCount;
     
+    // Prompt tokens Ollama evaluated for this turn (earlier turns it reused are not counted)
+    @JsonProperty("prompt_token_count")
+    private Integer promptTokenCount;
+    
     @JsonProperty("model_loaded")
     private boolean modelLoaded;
     
@@ -135,6 +139,14 @@ public class ChatResponse {
         this.tokenCount = tokenCount;
     }
 
+    public Integer getPromptTokenCount() {
+        return promptTokenCount;
+    }
+
+    public void setPromptTokenCount(Integer promptTokenCount) {
+        this.promptTokenCount = promptTokenCount;
+    }
+
     public boolean isModelLoaded() {
         return modelLoaded;
     }
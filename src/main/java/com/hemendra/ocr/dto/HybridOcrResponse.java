@@ -0,0 +1,197 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for hybrid OCR, which escalates to the vision model only when
+ * Tesseract is not confident enough
+ */
+public class HybridOcrResponse {
+
+    @JsonProperty("extracted_text")
+    private String extractedText;
+
+    @JsonProperty("engine")
+    private String engine;
+
+    @JsonProperty("escalated")
+    private boolean escalated;
+
+    @JsonProperty("ocr_confidence")
+    private Double ocrConfidence;
+
+    @JsonProperty("confidence_threshold")
+    private double confidenceThreshold;
+
+    @JsonProperty("model")
+    private String model;
+
+    @JsonProperty("ocr_processing_time_ms")
+    private Long ocrProcessingTimeMs;
+
+    @JsonProperty("ai_processing_time_ms")
+    private Long aiProcessingTimeMs;
+
+    @JsonProperty("processing_time_ms")
+    private Long processingTimeMs;
+
+    @JsonProperty("file_name")
+    private String fileName;
+
+    @JsonProperty("file_size")
+    private Long fileSize;
+
+    @JsonProperty("timestamp")
+    private LocalDateTime timestamp;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    @JsonProperty("escalation_error")
+    private String escalationError;
+
+    public HybridOcrResponse() {
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public HybridOcrResponse(String extractedText, String engine, String fileName, Long fileSize) {
+        this();
+        this.extractedText = extractedText;
+        this.engine = engine;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.success = true;
+    }
+
+    public HybridOcrResponse(String errorMessage) {
+        this();
+        this.errorMessage = errorMessage;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public boolean isEscalated() {
+        return escalated;
+    }
+
+    public void setEscalated(boolean escalated) {
+        this.escalated = escalated;
+    }
+
+    public Double getOcrConfidence() {
+        return ocrConfidence;
+    }
+
+    public void setOcrConfidence(Double ocrConfidence) {
+        this.ocrConfidence = ocrConfidence;
+    }
+
+    public double getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    public void setConfidenceThreshold(double confidenceThreshold) {
+        this.confidenceThreshold = confidenceThreshold;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public Long getOcrProcessingTimeMs() {
+        return ocrProcessingTimeMs;
+    }
+
+    public void setOcrProcessingTimeMs(Long ocrProcessingTimeMs) {
+        this.ocrProcessingTimeMs = ocrProcessingTimeMs;
+    }
+
+    public Long getAiProcessingTimeMs() {
+        return aiProcessingTimeMs;
+    }
+
+    public void setAiProcessingTimeMs(Long aiProcessingTimeMs) {
+        this.aiProcessingTimeMs = aiProcessingTimeMs;
+    }
+
+    public Long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public void setProcessingTimeMs(Long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public String getEscalationError() {
+        return escalationError;
+    }
+
+    public void setEscalationError(String escalationError) {
+        this.escalationError = escalationError;
+    }
+}
@@ -0,0 +1,129 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of an asynchronous OCR job
+ */
+public class OcrJobResponse {
+    
+    @JsonProperty("job_id")
+    private String jobId;
+    
+    @JsonProperty("status")
+    private String status;
+    
+    @JsonProperty("file_name")
+    private String fileName;
+    
+    @JsonProperty("submitted_at")
+    private LocalDateTime submittedAt;
+    
+    @JsonProperty("started_at")
+    private LocalDateTime startedAt;
+    
+    @JsonProperty("completed_at")
+    private LocalDateTime completedAt;
+    
+    @JsonProperty("queue_wait_ms")
+    private Long queueWaitMs;
+    
+    @JsonProperty("result_url")
+    private String resultUrl;
+    
+    @JsonProperty("success")
+    private boolean success;
+    
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    public OcrJobResponse() {}
+
+    public OcrJobResponse(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Long getQueueWaitMs() {
+        return queueWaitMs;
+    }
+
+    public void setQueueWaitMs(Long queueWaitMs) {
+        this.queueWaitMs = queueWaitMs;
+    }
+
+    public String getResultUrl() {
+        return resultUrl;
+    }
+
+    public void setResultUrl(String resultUrl) {
+        this.resultUrl = resultUrl;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,68 @@
+package com.hemendra.ocr.dto;
+
+/**
+ * Per-request OCR settings
+ */
+public class OcrOptions {
+    
+    private String language = "eng";
+    
+    private String preprocess;
+    
+    private Boolean tiled;
+    
+    private boolean detail;
+
+    public OcrOptions() {}
+
+    public OcrOptions(String language) {
+        this.language = language;
+    }
+
+    public OcrOptions(String language, String preprocess) {
+        this.language = language;
+        this.preprocess = preprocess;
+    }
+
+    // Getters and Setters
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    /**
+     * Preprocessing profile name or comma-separated stage list; null uses the default profile
+     */
+    public String getPreprocess() {
+        return preprocess;
+    }
+
+    public void setPreprocess(String preprocess) {
+        this.preprocess = preprocess;
+    }
+
+    /**
+     * Whether to split the image into bands OCRed in parallel; null decides by image size
+     */
+    public Boolean getTiled() {
+        return tiled;
+    }
+
+    public void setTiled(Boolean tiled) {
+        this.tiled = tiled;
+    }
+
+    /**
+     * Whether to return per-word and per-line confidences along with the text
+     */
+    public boolean isDetail() {
+        return detail;
+    }
+
+    public void setDetail(boolean detail) {
+        this.detail = detail;
+    }
+}
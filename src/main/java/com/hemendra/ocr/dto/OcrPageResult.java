@@ -0,0 +1,105 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * OCR result for a single page of a multi-page document
+ */
+public class OcrPageResult {
+    
+    @JsonProperty("page")
+    private int page;
+    
+    @JsonProperty("total_pages")
+    private int totalPages;
+    
+    @JsonProperty("extracted_text")
+    private String extractedText;
+    
+    @JsonProperty("confidence")
+    private Double confidence;
+    
+    @JsonProperty("processing_time_ms")
+    private Long processingTimeMs;
+    
+    @JsonProperty("success")
+    private boolean success;
+    
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    public OcrPageResult() {}
+
+    public OcrPageResult(int page, int totalPages, String extractedText) {
+        this.page = page;
+        this.totalPages = totalPages;
+        this.extractedText = extractedText;
+        this.success = true;
+    }
+
+    public static OcrPageResult failed(int page, int totalPages, String errorMessage) {
+        OcrPageResult result = new OcrPageResult();
+        result.page = page;
+        result.totalPages = totalPages;
+        result.errorMessage = errorMessage;
+        result.success = false;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
+    public Long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public void setProcessingTimeMs(Long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+}
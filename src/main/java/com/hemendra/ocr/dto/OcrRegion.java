@@ -0,0 +1,91 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A named rectangle of an image to OCR, in pixels of the uploaded image
+ */
+public class OcrRegion {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("x")
+    private int x;
+
+    @JsonProperty("y")
+    private int y;
+
+    @JsonProperty("width")
+    private int width;
+
+    @JsonProperty("height")
+    private int height;
+
+    /**
+     * Tesseract page segmentation mode for this region (e.g. 6 = single block, 7 = single line);
+     * null uses the engine default
+     */
+    @JsonProperty("psm")
+    private Integer psm;
+
+    public OcrRegion() {}
+
+    public OcrRegion(String name, int x, int y, int width, int height, Integer psm) {
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.psm = psm;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public Integer getPsm() {
+        return psm;
+    }
+
+    public void setPsm(Integer psm) {
+        this.psm = psm;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * OCR result for a single region of an image
+ */
+public class OcrRegionResult {
+
+    @JsonProperty("extracted_text")
+    private String extractedText;
+
+    @JsonProperty("confidence")
+    private Double confidence;
+
+    @JsonProperty("psm")
+    private Integer psm;
+
+    @JsonProperty("processing_time_ms")
+    private Long processingTimeMs;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    public OcrRegionResult() {}
+
+    public OcrRegionResult(String extractedText, Double confidence) {
+        this.extractedText = extractedText;
+        this.confidence = confidence;
+        this.success = true;
+    }
+
+    public static OcrRegionResult failed(String errorMessage) {
+        OcrRegionResult result = new OcrRegionResult();
+        result.errorMessage = errorMessage;
+        result.success = false;
+        return result;
+    }
+
+    // Getters and Setters
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
+    public Double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+
+    public Integer getPsm() {
+        return psm;
+    }
+
+    public void setPsm(Integer psm) {
+        this.psm = psm;
+    }
+
+    public Long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public void setProcessingTimeMs(Long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
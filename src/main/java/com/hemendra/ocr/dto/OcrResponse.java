@@ -3,6 +3,8 @@ package com.hemendra.ocr.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Response DTO for OCR operations
@@ -32,6 +34,21 @@ public class OcrResponse {
     
     @JsonProperty("error_message")
     private String errorMessage;
+    
+    @JsonProperty("cached")
+    private boolean cached;
+    
+    @JsonProperty("preprocessing_ms")
+    private Map<String, Long> preprocessingMs;
+    
+    @JsonProperty("tile_count")
+    private Integer tileCount;
+    
+    @JsonProperty("words")
+    private List<OcrTextSpan> words;
+    
+    @JsonProperty("lines")
+    private List<OcrTextSpan> lines;
 
     public OcrResponse() {
         this.timestamp = LocalDateTime.now();
@@ -115,4 +132,44 @@ public class OcrResponse {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public Map<String, Long> getPreprocessingMs() {
+        return preprocessingMs;
+    }
+
+    public void setPreprocessingMs(Map<String, Long> preprocessingMs) {
+        this.preprocessingMs = preprocessingMs;
+    }
+
+    public Integer getTileCount() {
+        return tileCount;
+    }
+
+    public void setTileCount(Integer tileCount) {
+        this.tileCount = tileCount;
+    }
+
+    public List<OcrTextSpan> getWords() {
+        return words;
+    }
+
+    public void setWords(List<OcrTextSpan> words) {
+        this.words = words;
+    }
+
+    public List<OcrTextSpan> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<OcrTextSpan> lines) {
+        this.lines = lines;
+    }
 }
@@ -0,0 +1,104 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A recognized word or line with Tesseract's confidence (0-100) and, when the engine
+ * reports it, its bounding box in image pixels
+ */
+public class OcrTextSpan {
+
+    @JsonProperty("text")
+    private String text;
+
+    @JsonProperty("confidence")
+    private Float confidence;
+
+    @JsonProperty("x")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer x;
+
+    @JsonProperty("y")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer y;
+
+    @JsonProperty("width")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer width;
+
+    @JsonProperty("height")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer height;
+
+    public OcrTextSpan() {
+    }
+
+    public OcrTextSpan(String text, Float confidence) {
+        this.text = text;
+        this.confidence = confidence;
+    }
+
+    public OcrTextSpan(String text, Float confidence, int x, int y, int width, int height) {
+        this(text, confidence);
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Whether the engine reported where the span is
+     */
+    public boolean hasBox() {
+        return x != null && y != null && width != null && height != null;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Float getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Float confidence) {
+        this.confidence = confidence;
+    }
+
+    public Integer getX() {
+        return x;
+    }
+
+    public void setX(Integer x) {
+        this.x = x;
+    }
+
+    public Integer getY() {
+        return y;
+    }
+
+    public void setY(Integer y) {
+        this.y = y;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+}
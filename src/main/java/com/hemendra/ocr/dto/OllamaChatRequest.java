@@ -0,0 +1,111 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Request DTO for Ollama's native /api/chat endpoint
+ */
+public class OllamaChatRequest {
+
+    @JsonProperty("model")
+    private String model;
+
+    @JsonProperty("messages")
+    private List<Message> messages;
+
+    @JsonProperty("stream")
+    private boolean stream = false;
+
+    @JsonProperty("options")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private OllamaRequest.OllamaOptions options;
+
+    // How long Ollama keeps the model loaded after this request, e.g. "30m"; omitted for the server default
+    @JsonProperty("keep_alive")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String keepAlive;
+
+    public OllamaChatRequest() {}
+
+    public OllamaChatRequest(String model, List<Message> messages) {
+        this.model = model;
+        this.messages = messages;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+    }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    public OllamaRequest.OllamaOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(OllamaRequest.OllamaOptions options) {
+        this.options = options;
+    }
+
+    public String getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(String keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * One chat message: role is "system", "user" or "assistant"
+     */
+    public static class Message {
+        @JsonProperty("role")
+        private String role;
+
+        @JsonProperty("content")
+        private String content;
+
+        public Message() {}
+
+        public Message(String role, String content) {
+            this.role = role;
+            this.content = content;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+}
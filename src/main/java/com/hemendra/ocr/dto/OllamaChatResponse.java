@@ -0,0 +1,137 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response DTO for Ollama's native /api/chat endpoint
+ */
+public class OllamaChatResponse {
+
+    @JsonProperty("model")
+    private String model;
+
+    @JsonProperty("message")
+    private OllamaChatRequest.Message message;
+
+    @JsonProperty("done")
+    private boolean done;
+
+    @JsonProperty("created_at")
+    private String createdAt;
+
+    @JsonProperty("total_duration")
+    private Long totalDuration;
+
+    @JsonProperty("load_duration")
+    private Long loadDuration;
+
+    @JsonProperty("prompt_eval_count")
+    private Integer promptEvalCount;
+
+    @JsonProperty("prompt_eval_duration")
+    private Long promptEvalDuration;
+
+    @JsonProperty("eval_count")
+    private Integer evalCount;
+
+    @JsonProperty("eval_duration")
+    private Long evalDuration;
+
+    /**
+     * The same result in the shape of an /api/generate response
+     */
+    public OllamaResponse toOllamaResponse() {
+        OllamaResponse response = new OllamaResponse();
+        response.setModel(model);
+        response.setResponse(message != null ? message.getContent() : null);
+        response.setDone(done);
+        response.setCreatedAt(createdAt);
+        response.setTotalDuration(totalDuration);
+        response.setLoadDuration(loadDuration);
+        response.setPromptEvalCount(promptEvalCount);
+        response.setPromptEvalDuration(promptEvalDuration);
+        response.setEvalCount(evalCount);
+        response.setEvalDuration(evalDuration);
+        return response;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public OllamaChatRequest.Message getMessage() {
+        return message;
+    }
+
+    public void setMessage(OllamaChatRequest.Message message) {
+        this.message = message;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getTotalDuration() {
+        return totalDuration;
+    }
+
+    public void setTotalDuration(Long totalDuration) {
+        this.totalDuration = totalDuration;
+    }
+
+    public Long getLoadDuration() {
+        return loadDuration;
+    }
+
+    public void setLoadDuration(Long loadDuration) {
+        this.loadDuration = loadDuration;
+    }
+
+    public Integer getPromptEvalCount() {
+        return promptEvalCount;
+    }
+
+    public void setPromptEvalCount(Integer promptEvalCount) {
+        this.promptEvalCount = promptEvalCount;
+    }
+
+    public Long getPromptEvalDuration() {
+        return promptEvalDuration;
+    }
+
+    public void setPromptEvalDuration(Long promptEvalDuration) {
+        this.promptEvalDuration = promptEvalDuration;
+    }
+
+    public Integer getEvalCount() {
+        return evalCount;
+    }
+
+    public void setEvalCount(Integer evalCount) {
+        this.evalCount = evalCount;
+    }
+
+    public Long getEvalDuration() {
+        return evalDuration;
+    }
+
+    public void setEvalDuration(Long evalDuration) {
+        this.evalDuration = evalDuration;
+    }
+}
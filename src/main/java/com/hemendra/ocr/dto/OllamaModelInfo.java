@@ -0,0 +1,113 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * An installed Ollama model, as reported by /api/tags and /api/show
+ */
+public class OllamaModelInfo {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("digest")
+    private String digest;
+
+    @JsonProperty("size_bytes")
+    private Long sizeBytes;
+
+    @JsonProperty("family")
+    private String family;
+
+    @JsonProperty("parameter_size")
+    private String parameterSize;
+
+    @JsonProperty("quantization_level")
+    private String quantizationLevel;
+
+    @JsonProperty("capabilities")
+    private List<String> capabilities;
+
+    @JsonProperty("vision")
+    private boolean vision;
+
+    @JsonProperty("backends")
+    private List<String> backends;
+
+    public OllamaModelInfo() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public void setFamily(String family) {
+        this.family = family;
+    }
+
+    public String getParameterSize() {
+        return parameterSize;
+    }
+
+    public void setParameterSize(String parameterSize) {
+        this.parameterSize = parameterSize;
+    }
+
+    public String getQuantizationLevel() {
+        return quantizationLevel;
+    }
+
+    public void setQuantizationLevel(String quantizationLevel) {
+        this.quantizationLevel = quantizationLevel;
+    }
+
+    public List<String> getCapabilities() {
+        return capabilities;
+    }
+
+    public void setCapabilities(List<String> capabilities) {
+        this.capabilities = capabilities;
+    }
+
+    public boolean isVision() {
+        return vision;
+    }
+
+    public void setVision(boolean vision) {
+        this.vision = vision;
+    }
+
+    public List<String> getBackends() {
+        return backends;
+    }
+
+    public void setBackends(List<String> backends) {
+        this.backends = backends;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hemendra.ocr.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -23,6 +24,11 @@ public class OllamaRequest {
     
     @JsonProperty("options")
     private OllamaOptions options;
+    
+    // How long Ollama keeps the model loaded after this request, e.g. "30m"; omitted for the server default
+    @JsonProperty("keep_alive")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String keepAlive;
 
     public OllamaRequest() {}
 
@@ -74,6 +80,14 @@ public class OllamaRequest {
         this.options = options;
     }
 
+    public String getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(String keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
     /**
      * Ollama request options
      */
@@ -0,0 +1,108 @@
+package com.hemendra.ocr.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Response DTO for region-of-interest OCR, with results keyed by region name
+ */
+public class RegionOcrResponse {
+
+    @JsonProperty("regions")
+    private Map<String, OcrRegionResult> regions;
+
+    @JsonProperty("file_name")
+    private String fileName;
+
+    @JsonProperty("file_size")
+    private Long fileSize;
+
+    @JsonProperty("processing_time_ms")
+    private Long processingTimeMs;
+
+    @JsonProperty("timestamp")
+    private LocalDateTime timestamp;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    public RegionOcrResponse() {
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public RegionOcrResponse(Map<String, OcrRegionResult> regions, String fileName, Long fileSize) {
+        this();
+        this.regions = regions;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.success = true;
+    }
+
+    public RegionOcrResponse(String errorMessage) {
+        this();
+        this.errorMessage = errorMessage;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public Map<String, OcrRegionResult> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, OcrRegionResult> regions) {
+        this.regions = regions;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public void setProcessingTimeMs(Long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hemendra.ocr.exception;
+
+/**
+ * Thrown when a bounded work queue cannot accept more work
+ */
+public class QueueFullException extends OcrException {
+    
+    private final long retryAfterSeconds;
+    
+    public QueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
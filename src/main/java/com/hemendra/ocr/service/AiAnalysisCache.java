@@ -0,0 +1,87 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.AiAnalysisResponse;
+import com.hemendra.ocr.dto.OllamaRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of vision analyses, keyed by image hash, prompt, model and generation options.
+ * Repeating an analysis of the same image is served from memory instead of a new generation.
+ */
+@Component
+public class AiAnalysisCache {
+
+    private final boolean enabled;
+    private final LruTtlCache<Key, AiAnalysisResponse> entries;
+
+    public AiAnalysisCache(@Value("${ollama.cache.enabled:true}") boolean enabled,
+                           @Value("${ollama.cache.max-entries:500}") int maxEntries,
+                           @Value("${ollama.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.enabled = enabled;
+        this.entries = new LruTtlCache<>(maxEntries, TimeUnit.MINUTES.toMillis(ttlMinutes));
+    }
+
+    /**
+     * Cache that never stores anything
+     */
+    public static AiAnalysisCache disabled() {
+        return new AiAnalysisCache(false, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Everything that affects the generated analysis
+     */
+    public record Key(String imageSha256, String prompt, String model, String options) {
+
+        public static Key of(String imageSha256, String prompt, String model, OllamaRequest.OllamaOptions options) {
+            String signature = options == null ? "default"
+                : "temperature=" + options.getTemperature() + "|top_p=" + options.getTopP() + "|top_k=" + options.getTopK();
+            return new Key(imageSha256, prompt, model, signature);
+        }
+    }
+
+    public AiAnalysisResponse get(Key key) {
+        return enabled ? entries.get(key) : null;
+    }
+
+    /**
+     * Store a successful analysis
+     */
+    public void put(Key key, AiAnalysisResponse response) {
+        if (enabled && response != null && response.isSuccess()) {
+            entries.put(key, response);
+        }
+    }
+
+    /**
+     * Drop every cached analysis of one image, returning how many entries were removed
+     */
+    public int invalidateImage(String imageSha256) {
+        return entries.removeIf(key -> key.imageSha256().equalsIgnoreCase(imageSha256));
+    }
+
+    /**
+     * Drop every cached analysis produced by a model (e.g. after it was updated)
+     */
+    public int invalidateModel(String model) {
+        return entries.removeIf(key -> key.model().equals(model));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = entries.getStats();
+        stats.put("enabled", enabled);
+        return stats;
+    }
+}
@@ -2,23 +2,31 @@ package com.hemendra.ocr.service;
 
 import com.hemendra.ocr.dto.ChatRequest;
 import com.hemendra.ocr.dto.ChatResponse;
+import com.hemendra.ocr.dto.OllamaChatRequest;
+import com.hemendra.ocr.dto.OllamaChatResponse;
 import com.hemendra.ocr.dto.OllamaRequest;
 import com.hemendra.ocr.dto.OllamaResponse;
 import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.exception.QueueFullException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Service for chat functionality with Ollama text models
@@ -30,17 +38,43 @@ public class ChatService {
     
     private static final Duration TIMEOUT = Duration.ofMinutes(10);
     private static final Duration MODEL_DOWNLOAD_TIMEOUT = Duration.ofMinutes(30);
+    private static final int MAX_CONVERSATION_ID_LENGTH = 128;
     
-    @Value("${ollama.base-url:http://localhost:11434}")
-    private String ollamaBaseUrl;
+    private final OllamaRouter router;
+    private final OllamaModelRegistry modelRegistry;
+    private final ModelWarmupManager warmupManager;
+    private final ModelConcurrencyLimiter concurrencyLimiter;
+    private final boolean nativeChatApi;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConversationStore conversations;
+    // Turns of one conversation run one at a time and in order; different conversations run in parallel
+    private final KeyedSequencer<String> conversationTurns = new KeyedSequencer<>();
+    private final SingleFlight<String, OllamaResponse> chatFlights;
+    private final SingleFlight<String, String> streamFlights;
     
-    private final WebClient webClient;
-    private final Map<String, List<Map<String, String>>> conversations = new ConcurrentHashMap<>();
+    // Chat turns served, and the generate calls and availability lookups they caused upstream
+    private final AtomicLong chatTurns = new AtomicLong();
+    private final AtomicLong generateCalls = new AtomicLong();
+    private final AtomicLong registryRefreshes = new AtomicLong();
+    private final AtomicLong modelPulls = new AtomicLong();
+    private final AtomicLong promptEvalTokens = new AtomicLong();
+    private volatile Integer lastPromptEvalCount;
     
-    public ChatService() {
-        this.webClient = WebClient.builder()
-            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(50 * 1024 * 1024))
-            .build();
+    public ChatService(OllamaRouter router,
+                       OllamaModelRegistry modelRegistry,
+                       ModelWarmupManager warmupManager,
+                       ModelConcurrencyLimiter concurrencyLimiter,
+                       ConversationStore conversations,
+                       @Value("${ollama.coalescing.enabled:true}") boolean coalescing,
+                       @Value("${ollama.chat.native-api:true}") boolean nativeChatApi) {
+        this.router = router;
+        this.modelRegistry = modelRegistry;
+        this.warmupManager = warmupManager;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.conversations = conversations;
+        this.nativeChatApi = nativeChatApi;
+        this.chatFlights = new SingleFlight<>(coalescing);
+        this.streamFlights = new SingleFlight<>(coalescing);
     }
     
     /**
@@ -55,39 +89,42 @@ public class ChatService {
             
             // Ensure model is available
             ensureModelAvailable(request.getModel());
+            chatTurns.incrementAndGet();
             
             // Get or create conversation
             String conversationId = request.getConversationId() != null ? 
                 request.getConversationId() : UUID.randomUUID().toString();
             
-            List<Map<String, String>> conversation = conversations.computeIfAbsent(
-                conversationId, k -> new ArrayList<>());
-            
-            // Add system prompt if provided and conversation is new
-            if (request.getSystemPrompt() != null && conversation.isEmpty()) {
-                Map<String, String> systemMessage = new HashMap<>();
-                systemMessage.put("role", "system");
-                systemMessage.put("content", request.getSystemPrompt());
-                conversation.add(systemMessage);
+            // Wait for earlier turns of this conversation, so this one sees their replies
+            OllamaResponse ollamaResponse;
+            KeyedSequencer.Ticket turn = conversationTurns.enter(conversationId);
+            try {
+                turn.await();
+                
+                // Add user message (and the system prompt if the conversation is new), keeping the
+                // recent messages that fit the conversation's token budget
+                List<Map<String, String>> conversation = conversations.addTurn(
+                    conversationId, request.getSystemPrompt(), request.getMessage());
+                
+                // Call Ollama with the conversation so far: as a messages array on /api/chat, or as one
+                // transcript prompt on /api/generate
+                try {
+                    ollamaResponse = nativeChatApi
+                        ? callOllamaNativeChatApi(createOllamaChatRequest(request, conversation))
+                        : callOllamaChatApi(createOllamaRequestWithContext(request, conversation));
+                } catch (RuntimeException | OcrException e) {
+                    // Close the turn with an empty reply so the next one does not follow a user message
+                    conversations.addReply(conversationId, "");
+                    throw e;
+                }
+                
+                // Add assistant response to conversation
+                conversations.addReply(conversationId, ollamaResponse.getResponse());
+            } finally {
+                turn.leave();
             }
-            
-            // Add user message to conversation
-            Map<String, String> userMessage = new HashMap<>();
-            userMessage.put("role", "user");
-            userMessage.put("content", request.getMessage());
-            conversation.add(userMessage);
-            
-            // Create Ollama request for chat with conversation context
-            OllamaRequest ollamaRequest = createOllamaRequestWithContext(request, conversation);
-            
-            // Call Ollama API
-            OllamaResponse ollamaResponse = callOllamaChatApi(ollamaRequest);
-            
-            // Add assistant response to conversation
-            Map<String, String> assistantMessage = new HashMap<>();
-            assistantMessage.put("role", "assistant");
-            assistantMessage.put("content", ollamaResponse.getResponse());
-            conversation.add(assistantMessage);
+            warmupManager.recordLoadDuration(request.getModel(), ollamaResponse.getLoadDuration());
+            recordPromptEval(ollamaResponse.getPromptEvalCount());
             
             // Calculate processing time
             long processingTime = System.currentTimeMillis() - startTime;
@@ -100,12 +137,15 @@ public class ChatService {
             );
             response.setProcessingTimeMs(processingTime);
             response.setTokenCount(ollamaResponse.getEvalCount());
+            response.setPromptTokenCount(ollamaResponse.getPromptEvalCount());
             
             logger.info("Chat completed successfully for model: {} in {}ms", 
                        request.getModel(), processingTime);
             
             return response;
             
+        } catch (QueueFullException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Chat failed for model: {}", request.getModel(), e);
             throw new OcrException("Chat failed: " + e.getMessage(), e);
@@ -122,37 +162,51 @@ public class ChatService {
 
             // Ensure model is available
             ensureModelAvailable(request.getModel());
+            chatTurns.incrementAndGet();
 
             // Get or create conversation
             String conversationId = request.getConversationId() != null ?
                 request.getConversationId() : UUID.randomUUID().toString();
 
-            List<Map<String, String>> conversation = conversations.computeIfAbsent(
-                conversationId, k -> new ArrayList<>());
-
-            // Add system prompt if provided and conversation is new
-            if (request.getSystemPrompt() != null && conversation.isEmpty()) {
-                Map<String, String> systemMessage = new HashMap<>();
-                systemMessage.put("role", "system");
-                systemMessage.put("content", request.getSystemPrompt());
-                conversation.add(systemMessage);
-            }
+            // The turn may start later on another thread, so identify the caller now
+            String client = ModelConcurrencyLimiter.currentClient();
 
-            // Add user message to conversation
-            Map<String, String> userMessage = new HashMap<>();
-            userMessage.put("role", "user");
-            userMessage.put("content", request.getMessage());
-            conversation.add(userMessage);
+            // Start once earlier turns of this conversation are done, so this one sees their replies
+            return conversationTurns.runMany(conversationId, () -> {
+                    // Add user message (and the system prompt if the conversation is new), keeping the
+                    // recent messages that fit the conversation's token budget
+                    List<Map<String, String>> conversation = conversations.addTurn(
+                        conversationId, request.getSystemPrompt(), request.getMessage());
 
-            // Create Ollama request for streaming chat
-            OllamaRequest ollamaRequest = createOllamaRequestWithContext(request, conversation);
-            ollamaRequest.setStream(true);
+                    // Call Ollama streaming API
+                    Flux<String> tokens;
+                    if (nativeChatApi) {
+                        OllamaChatRequest chatRequest = createOllamaChatRequest(request, conversation);
+                        chatRequest.setStream(true);
+                        tokens = callOllamaNativeStreamingApi(chatRequest, client);
+                    } else {
+                        OllamaRequest ollamaRequest = createOllamaRequestWithContext(request, conversation);
+                        ollamaRequest.setStream(true);
+                        tokens = callOllamaStreamingApi(ollamaRequest, client);
+                    }
 
-            // Call Ollama streaming API
-            return callOllamaStreamingApi(ollamaRequest)
+                    // Add the assistant response to the conversation before the next turn may start. A stream
+                    // the client cancelled or the model broke off still completes the turn with what arrived,
+                    // so the next turn does not send two user messages in a row.
+                    StringBuffer reply = new StringBuffer();
+                    AtomicBoolean replied = new AtomicBoolean();
+                    Runnable addReply = () -> {
+                        if (replied.compareAndSet(false, true)) {
+                            conversations.addReply(conversationId, reply.toString());
+                        }
+                    };
+                    return tokens
+                        .doOnNext(reply::append)
+                        .doOnComplete(addReply)
+                        .doOnError(error -> addReply.run())
+                        .doOnCancel(addReply);
+                })
                 .doOnComplete(() -> {
-                    // Add assistant response to conversation when complete
-                    // Note: In a real implementation, you'd collect the full response
                     logger.info("Streaming chat completed for model: {}", request.getModel());
                 })
                 .doOnError(error -> {
@@ -166,36 +220,10 @@ public class ChatService {
     }
 
     /**
-     * Get available text models (excluding vision models)
+     * Get installed text models (excluding vision models), served from the model registry
      */
     public List<String> getAvailableTextModels() {
-        try {
-            // Get all models from Ollama
-            String response = webClient.get()
-                .uri(ollamaBaseUrl + "/api/tags")
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(10))
-                .block();
-            
-            // Parse and filter text models (this is simplified)
-            List<String> textModels = new ArrayList<>();
-            textModels.add("gemma2:2b");
-            textModels.add("gemma2:9b");
-            textModels.add("llama3.2:1b");
-            textModels.add("llama3.2:3b");
-            textModels.add("qwen2.5:0.5b");
-            textModels.add("qwen2.5:1.5b");
-            textModels.add("phi3:mini");
-            textModels.add("mistral:7b");
-            textModels.add("codellama:7b");
-            
-            return textModels;
-            
-        } catch (Exception e) {
-            logger.error("Failed to get available models", e);
-            return Arrays.asList("gemma2:2b", "llama3.2:1b", "phi3:mini");
-        }
+        return modelRegistry.getTextModelNames();
     }
     
     /**
@@ -230,69 +258,67 @@ public class ChatService {
      * Clear conversation history
      */
     public void clearConversation(String conversationId) {
-        conversations.remove(conversationId);
+        // Runs between turns, never in the middle of one
+        KeyedSequencer.Ticket turn = conversationTurns.enter(conversationId);
+        try {
+            turn.await();
+            conversations.remove(conversationId);
+        } finally {
+            turn.leave();
+        }
         logger.info("Cleared conversation: {}", conversationId);
     }
     
     /**
-     * Get conversation history
+     * Get a snapshot of the conversation history; reads do not wait for turns in progress
      */
     public List<Map<String, String>> getConversationHistory(String conversationId) {
-        return conversations.getOrDefault(conversationId, new ArrayList<>());
+        return conversations.history(conversationId);
     }
     
     /**
-     * Check if model is available locally
+     * Check if model is installed, answered from the model registry without calling Ollama
      */
     public boolean isModelAvailable(String modelName) {
-        try {
-            // Try to generate with the model to check if it's available
-            OllamaRequest testRequest = new OllamaRequest();
-            testRequest.setModel(modelName);
-            testRequest.setPrompt("test");
-            
-            webClient.post()
-                .uri(ollamaBaseUrl + "/api/generate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(testRequest)
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(5))
-                .block();
-            
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return modelRegistry.isInstalled(modelName);
     }
     
     /**
-     * Ensure model is available, download if necessary
+     * Fail fast if the model registry does not list the model. The model may have been pulled since
+     * the last refresh (e.g. with the ollama CLI), so the registry is refreshed in the background
+     * rather than on the request thread.
      */
     private void ensureModelAvailable(String modelName) throws OcrException {
-        if (!isModelAvailable(modelName)) {
-            logger.info("Model {} not available, attempting to download...", modelName);
-            downloadModel(modelName);
+        if (isModelAvailable(modelName)) {
+            return;
         }
+        if (modelRegistry.requestRefresh()) {
+            registryRefreshes.incrementAndGet();
+        }
+        throw new OcrException("Model " + modelName + " is not installed; install it with POST /api/chat/install-model");
     }
     
     /**
-     * Download model synchronously
+     * Download model synchronously on every backend it may be routed to
      */
     private void downloadModel(String modelName) throws OcrException {
         try {
             Map<String, String> pullRequest = new HashMap<>();
             pullRequest.put("name", modelName);
             
-            webClient.post()
-                .uri(ollamaBaseUrl + "/api/pull")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(pullRequest)
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(MODEL_DOWNLOAD_TIMEOUT)
+            modelPulls.incrementAndGet();
+            router.broadcast(backend -> backend.webClient().post()
+                    .uri("/api/pull")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(pullRequest)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(MODEL_DOWNLOAD_TIMEOUT))
+                .then()
                 .block();
             
+            // Pick up the new model's details so later turns find it without calling Ollama
+            modelRegistry.refresh();
             logger.info("Model {} downloaded successfully", modelName);
             
         } catch (Exception e) {
@@ -315,22 +341,47 @@ public class ChatService {
     }
     
     /**
-     * Call Ollama chat API
+     * Call Ollama generate API with a transcript prompt
      */
     private OllamaResponse callOllamaChatApi(OllamaRequest request) throws OcrException {
+        return callOllama(request.getModel(), requestKey(request), "/api/generate", request,
+            response -> response.bodyToMono(OllamaResponse.class));
+    }
+    
+    /**
+     * Call Ollama's native chat API with the conversation as a messages array
+     */
+    private OllamaResponse callOllamaNativeChatApi(OllamaChatRequest request) throws OcrException {
+        return callOllama(request.getModel(), chatRequestKey(request), "/api/chat", request,
+            response -> response.bodyToMono(OllamaChatResponse.class).map(OllamaChatResponse::toOllamaResponse));
+    }
+    
+    /**
+     * Post a buffered call to Ollama, sharing the result of an identical call that is already in flight
+     */
+    private OllamaResponse callOllama(String model, String key, String uri, Object body,
+                                      Function<WebClient.ResponseSpec, Mono<OllamaResponse>> decode) throws OcrException {
+        String client = ModelConcurrencyLimiter.currentClient();
         try {
-            return webClient.post()
-                .uri(ollamaBaseUrl + "/api/generate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(OllamaResponse.class)
-                .timeout(TIMEOUT)
+            return chatFlights.execute(key, () -> concurrencyLimiter.admit(model, client, 
+                    () -> router.route(model, backend -> {
+                        generateCalls.incrementAndGet();
+                        return decode.apply(backend.webClient().post()
+                                .uri(uri)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(body)
+                                .retrieve())
+                            .timeout(TIMEOUT);
+                    })))
                 .block();
         } catch (WebClientResponseException e) {
+            forgetIfNotFound(model, e);
             logger.error("Ollama API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new OcrException("Ollama API error: " + e.getMessage());
         } catch (Exception e) {
+            if (Exceptions.unwrap(e) instanceof QueueFullException queueFull) {
+                throw queueFull;
+            }
             logger.error("Failed to call Ollama API", e);
             throw new OcrException("Failed to communicate with chat service: " + e.getMessage());
         }
@@ -351,6 +402,10 @@ public class ChatService {
         if (request.getMessage().length() > 10000) {
             throw new OcrException("Message too long (max 10,000 characters)");
         }
+        
+        if (request.getConversationId() != null && request.getConversationId().length() > MAX_CONVERSATION_ID_LENGTH) {
+            throw new OcrException("Conversation id too long (max " + MAX_CONVERSATION_ID_LENGTH + " characters)");
+        }
     }
 
     /**
@@ -360,6 +415,7 @@ public class ChatService {
         OllamaRequest ollamaRequest = new OllamaRequest();
         ollamaRequest.setModel(request.getModel());
         ollamaRequest.setStream(false);
+        ollamaRequest.setKeepAlive(warmupManager.keepAliveFor(request.getModel()));
 
         // Build context from conversation history
         StringBuilder contextPrompt = new StringBuilder();
@@ -384,20 +440,149 @@ public class ChatService {
     }
 
     /**
-     * Call Ollama streaming API
+     * Create a native chat request carrying the conversation as structured messages. Ollama reuses
+     * its cached evaluation of the unchanged earlier messages, so only the new turn is evaluated.
      */
-    private Flux<String> callOllamaStreamingApi(OllamaRequest request) {
-        return webClient.post()
-            .uri(ollamaBaseUrl + "/api/generate")
-            .contentType(MediaType.APPLICATION_JSON)
-            .bodyValue(request)
-            .retrieve()
-            .bodyToFlux(String.class)
-            .timeout(TIMEOUT)
+    private OllamaChatRequest createOllamaChatRequest(ChatRequest request, List<Map<String, String>> conversation) {
+        List<OllamaChatRequest.Message> messages = new ArrayList<>(conversation.size());
+        for (Map<String, String> message : conversation) {
+            messages.add(new OllamaChatRequest.Message(message.get("role"), message.get("content")));
+        }
+        OllamaChatRequest chatRequest = new OllamaChatRequest(request.getModel(), messages);
+        chatRequest.setKeepAlive(warmupManager.keepAliveFor(request.getModel()));
+        return chatRequest;
+    }
+
+    /**
+     * Call Ollama streaming generate API with a transcript prompt
+     */
+    private Flux<String> callOllamaStreamingApi(OllamaRequest request, String client) {
+        return streamOllama(request.getModel(), requestKey(request), "/api/generate", request, client)
             .map(this::parseStreamingResponse)
             .filter(response -> response != null && !response.isEmpty());
     }
 
+    /**
+     * Call Ollama's native streaming chat API with the conversation as a messages array
+     */
+    private Flux<String> callOllamaNativeStreamingApi(OllamaChatRequest request, String client) {
+        return streamOllama(request.getModel(), chatRequestKey(request), "/api/chat", request, client)
+            .map(this::parseChatStreamingResponse)
+            .filter(response -> response != null && !response.isEmpty());
+    }
+
+    /**
+     * Post a streaming call to Ollama, joining an identical stream that is already in flight
+     */
+    private Flux<String> streamOllama(String model, String key, String uri, Object body, String client) {
+        return streamFlights.executeMany(key, () -> concurrencyLimiter.admitMany(model, client, 
+                () -> router.routeMany(model, backend -> {
+                    generateCalls.incrementAndGet();
+                    return backend.webClient().post()
+                        .uri(uri)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToFlux(String.class)
+                        .timeout(TIMEOUT);
+                })))
+            .doOnError(e -> forgetIfNotFound(model, e));
+    }
+
+    /**
+     * A 404 from Ollama means the model is gone, so the next turn pulls it instead of failing again
+     */
+    private void forgetIfNotFound(String model, Throwable error) {
+        if (error instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+            modelRegistry.markMissing(model);
+        }
+    }
+
+    /**
+     * Identity of a generate call: model, prompt, images, options and stream flag
+     */
+    private String requestKey(OllamaRequest request) {
+        OllamaRequest.OllamaOptions options = request.getOptions();
+        return ContentHash.sha256(
+            request.getModel(),
+            request.getPrompt(),
+            String.valueOf(request.isStream()),
+            request.getImages() == null ? "" : String.join(",", request.getImages()),
+            options == null ? "" : options.getTemperature() + "|" + options.getTopP() + "|" + options.getTopK());
+    }
+    
+    /**
+     * Identity of a native chat call: model, every message, options and stream flag
+     */
+    private String chatRequestKey(OllamaChatRequest request) {
+        List<String> parts = new ArrayList<>();
+        parts.add("chat");
+        parts.add(request.getModel());
+        parts.add(String.valueOf(request.isStream()));
+        OllamaRequest.OllamaOptions options = request.getOptions();
+        parts.add(options == null ? "" : options.getTemperature() + "|" + options.getTopP() + "|" + options.getTopK());
+        for (OllamaChatRequest.Message message : request.getMessages()) {
+            parts.add(message.getRole());
+            parts.add(message.getContent());
+        }
+        return ContentHash.sha256(parts.toArray(new String[0]));
+    }
+    
+    /**
+     * Coalescing counters for buffered and streaming chat calls
+     */
+    public Map<String, Object> getCoalescingStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("chat", chatFlights.getStats());
+        stats.put("chat_stream", streamFlights.getStats());
+        return stats;
+    }
+
+    /**
+     * Upstream calls per chat turn; with coalescing, generate calls per turn can drop below one
+     */
+    public Map<String, Object> getTurnStats() {
+        long turns = chatTurns.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("turns", turns);
+        stats.put("generate_calls", generateCalls.get());
+        stats.put("generate_calls_per_turn", turns == 0 ? 0.0 : (double) generateCalls.get() / turns);
+        stats.put("registry_refreshes", registryRefreshes.get());
+        stats.put("model_pulls", modelPulls.get());
+        stats.put("chat_api", nativeChatApi ? "chat" : "generate");
+        stats.put("sequencing", conversationTurns.getStats());
+        stats.put("prompt_eval_tokens", promptEvalTokens.get());
+        stats.put("last_prompt_eval_count", lastPromptEvalCount);
+        return stats;
+    }
+
+    /**
+     * Prompt tokens Ollama actually evaluated for a turn; stays flat when earlier turns are reused
+     */
+    private void recordPromptEval(Integer promptEvalCount) {
+        if (promptEvalCount != null) {
+            promptEvalTokens.addAndGet(promptEvalCount);
+            lastPromptEvalCount = promptEvalCount;
+        }
+    }
+
+    /**
+     * Parse one line of Ollama's streaming chat response and extract the message content
+     */
+    private String parseChatStreamingResponse(String jsonLine) {
+        try {
+            JsonNode line = objectMapper.readTree(jsonLine);
+            if (line.path("done").asBoolean(false)) {
+                recordPromptEval(line.hasNonNull("prompt_eval_count") ? line.get("prompt_eval_count").asInt() : null);
+            }
+            return line.path("message").path("content").asText("");
+        } catch (Exception e) {
+            logger.warn("Failed to parse streaming chat response: {}", jsonLine, e);
+            return "";
+        }
+    }
+
     /**
      * Parse streaming response from Ollama
      */
@@ -0,0 +1,124 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OcrTextSpan;
+import com.sun.jna.Pointer;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.ITessAPI.TessBaseAPI;
+import net.sourceforge.tess4j.ITessAPI.TessPageIterator;
+import net.sourceforge.tess4j.ITessAPI.TessResultIterator;
+import net.sourceforge.tess4j.TessAPI;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tesseract engine that returns word- and line-level confidences and boxes along with the text.
+ *
+ * Everything is read from a single recognition pass; calling doOCR and getWords separately
+ * would recognize the image once per call. Unlike {@link Tesseract#doOCR}, the native handle
+ * is initialized once and kept, so the language data is loaded only when the engine is created;
+ * each call resets just the image, page segmentation mode and variables. Closing the engine
+ * releases the handle.
+ */
+public class ConfidenceTesseract extends Tesseract implements AutoCloseable {
+
+    private boolean initialized;
+    private int pageSegMode = -1;
+    private int defaultPageSegMode;
+
+    @Override
+    public synchronized void setPageSegMode(int mode) {
+        super.setPageSegMode(mode);
+        this.pageSegMode = mode;
+    }
+
+    /**
+     * Load the language data, if not done yet
+     */
+    public synchronized void open() {
+        if (!initialized) {
+            init();
+            defaultPageSegMode = getAPI().TessBaseAPIGetPageSegMode(getHandle());
+            initialized = true;
+        }
+    }
+
+    /**
+     * Recognize an image, returning its text, words and lines
+     */
+    public synchronized OcrRecognition recognize(BufferedImage image) throws TesseractException {
+        open();
+        TessAPI api = getAPI();
+        TessBaseAPI handle = getHandle();
+        try {
+            // -1 means the engine default, which a previous call may have overridden
+            api.TessBaseAPISetPageSegMode(handle, pageSegMode > -1 ? pageSegMode : defaultPageSegMode);
+            setVariables();
+            setImage(image);
+            String text = getOCRText(null, 0);
+
+            TessResultIterator iterator = api.TessBaseAPIGetIterator(handle);
+            if (iterator == null) {
+                return OcrRecognition.textOnly(text);
+            }
+            try {
+                TessPageIterator pageIterator = api.TessResultIteratorGetPageIterator(iterator);
+                List<OcrTextSpan> words = collect(api, iterator, pageIterator, ITessAPI.TessPageIteratorLevel.RIL_WORD);
+                List<OcrTextSpan> lines = collect(api, iterator, pageIterator, ITessAPI.TessPageIteratorLevel.RIL_TEXTLINE);
+                return new OcrRecognition(text, words, lines);
+            } finally {
+                api.TessResultIteratorDelete(iterator);
+            }
+        } catch (IOException e) {
+            throw new TesseractException(e);
+        } finally {
+            // Free the image and results but keep the loaded language data
+            api.TessBaseAPIClear(handle);
+        }
+    }
+
+    /**
+     * Release the native handle and its language data
+     */
+    @Override
+    public synchronized void close() {
+        if (initialized) {
+            initialized = false;
+            dispose();
+        }
+    }
+
+    private static List<OcrTextSpan> collect(TessAPI api, TessResultIterator iterator,
+                                             TessPageIterator pageIterator, int level) {
+        List<OcrTextSpan> spans = new ArrayList<>();
+        IntBuffer left = IntBuffer.allocate(1);
+        IntBuffer top = IntBuffer.allocate(1);
+        IntBuffer right = IntBuffer.allocate(1);
+        IntBuffer bottom = IntBuffer.allocate(1);
+        api.TessPageIteratorBegin(pageIterator);
+        do {
+            Pointer textPointer = api.TessResultIteratorGetUTF8Text(iterator, level);
+            if (textPointer == null) {
+                continue;
+            }
+            String spanText = textPointer.getString(0, "UTF-8").strip();
+            api.TessDeleteText(textPointer);
+            if (spanText.isEmpty()) {
+                continue;
+            }
+            float confidence = api.TessResultIteratorConfidence(iterator, level);
+            if (api.TessPageIteratorBoundingBox(pageIterator, level, left, top, right, bottom) == ITessAPI.TRUE) {
+                spans.add(new OcrTextSpan(spanText, confidence, left.get(0), top.get(0),
+                                          right.get(0) - left.get(0), bottom.get(0) - top.get(0)));
+            } else {
+                spans.add(new OcrTextSpan(spanText, confidence));
+            }
+        } while (api.TessPageIteratorNext(pageIterator, level) == ITessAPI.TRUE);
+        return spans;
+    }
+}
@@ -0,0 +1,88 @@
+package com.hemendra.ocr.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers for content-addressed caching
+ */
+public final class ContentHash {
+
+    private static final long MAP_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private ContentHash() {
+    }
+
+    /**
+     * Hash a stream without holding its content in memory
+     */
+    public static String sha256(InputStream input) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hash a file through memory-mapped chunks, so its content is never copied onto the heap
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_CHUNK_SIZE) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                                     Math.min(MAP_CHUNK_SIZE, size - position));
+                digest.update(chunk);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hash an upload, memory-mapping it when it has been spooled to disk
+     */
+    public static String sha256(MultipartFile file) throws IOException {
+        if (file instanceof FileBackedMultipartFile spooled) {
+            return sha256(spooled.getPath());
+        }
+        try (InputStream input = file.getInputStream()) {
+            return sha256(input);
+        }
+    }
+
+    /**
+     * Hash a list of key parts, separated so that ("ab", "c") and ("a", "bc") differ
+     */
+    public static String sha256(String... parts) {
+        MessageDigest digest = newDigest();
+        for (String part : parts) {
+            byte[] bytes = (part != null ? part : "").getBytes(StandardCharsets.UTF_8);
+            digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,713 @@
+package com.hemendra.ocr.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only log of chat messages behind the {@link ConversationStore}.
+ *
+ * Messages are written by a single background thread to numbered segment files, so a chat turn
+ * only pays for queueing the write. On startup the segments are memory-mapped and scanned to
+ * rebuild an index of where each conversation's records live; the messages themselves are read
+ * only when a conversation is next used. Deleting a conversation appends a tombstone, and once
+ * enough of the sealed segments is dead they are rewritten without the dead records, one segment
+ * per writer task. Conversations without new messages for longer than the retention period are
+ * deleted the same way, so neither the disk nor the index grows without bound.
+ */
+@Component
+public class ConversationLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationLog.class);
+
+    private static final byte APPEND = 1;
+    private static final byte DELETE = 2;
+    // Every record starts with its payload length and the CRC32 of the payload
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_SHORT_STRING_BYTES = 0xFFFF;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path dir;
+    private final long segmentSize;
+    private final double compactBelowLiveRatio;
+    private final long retentionMillis;
+    private final LongSupplier clock;
+    private final ThreadPoolExecutor writer;
+
+    // Conversations with messages in the log, updated by callers so it reflects queued writes too.
+    // The value is the sequence number of the latest append queued for the conversation.
+    private final Map<String, Long> known = new ConcurrentHashMap<>();
+    private final AtomicLong appendSequence = new AtomicLong();
+
+    // Everything below is only touched on the writer thread (or during recovery, before it starts)
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, Positions> index = new HashMap<>();
+    private Segment active;
+    private long nextLsn = 1;
+    private boolean unsynced;
+    // Sealed segments the running compaction has yet to rewrite, oldest first
+    private final ArrayDeque<Segment> compacting = new ArrayDeque<>();
+    private long compactingReclaimed;
+
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private final AtomicLong expiredConversations = new AtomicLong();
+    private volatile long diskBytes;
+    private volatile long liveBytes;
+    private volatile int segmentCount;
+    private volatile long recoveredMessages;
+    private volatile long recoveryMillis;
+
+    @Autowired
+    public ConversationLog(@Value("${chat.conversations.log.dir:}") String dir,
+                           @Value("${chat.conversations.log.segment-size:64MB}") DataSize segmentSize,
+                           @Value("${chat.conversations.log.compact-below-live-ratio:0.5}") double compactBelowLiveRatio,
+                           @Value("${chat.conversations.log.retention-minutes:10080}") long retentionMinutes) {
+        this(dir, segmentSize, compactBelowLiveRatio, TimeUnit.MINUTES.toMillis(retentionMinutes),
+             System::currentTimeMillis);
+    }
+
+    ConversationLog(String dir, DataSize segmentSize, double compactBelowLiveRatio, long retentionMillis,
+                    LongSupplier clock) {
+        this.dir = dir != null && !dir.isBlank() ? Paths.get(dir) : null;
+        // Offsets within a segment are ints and a segment is mapped in one piece
+        this.segmentSize = Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.compactBelowLiveRatio = compactBelowLiveRatio;
+        this.retentionMillis = retentionMillis;
+        this.clock = clock;
+
+        if (this.dir == null) {
+            this.writer = null;
+            return;
+        }
+        try {
+            Files.createDirectories(this.dir);
+            recover();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open conversation log in: " + dir, e);
+        }
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "conversation-log-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        logger.info("Conversation log at {}: {} conversations, {} messages in {} segments, recovered in {}ms",
+                    this.dir.toAbsolutePath(), index.size(), recoveredMessages, segments.size(), recoveryMillis);
+    }
+
+    /**
+     * Log that keeps nothing, for running without persistence
+     */
+    public static ConversationLog disabled() {
+        return new ConversationLog(null, DataSize.ofMegabytes(64), 0.5, 0, System::currentTimeMillis);
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (writer == null || writer.isShutdown()) {
+            return;
+        }
+        writer.execute(this::closeSegments);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Conversation log writer did not finish within 10s, {} writes dropped",
+                            writer.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Where a conversation's records are, ordered by log sequence number (lsn)
+     */
+    private static final class Positions {
+        long[] lsns = new long[4];
+        long[] refs = new long[4];
+        int[] sizes = new int[4];
+        int count;
+        // Write time of the newest record, and the append sequence number it was queued with
+        long lastWrite;
+        long sequence;
+
+        /**
+         * Add a record, keeping lsn order; a record already present (e.g. a copy left behind by an
+         * interrupted compaction) is ignored
+         */
+        boolean add(long lsn, long ref, int size) {
+            int at = count;
+            while (at > 0 && lsns[at - 1] >= lsn) {
+                if (lsns[at - 1] == lsn) {
+                    return false;
+                }
+                at--;
+            }
+            if (count == lsns.length) {
+                lsns = Arrays.copyOf(lsns, count * 2);
+                refs = Arrays.copyOf(refs, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            System.arraycopy(lsns, at, lsns, at + 1, count - at);
+            System.arraycopy(refs, at, refs, at + 1, count - at);
+            System.arraycopy(sizes, at, sizes, at + 1, count - at);
+            lsns[at] = lsn;
+            refs[at] = ref;
+            sizes[at] = size;
+            count++;
+            return true;
+        }
+    }
+
+    /**
+     * One segment file; only the newest one is written to
+     */
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        long size;
+        long liveBytes;
+
+        Segment(int id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private static long ref(int segmentId, long offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static int segmentOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static long offsetOf(long ref) {
+        return ref & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Queue a message for appending; returns immediately
+     */
+    public void append(String conversationId, String role, String content) {
+        if (writer == null) {
+            return;
+        }
+        long sequence = appendSequence.incrementAndGet();
+        long time = clock.getAsLong();
+        known.put(conversationId, sequence);
+        appends.incrementAndGet();
+        submit(() -> write(APPEND, conversationId, role, content, time, sequence));
+    }
+
+    /**
+     * Queue a tombstone for a conversation; returns whether the log had any of its messages
+     */
+    public boolean delete(String conversationId) {
+        if (writer == null || known.remove(conversationId) == null) {
+            return false;
+        }
+        long time = clock.getAsLong();
+        submit(() -> write(DELETE, conversationId, null, null, time, 0));
+        return true;
+    }
+
+    public boolean contains(String conversationId) {
+        return known.containsKey(conversationId);
+    }
+
+    /**
+     * Read a conversation's messages, oldest first, including writes still queued for it
+     */
+    public List<Map<String, String>> load(String conversationId) {
+        if (writer == null || !known.containsKey(conversationId)) {
+            return new ArrayList<>();
+        }
+        try {
+            // Reads run on the writer thread, behind every write queued before them and at most one
+            // segment of a running compaction
+            return writer.submit(() -> read(conversationId)).get();
+        } catch (ExecutionException e) {
+            logger.warn("Failed to load conversation {} from the log: {}", conversationId, e.getCause().getMessage());
+            return new ArrayList<>();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Write queued messages through to disk
+     */
+    @Scheduled(fixedDelayString = "${chat.conversations.log.fsync-interval-ms:1000}")
+    public void sync() {
+        if (writer != null) {
+            submit(this::force);
+        }
+    }
+
+    /**
+     * Delete conversations idle past the retention period, then rewrite the sealed segments without
+     * dead records once their live share drops below the threshold
+     */
+    @Scheduled(fixedDelayString = "${chat.conversations.log.compact-interval-ms:300000}")
+    public void compact() {
+        if (writer != null) {
+            submit(this::compactSealed);
+        }
+    }
+
+    private interface LogTask {
+        void run() throws IOException;
+    }
+
+    private void submit(LogTask task) {
+        writer.execute(() -> {
+            try {
+                task.run();
+            } catch (IOException | RuntimeException e) {
+                writeErrors.incrementAndGet();
+                logger.error("Conversation log write failed", e);
+            }
+        });
+    }
+
+    // ---- writer thread -------------------------------------------------------------------
+
+    private void write(byte type, String conversationId, String role, String content, long time, long sequence)
+            throws IOException {
+        long lsn = nextLsn++;
+        ByteBuffer record = encode(type, lsn, time, conversationId, role, content);
+        int recordSize = record.remaining();
+        long ref = writeRecord(record);
+
+        if (type == APPEND) {
+            Positions positions = index.computeIfAbsent(conversationId, k -> new Positions());
+            positions.add(lsn, ref, recordSize);
+            positions.lastWrite = Math.max(positions.lastWrite, time);
+            positions.sequence = sequence;
+            active.liveBytes += recordSize;
+            liveBytes += recordSize;
+        } else {
+            Positions removed = index.remove(conversationId);
+            if (removed != null) {
+                for (int i = 0; i < removed.count; i++) {
+                    Segment segment = segments.get(segmentOf(removed.refs[i]));
+                    if (segment != null) {
+                        segment.liveBytes -= removed.sizes[i];
+                    }
+                    liveBytes -= removed.sizes[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Append an encoded record to the active segment, rolling to a new segment when it is full
+     */
+    private long writeRecord(ByteBuffer record) throws IOException {
+        int recordSize = record.remaining();
+        if (active.size > 0 && active.size + recordSize > segmentSize) {
+            roll();
+        }
+        long offset = active.size;
+        while (record.hasRemaining()) {
+            active.channel.write(record, offset + record.position());
+        }
+        active.size += recordSize;
+        diskBytes += recordSize;
+        unsynced = true;
+        return ref(active.id, offset);
+    }
+
+    private void roll() throws IOException {
+        active.channel.force(false);
+        unsynced = false;
+        active = openSegment(active.id + 1);
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Path path = dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel, channel.size());
+        segments.put(id, segment);
+        segmentCount = segments.size();
+        return segment;
+    }
+
+    private void force() throws IOException {
+        if (unsynced) {
+            active.channel.force(false);
+            unsynced = false;
+        }
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments.values()) {
+            try {
+                if (segment == active) {
+                    segment.channel.force(false);
+                }
+                segment.channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close conversation log segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    private List<Map<String, String>> read(String conversationId) throws IOException {
+        List<Map<String, String>> messages = new ArrayList<>();
+        Positions positions = index.get(conversationId);
+        if (positions == null) {
+            return messages;
+        }
+        for (int i = 0; i < positions.count; i++) {
+            ByteBuffer record = readRecord(positions.refs[i], positions.sizes[i]);
+            ByteBuffer payload = record.position(HEADER_BYTES).slice();
+            payload.get();
+            payload.getLong();
+            payload.getLong();
+            skipString(payload);
+            Map<String, String> message = new HashMap<>();
+            message.put("role", readString(payload, payload.getShort() & 0xFFFF));
+            message.put("content", readString(payload, payload.getInt()));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private ByteBuffer readRecord(long ref, int size) throws IOException {
+        Segment segment = segments.get(segmentOf(ref));
+        ByteBuffer record = ByteBuffer.allocate(size);
+        long offset = offsetOf(ref);
+        while (record.hasRemaining()) {
+            if (segment.channel.read(record, offset + record.position()) < 0) {
+                throw new IOException("Unexpected end of conversation log segment " + segment.path);
+            }
+        }
+        return record.flip();
+    }
+
+    private void compactSealed() throws IOException {
+        expireIdle();
+        if (!compacting.isEmpty()) {
+            return;
+        }
+        List<Segment> sealed = new ArrayList<>(segments.headMap(active.id).values());
+        long total = sealed.stream().mapToLong(segment -> segment.size).sum();
+        long live = sealed.stream().mapToLong(segment -> segment.liveBytes).sum();
+        if (total == 0 || (double) live / total >= compactBelowLiveRatio) {
+            return;
+        }
+        compacting.addAll(sealed);
+        compactingReclaimed = 0;
+        submit(this::compactNext);
+    }
+
+    /**
+     * Rewrite the oldest sealed segment of the running compaction, then queue the next one behind
+     * whatever was submitted meanwhile, so appends and loads wait for at most one segment's copying
+     */
+    private void compactNext() throws IOException {
+        Segment segment = compacting.pollFirst();
+        if (segment == null) {
+            return;
+        }
+
+        // Copy live records to the tail. A record keeps its lsn, so conversation order survives the move.
+        long live = 0;
+        for (Positions positions : index.values()) {
+            for (int i = 0; i < positions.count; i++) {
+                if (segmentOf(positions.refs[i]) == segment.id) {
+                    positions.refs[i] = writeRecord(readRecord(positions.refs[i], positions.sizes[i]));
+                    active.liveBytes += positions.sizes[i];
+                    live += positions.sizes[i];
+                }
+            }
+        }
+        force();
+
+        // Oldest first, so a crash part-way never leaves a tombstone deleted while the records it hides remain
+        segment.channel.close();
+        Files.delete(segment.path);
+        segments.remove(segment.id);
+        segmentCount = segments.size();
+        diskBytes -= segment.size;
+        compactingReclaimed += segment.size - live;
+
+        if (!compacting.isEmpty()) {
+            if (writer.isShutdown()) {
+                // Stopped part-way; the next start decides afresh
+                compacting.clear();
+            } else {
+                submit(this::compactNext);
+            }
+            return;
+        }
+        compactions.incrementAndGet();
+        reclaimedBytes.addAndGet(compactingReclaimed);
+        logger.info("Compacted conversation log segments, reclaimed {} bytes", compactingReclaimed);
+    }
+
+    /**
+     * Write tombstones for conversations without new messages for longer than the retention period.
+     * One that a caller has appended to since its last record was written is in use again and kept.
+     */
+    private void expireIdle() throws IOException {
+        if (retentionMillis <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long cutoff = now - retentionMillis;
+        List<String> idle = new ArrayList<>();
+        index.forEach((conversationId, positions) -> {
+            if (positions.lastWrite < cutoff && known.remove(conversationId, positions.sequence)) {
+                idle.add(conversationId);
+            }
+        });
+        for (String conversationId : idle) {
+            write(DELETE, conversationId, null, null, now, 0);
+        }
+        if (!idle.isEmpty()) {
+            expiredConversations.addAndGet(idle.size());
+            logger.info("Expired {} conversations idle for more than {} minutes from the log", idle.size(),
+                        TimeUnit.MILLISECONDS.toMinutes(retentionMillis));
+        }
+    }
+
+    // ---- encoding ------------------------------------------------------------------------
+
+    /**
+     * Record: payload length, CRC32, then type, lsn, write time, conversation id and (for appends)
+     * role and content
+     */
+    private static ByteBuffer encode(byte type, long lsn, long time, String conversationId, String role,
+                                     String content) {
+        byte[] id = conversationId.getBytes(StandardCharsets.UTF_8);
+        byte[] roleBytes = role != null ? role.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] contentBytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        // Ids and roles are stored with an unsigned short length; refuse rather than truncate
+        if (id.length > MAX_SHORT_STRING_BYTES || roleBytes.length > MAX_SHORT_STRING_BYTES) {
+            throw new IllegalArgumentException("Conversation id or role too long for the log: "
+                + id.length + " and " + roleBytes.length + " bytes, max " + MAX_SHORT_STRING_BYTES);
+        }
+        int payloadSize = 1 + 8 + 8 + 2 + id.length + (type == APPEND ? 2 + roleBytes.length + 4 + contentBytes.length : 0);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payloadSize);
+        record.putInt(payloadSize).putInt(0);
+        record.put(type).putLong(lsn).putLong(time).putShort((short) id.length).put(id);
+        if (type == APPEND) {
+            record.putShort((short) roleBytes.length).put(roleBytes);
+            record.putInt(contentBytes.length).put(contentBytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, payloadSize);
+        record.putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        buffer.position(buffer.position() + length);
+    }
+
+    // ---- recovery ------------------------------------------------------------------------
+
+    /**
+     * Rebuild the index by scanning every segment. Only the newest segment can end in a torn write,
+     * so only its records are checked against their CRCs; it is truncated after the last good one.
+     */
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+
+        Map<String, Long> tombstones = new HashMap<>();
+        long messages = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            String name = path.getFileName().toString();
+            int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = openSegment(id);
+            boolean newest = i == files.size() - 1;
+            long valid = scan(segment, newest, tombstones);
+            if (valid < segment.size) {
+                if (newest) {
+                    logger.warn("Truncating torn write at offset {} of {}", valid, path);
+                    segment.channel.truncate(valid);
+                } else {
+                    logger.warn("Ignoring unreadable records after offset {} of {}", valid, path);
+                }
+                segment.size = valid;
+            }
+        }
+
+        for (Positions positions : index.values()) {
+            for (int i = 0; i < positions.count; i++) {
+                segments.get(segmentOf(positions.refs[i])).liveBytes += positions.sizes[i];
+                liveBytes += positions.sizes[i];
+            }
+            messages += positions.count;
+        }
+        diskBytes = segments.values().stream().mapToLong(segment -> segment.size).sum();
+        index.keySet().forEach(conversationId -> known.put(conversationId, 0L));
+
+        active = segments.isEmpty() ? openSegment(1) : segments.lastEntry().getValue();
+        if (active.size >= segmentSize) {
+            roll();
+        }
+        recoveredMessages = messages;
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    /**
+     * Index the records of one segment, returning the offset after the last readable record
+     */
+    private long scan(Segment segment, boolean verify, Map<String, Long> tombstones) throws IOException {
+        if (segment.size == 0) {
+            return 0;
+        }
+        MappedByteBuffer buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segment.size) {
+            int payloadSize = buffer.getInt(offset);
+            if (payloadSize <= 0 || offset + HEADER_BYTES + (long) payloadSize > segment.size) {
+                break;
+            }
+            if (verify) {
+                CRC32 crc = new CRC32();
+                crc.update(buffer.slice(offset + HEADER_BYTES, payloadSize));
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    break;
+                }
+            }
+
+            int at = offset + HEADER_BYTES;
+            byte type = buffer.get(at);
+            long lsn = buffer.getLong(at + 1);
+            long time = buffer.getLong(at + 9);
+            byte[] id = new byte[buffer.getShort(at + 17) & 0xFFFF];
+            buffer.get(at + 19, id);
+            String conversationId = new String(id, StandardCharsets.UTF_8);
+            int recordSize = HEADER_BYTES + payloadSize;
+            nextLsn = Math.max(nextLsn, lsn + 1);
+
+            if (type == APPEND) {
+                Long deletedAt = tombstones.get(conversationId);
+                if (deletedAt == null || lsn > deletedAt) {
+                    Positions positions = index.computeIfAbsent(conversationId, k -> new Positions());
+                    positions.add(lsn, ref(segment.id, offset), recordSize);
+                    positions.lastWrite = Math.max(positions.lastWrite, time);
+                }
+            } else if (type == DELETE) {
+                tombstones.merge(conversationId, lsn, Math::max);
+                Positions positions = index.get(conversationId);
+                if (positions != null) {
+                    dropBefore(positions, lsn);
+                    if (positions.count == 0) {
+                        index.remove(conversationId);
+                    }
+                }
+            }
+            offset += recordSize;
+        }
+        return offset;
+    }
+
+    /**
+     * Forget records written before a tombstone
+     */
+    private static void dropBefore(Positions positions, long lsn) {
+        int kept = 0;
+        for (int i = 0; i < positions.count; i++) {
+            if (positions.lsns[i] > lsn) {
+                positions.lsns[kept] = positions.lsns[i];
+                positions.refs[kept] = positions.refs[i];
+                positions.sizes[kept] = positions.sizes[i];
+                kept++;
+            }
+        }
+        positions.count = kept;
+    }
+
+    /**
+     * Snapshot of log size, write and compaction counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", isEnabled());
+        if (writer == null) {
+            return stats;
+        }
+        stats.put("dir", dir.toAbsolutePath().toString());
+        stats.put("conversations", known.size());
+        stats.put("segments", segmentCount);
+        stats.put("disk_bytes", diskBytes);
+        stats.put("live_bytes", liveBytes);
+        stats.put("appends", appends.get());
+        stats.put("pending_writes", writer.getQueue().size());
+        stats.put("write_errors", writeErrors.get());
+        stats.put("compactions", compactions.get());
+        stats.put("reclaimed_bytes", reclaimedBytes.get());
+        stats.put("retention_minutes", TimeUnit.MILLISECONDS.toMinutes(retentionMillis));
+        stats.put("expired_conversations", expiredConversations.get());
+        stats.put("recovered_messages", recoveredMessages);
+        stats.put("recovery_ms", recoveryMillis);
+        return stats;
+    }
+}
@@ -0,0 +1,315 @@
+package com.hemendra.ocr.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory store of chat conversations.
+ *
+ * Each conversation keeps its system prompt plus a sliding window of the most recent messages
+ * that fits a token budget. Conversations idle longer than the TTL expire, and the least recently
+ * used ones are evicted when the estimated memory of all conversations exceeds the limit.
+ * When the {@link ConversationLog} is enabled, every message is also appended to it, and a
+ * conversation that is no longer in memory is loaded back from the log on its next use.
+ */
+@Component
+public class ConversationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationStore.class);
+
+    // Rough heap cost of one message map besides its strings
+    private static final int MESSAGE_OVERHEAD_BYTES = 96;
+    // Tokens Ollama's chat template adds around each message
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final long maxBytes;
+    private final int maxTokensPerConversation;
+    private final long idleTtlMillis;
+    private final ConversationLog log;
+    private final LongSupplier clock;
+
+    // Access-ordered, so iteration starts at the least recently used conversation
+    private final LinkedHashMap<String, Conversation> conversations = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+    private long evictions;
+    private long expirations;
+    private long truncatedMessages;
+    private long restored;
+
+    @Autowired
+    public ConversationStore(@Value("${chat.conversations.max-memory:64MB}") DataSize maxMemory,
+                             @Value("${chat.conversations.max-tokens:4096}") int maxTokensPerConversation,
+                             @Value("${chat.conversations.idle-ttl-minutes:60}") long idleTtlMinutes,
+                             ConversationLog log) {
+        this(maxMemory.toBytes(), maxTokensPerConversation, TimeUnit.MINUTES.toMillis(idleTtlMinutes), log,
+             System::currentTimeMillis);
+    }
+
+    ConversationStore(long maxBytes, int maxTokensPerConversation, long idleTtlMillis, LongSupplier clock) {
+        this(maxBytes, maxTokensPerConversation, idleTtlMillis, ConversationLog.disabled(), clock);
+    }
+
+    ConversationStore(long maxBytes, int maxTokensPerConversation, long idleTtlMillis, ConversationLog log,
+                      LongSupplier clock) {
+        this.maxBytes = maxBytes;
+        this.maxTokensPerConversation = maxTokensPerConversation;
+        this.idleTtlMillis = idleTtlMillis;
+        this.log = log;
+        this.clock = clock;
+    }
+
+    /**
+     * A system prompt plus the recent messages that fit the token budget, oldest first
+     */
+    private static final class Conversation {
+        Map<String, String> system;
+        final ArrayDeque<Map<String, String>> messages = new ArrayDeque<>();
+        long bytes;
+        int tokens;
+        long lastAccess;
+
+        List<Map<String, String>> snapshot() {
+            List<Map<String, String>> copy = new ArrayList<>(messages.size() + 1);
+            if (system != null) {
+                copy.add(system);
+            }
+            copy.addAll(messages);
+            return copy;
+        }
+    }
+
+    /**
+     * Rough token count of a message, about four characters per token
+     */
+    static int estimateTokens(Map<String, String> message) {
+        return (message.get("content").length() + 3) / 4 + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    private static long estimateBytes(Map<String, String> message) {
+        return MESSAGE_OVERHEAD_BYTES + 2L * (message.get("role").length() + message.get("content").length());
+    }
+
+    private static Map<String, String> message(String role, String content) {
+        Map<String, String> message = new HashMap<>();
+        message.put("role", role);
+        message.put("content", content != null ? content : "");
+        return message;
+    }
+
+    /**
+     * Add a user message, starting the conversation with the system prompt if it is new, and
+     * return the messages to send to the model
+     */
+    public List<Map<String, String>> addTurn(String conversationId, String systemPrompt, String userMessage) {
+        restore(conversationId);
+        synchronized (this) {
+            Conversation conversation = live(conversationId);
+            if (conversation == null) {
+                conversation = new Conversation();
+                conversations.put(conversationId, conversation);
+                if (systemPrompt != null) {
+                    conversation.system = message("system", systemPrompt);
+                    account(conversation, conversation.system, 1);
+                    log.append(conversationId, "system", systemPrompt);
+                }
+            }
+            append(conversationId, conversation, message("user", userMessage));
+            return conversation.snapshot();
+        }
+    }
+
+    /**
+     * Add the assistant's reply to a conversation, if it still exists
+     */
+    public synchronized void addReply(String conversationId, String content) {
+        Conversation conversation = live(conversationId);
+        if (conversation != null) {
+            append(conversationId, conversation, message("assistant", content));
+        } else if (log.contains(conversationId)) {
+            // Evicted from memory during the turn; the log still completes it
+            log.append(conversationId, "assistant", content != null ? content : "");
+        }
+    }
+
+    /**
+     * Copy of a conversation's messages, or an empty list if it does not exist
+     */
+    public List<Map<String, String>> history(String conversationId) {
+        restore(conversationId);
+        synchronized (this) {
+            Conversation conversation = live(conversationId);
+            return conversation != null ? conversation.snapshot() : new ArrayList<>();
+        }
+    }
+
+    public synchronized boolean remove(String conversationId) {
+        // The tombstone is queued under the lock so no message of a later turn can slip in before it
+        boolean logged = log.delete(conversationId);
+        Conversation conversation = conversations.remove(conversationId);
+        if (conversation == null) {
+            return logged;
+        }
+        totalBytes -= conversation.bytes;
+        return true;
+    }
+
+    /**
+     * Load a conversation that is not in memory back from the log. The log is read without
+     * holding the store's lock.
+     */
+    private void restore(String conversationId) {
+        if (!log.contains(conversationId)) {
+            return;
+        }
+        synchronized (this) {
+            if (live(conversationId) != null) {
+                return;
+            }
+        }
+        List<Map<String, String>> messages = log.load(conversationId);
+        if (messages.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            // Deleted while the log was read (remove() drops it from the log under this lock), or
+            // already put back by another caller
+            if (conversations.containsKey(conversationId) || !log.contains(conversationId)) {
+                return;
+            }
+            Conversation conversation = new Conversation();
+            conversation.lastAccess = clock.getAsLong();
+            conversations.put(conversationId, conversation);
+            int first = 0;
+            if ("system".equals(messages.get(0).get("role"))) {
+                conversation.system = messages.get(0);
+                account(conversation, conversation.system, 1);
+                first = 1;
+            }
+            for (Map<String, String> message : messages.subList(first, messages.size())) {
+                add(conversationId, conversation, message);
+            }
+            restored++;
+        }
+    }
+
+    public synchronized int size() {
+        return conversations.size();
+    }
+
+    /**
+     * The conversation if it has not been idle past the TTL, marking it as used
+     */
+    private Conversation live(String conversationId) {
+        Conversation conversation = conversations.get(conversationId);
+        if (conversation == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (idleTtlMillis > 0 && now - conversation.lastAccess >= idleTtlMillis) {
+            conversations.remove(conversationId);
+            totalBytes -= conversation.bytes;
+            expirations++;
+            return null;
+        }
+        conversation.lastAccess = now;
+        return conversation;
+    }
+
+    private void append(String conversationId, Conversation conversation, Map<String, String> message) {
+        log.append(conversationId, message.get("role"), message.get("content"));
+        add(conversationId, conversation, message);
+    }
+
+    private void add(String conversationId, Conversation conversation, Map<String, String> message) {
+        conversation.messages.addLast(message);
+        account(conversation, message, 1);
+        conversation.lastAccess = clock.getAsLong();
+
+        // Slide the window: drop the oldest messages but always keep the system prompt and the newest one
+        while (conversation.tokens > maxTokensPerConversation && conversation.messages.size() > 1) {
+            account(conversation, conversation.messages.pollFirst(), -1);
+            truncatedMessages++;
+        }
+
+        // Evict least recently used conversations, never the one being written
+        Iterator<Map.Entry<String, Conversation>> eldest = conversations.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Conversation> entry = eldest.next();
+            if (entry.getKey().equals(conversationId)) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= entry.getValue().bytes;
+            evictions++;
+            logger.debug("Evicted conversation {} to stay within the chat memory limit", entry.getKey());
+        }
+    }
+
+    private void account(Conversation conversation, Map<String, String> message, int sign) {
+        long bytes = estimateBytes(message);
+        conversation.bytes += sign * bytes;
+        conversation.tokens += sign * estimateTokens(message);
+        totalBytes += sign * bytes;
+    }
+
+    /**
+     * Drop conversations that have been idle past the TTL
+     */
+    @Scheduled(fixedDelayString = "${chat.conversations.sweep-interval-ms:60000}")
+    public synchronized void expireIdle() {
+        if (idleTtlMillis <= 0) {
+            return;
+        }
+        long cutoff = clock.getAsLong() - idleTtlMillis;
+        Iterator<Conversation> eldest = conversations.values().iterator();
+        while (eldest.hasNext()) {
+            Conversation conversation = eldest.next();
+            // Access order means every later conversation was used more recently
+            if (conversation.lastAccess > cutoff) {
+                break;
+            }
+            eldest.remove();
+            totalBytes -= conversation.bytes;
+            expirations++;
+        }
+    }
+
+    /**
+     * Snapshot of memory use and eviction counters
+     */
+    public synchronized Map<String, Object> getStats() {
+        long messages = conversations.values().stream()
+            .mapToLong(conversation -> conversation.messages.size() + (conversation.system != null ? 1 : 0))
+            .sum();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("conversations", conversations.size());
+        stats.put("messages", messages);
+        stats.put("memory_bytes", totalBytes);
+        stats.put("max_memory_bytes", maxBytes);
+        stats.put("max_tokens_per_conversation", maxTokensPerConversation);
+        stats.put("idle_ttl_ms", idleTtlMillis);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("truncated_messages", truncatedMessages);
+        stats.put("restored", restored);
+        stats.put("log", log.getStats());
+        return stats;
+    }
+}
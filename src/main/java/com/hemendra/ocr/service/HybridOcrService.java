@@ -0,0 +1,124 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.AiAnalysisResponse;
+import com.hemendra.ocr.dto.HybridOcrResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.exception.OcrException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OCR that tries Tesseract first and escalates to the vision model only when
+ * Tesseract's mean word confidence falls below a threshold
+ */
+@Service
+public class HybridOcrService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridOcrService.class);
+
+    public static final String ENGINE_TESSERACT = "tesseract";
+    public static final String ENGINE_VISION = "vision";
+
+    private final OcrService ocrService;
+    private final OllamaService ollamaService;
+    private final UploadSpooler uploadSpooler;
+    private final double defaultThreshold;
+    private final String model;
+    private final String prompt;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong escalations = new AtomicLong();
+    private final AtomicLong escalationFailures = new AtomicLong();
+
+    public HybridOcrService(OcrService ocrService,
+                            OllamaService ollamaService,
+                            UploadSpooler uploadSpooler,
+                            @Value("${ocr.hybrid.confidence-threshold:70}") double defaultThreshold,
+                            @Value("${ocr.hybrid.model:llava:latest}") String model,
+                            @Value("${ocr.hybrid.prompt:Transcribe all text in this image exactly as written. Return only the text.}") String prompt) {
+        this.ocrService = ocrService;
+        this.ollamaService = ollamaService;
+        this.uploadSpooler = uploadSpooler;
+        this.defaultThreshold = defaultThreshold;
+        this.model = model;
+        this.prompt = prompt;
+    }
+
+    /**
+     * Extract text, escalating to the vision model when OCR confidence is below the threshold.
+     * If the vision model fails, the OCR text is returned along with the escalation error.
+     */
+    public HybridOcrResponse extract(MultipartFile file, OcrOptions options, Double threshold) throws OcrException {
+        long startTime = System.currentTimeMillis();
+
+        // Spooling moves a large upload, so spool once here and hand the same copy to both engines
+        try (UploadSpooler.Spooled upload = uploadSpooler.spool(file)) {
+            return extractSpooled(upload.file(), options, threshold, startTime);
+        } catch (IOException e) {
+            logger.error("Unable to spool file: {}", file.getOriginalFilename(), e);
+            throw new OcrException("Error reading image file: " + e.getMessage(), e);
+        }
+    }
+
+    private HybridOcrResponse extractSpooled(MultipartFile file, OcrOptions options, Double threshold, 
+                                             long startTime) throws OcrException {
+        double minConfidence = threshold != null ? threshold : defaultThreshold;
+        requests.incrementAndGet();
+
+        OcrResponse ocr = ocrService.extractTextFromImage(file, options);
+        Double confidence = ocr.getConfidence();
+
+        HybridOcrResponse response = new HybridOcrResponse(ocr.getExtractedText(), ENGINE_TESSERACT,
+                                                           file.getOriginalFilename(), file.getSize());
+        response.setOcrConfidence(confidence);
+        response.setConfidenceThreshold(minConfidence);
+        response.setOcrProcessingTimeMs(ocr.getProcessingTimeMs());
+
+        // No recognized words counts as low confidence
+        if (confidence == null || confidence < minConfidence) {
+            escalations.incrementAndGet();
+            logger.info("OCR confidence {} below {} for file: {}, escalating to {}",
+                       confidence, minConfidence, file.getOriginalFilename(), model);
+            try {
+                AiAnalysisResponse analysis = ollamaService.analyzeImage(file, prompt, model);
+                response.setExtractedText(analysis.getAnalysis());
+                response.setEngine(ENGINE_VISION);
+                response.setModel(model);
+                response.setAiProcessingTimeMs(analysis.getProcessingTimeMs());
+                response.setEscalated(true);
+            } catch (OcrException e) {
+                escalationFailures.incrementAndGet();
+                logger.warn("Vision escalation failed for file: {}, keeping OCR text: {}",
+                           file.getOriginalFilename(), e.getMessage());
+                response.setEscalationError(e.getMessage());
+            }
+        }
+
+        response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        return response;
+    }
+
+    /**
+     * Snapshot of how often requests were escalated to the vision model
+     */
+    public Map<String, Object> getStats() {
+        long total = requests.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("confidence_threshold", defaultThreshold);
+        stats.put("model", model);
+        stats.put("requests", total);
+        stats.put("escalations", escalations.get());
+        stats.put("escalation_failures", escalationFailures.get());
+        stats.put("escalation_rate", total == 0 ? 0.0 : (double) escalations.get() / total);
+        return stats;
+    }
+}
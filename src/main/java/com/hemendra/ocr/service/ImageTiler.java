@@ -0,0 +1,196 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OcrTextSpan;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits large images into overlapping horizontal bands and stitches the OCR results of
+ * those bands back together in reading order.
+ *
+ * The overlap guarantees that every text line falls entirely inside at least one band.
+ * When stitching, each overlap is cut through its middle and every recognized line and word
+ * is kept only by the band on whose side of the cut its box centre lies.
+ */
+public final class ImageTiler {
+
+    private static final double LINE_SIMILARITY_THRESHOLD = 0.85;
+
+    private ImageTiler() {
+    }
+
+    /**
+     * A band of the source image; the image shares the source raster rather than copying it
+     */
+    public record Tile(int index, int y, BufferedImage image) {
+    }
+
+    /**
+     * Split an image into the given number of full-width bands that overlap by the given height
+     */
+    public static List<Tile> split(BufferedImage image, int bandCount, int overlap) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int bands = Math.max(1, Math.min(bandCount, height));
+        int bandHeight = (int) Math.ceil((height + (double) (bands - 1) * overlap) / bands);
+
+        List<Tile> tiles = new ArrayList<>(bands);
+        int y = 0;
+        for (int index = 0; index < bands && y < height; index++) {
+            int bottom = index == bands - 1 ? height : Math.min(height, y + bandHeight);
+            tiles.add(new Tile(index, y, image.getSubimage(0, y, width, bottom - y)));
+            if (bottom == height) {
+                break;
+            }
+            y = Math.max(y + 1, bottom - overlap);
+        }
+        return tiles;
+    }
+
+    /**
+     * Join the recognitions of the given tiles in order, using the word and line boxes to
+     * decide which band owns each span. A line sliced at a band edge is only whole in the
+     * band on the far side of the cut, so its fragment is dropped, while identical lines
+     * elsewhere on the page, such as repeated table rows, are all kept. Engines that report
+     * no boxes fall back to matching the text of the overlapping lines.
+     */
+    public static OcrRecognition stitch(List<Tile> tiles, List<OcrRecognition> parts) {
+        if (!parts.stream().allMatch(ImageTiler::hasBoxes)) {
+            return OcrRecognition.merge(stitch(parts.stream().map(OcrRecognition::text).toList()), parts);
+        }
+
+        List<OcrTextSpan> words = new ArrayList<>();
+        List<OcrTextSpan> lines = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            Tile tile = tiles.get(i);
+            double top = i == 0 ? Double.NEGATIVE_INFINITY : cut(tiles.get(i - 1), tile);
+            double bottom = i == parts.size() - 1 ? Double.POSITIVE_INFINITY : cut(tile, tiles.get(i + 1));
+            keepOwned(parts.get(i).words(), tile.y(), top, bottom, words);
+            keepOwned(parts.get(i).lines(), tile.y(), top, bottom, lines);
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (OcrTextSpan line : lines) {
+            text.append(line.getText()).append('\n');
+        }
+        return new OcrRecognition(text.toString(), words, lines);
+    }
+
+    /**
+     * Join band texts in order, dropping leading lines of each band that repeat the
+     * trailing lines of the previous one
+     */
+    public static String stitch(List<String> bandTexts) {
+        List<String> merged = new ArrayList<>();
+        for (String text : bandTexts) {
+            List<String> lines = nonBlankLines(text);
+            int duplicated = overlappingLineCount(merged, lines);
+            merged.addAll(lines.subList(duplicated, lines.size()));
+        }
+        return merged.isEmpty() ? "" : String.join("\n", merged) + "\n";
+    }
+
+    private static boolean hasBoxes(OcrRecognition part) {
+        if (part.text() == null || part.text().isBlank()) {
+            return true;
+        }
+        return !part.lines().isEmpty()
+            && part.lines().stream().allMatch(OcrTextSpan::hasBox)
+            && part.words().stream().allMatch(OcrTextSpan::hasBox);
+    }
+
+    /**
+     * Page row through the middle of the overlap between two consecutive tiles
+     */
+    private static double cut(Tile upper, Tile lower) {
+        return (lower.y() + upper.y() + upper.image().getHeight()) / 2.0;
+    }
+
+    /**
+     * Copy the spans whose box centre lies in [top, bottom), moving them from tile to page coordinates
+     */
+    private static void keepOwned(List<OcrTextSpan> spans, int tileY, double top, double bottom,
+                                  List<OcrTextSpan> kept) {
+        for (OcrTextSpan span : spans) {
+            int y = span.getY() + tileY;
+            double centre = y + span.getHeight() / 2.0;
+            if (centre >= top && centre < bottom) {
+                kept.add(new OcrTextSpan(span.getText(), span.getConfidence(), span.getX(), y,
+                                         span.getWidth(), span.getHeight()));
+            }
+        }
+    }
+
+    private static List<String> nonBlankLines(String text) {
+        List<String> lines = new ArrayList<>();
+        if (text == null) {
+            return lines;
+        }
+        for (String line : text.split("\\R")) {
+            if (!line.isBlank()) {
+                lines.add(line.stripTrailing());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Largest k such that the last k lines already merged match the first k new lines
+     */
+    private static int overlappingLineCount(List<String> previous, List<String> next) {
+        int max = Math.min(previous.size(), next.size());
+        for (int k = max; k > 0; k--) {
+            boolean matches = true;
+            for (int i = 0; i < k && matches; i++) {
+                matches = similar(previous.get(previous.size() - k + i), next.get(i));
+            }
+            if (matches) {
+                return k;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Lines match if they are nearly identical once whitespace and case are ignored,
+     * tolerating the odd character Tesseract reads differently in each band
+     */
+    static boolean similar(String a, String b) {
+        String left = normalize(a);
+        String right = normalize(b);
+        if (left.equals(right)) {
+            return true;
+        }
+        int longest = Math.max(left.length(), right.length());
+        if (longest == 0) {
+            return true;
+        }
+        return 1.0 - (double) editDistance(left, right) / longest >= LINE_SIMILARITY_THRESHOLD;
+    }
+
+    private static String normalize(String line) {
+        return line.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,128 @@
+package com.hemendra.ocr.service;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks with the same key one at a time, in arrival order, while tasks with different keys
+ * run fully in parallel. A key's queue is only a chain of futures: each task waits for the one
+ * before it, and the key is forgotten once its last task has ended, so there is no shared lock
+ * and no per-key thread.
+ */
+public class KeyedSequencer<K> {
+
+    // The completion of the last task queued for each key
+    private final Map<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+
+    /**
+     * A place in a key's queue. Wait for the turn, do the work, then leave, even on failure.
+     */
+    public static final class Ticket {
+        private final CompletableFuture<Void> previous;
+        private final CompletableFuture<Void> done;
+        private final AtomicBoolean left = new AtomicBoolean();
+        private final Runnable forget;
+
+        private Ticket(CompletableFuture<Void> previous, CompletableFuture<Void> done, Runnable forget) {
+            this.previous = previous;
+            this.done = done;
+            this.forget = forget;
+        }
+
+        /**
+         * Completes once every earlier task for the key has left
+         */
+        public Mono<Void> turn() {
+            // Cancelling a waiter must not cancel the shared future it waits on
+            return previous == null ? Mono.empty() : Mono.fromFuture(previous, true);
+        }
+
+        /**
+         * Block the calling thread until it is this task's turn
+         */
+        public void await() {
+            if (previous != null) {
+                previous.join();
+            }
+        }
+
+        /**
+         * Hand the key to the next task. A task that leaves before its turn (e.g. a cancelled
+         * waiter) still releases the next one only after the tasks ahead of it are done.
+         */
+        public void leave() {
+            if (!left.compareAndSet(false, true)) {
+                return;
+            }
+            if (previous == null) {
+                release();
+            } else {
+                previous.whenComplete((ignored, error) -> release());
+            }
+        }
+
+        private void release() {
+            done.complete(null);
+            forget.run();
+        }
+    }
+
+    /**
+     * Join the end of the key's queue
+     */
+    public Ticket enter(K key) {
+        tasks.incrementAndGet();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, done);
+        if (previous != null && previous.isDone()) {
+            previous = null;
+        }
+        if (previous != null) {
+            queued.incrementAndGet();
+        }
+        // Drop the key once this is its last task, unless another task has queued behind it
+        return new Ticket(previous, done, () -> tails.remove(key, done));
+    }
+
+    /**
+     * Run a streaming task once the key's earlier tasks are done; the next one starts when it ends
+     */
+    public <T> Flux<T> runMany(K key, Supplier<? extends Publisher<T>> task) {
+        return Flux.defer(() -> {
+            Ticket ticket = enter(key);
+            return ticket.turn()
+                .thenMany(Flux.defer(task))
+                .doFinally(signal -> ticket.leave());
+        });
+    }
+
+    /**
+     * Run a single-valued task once the key's earlier tasks are done
+     */
+    public <T> Mono<T> run(K key, Supplier<? extends Mono<T>> task) {
+        return runMany(key, task).singleOrEmpty();
+    }
+
+    /**
+     * Snapshot of queued tasks and keys with work in progress
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tasks", tasks.get());
+        stats.put("queued", queued.get());
+        stats.put("active_keys", tails.size());
+        return stats;
+    }
+}
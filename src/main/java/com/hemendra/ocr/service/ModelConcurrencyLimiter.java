@@ -0,0 +1,297 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.exception.QueueFullException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of Ollama generate calls, per model.
+ *
+ * Each model runs at most a configured number of calls at once. Further calls wait in a
+ * bounded queue that is FIFO per client and served round-robin across clients, so one busy
+ * client cannot starve the others. A call that waits longer than the deadline, or finds the
+ * queue full, fails fast with a {@link QueueFullException}.
+ */
+@Component
+public class ModelConcurrencyLimiter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final int defaultMaxConcurrent;
+    private final Map<String, Integer> maxConcurrentByModel;
+    private final int queueCapacity;
+    private final Duration maxWait;
+    private final Map<String, Gate> gates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ModelConcurrencyLimiter(@Value("${ollama.admission.max-concurrent:2}") int defaultMaxConcurrent,
+                                   @Value("${ollama.admission.models:}") String maxConcurrentByModel,
+                                   @Value("${ollama.admission.queue-capacity:100}") int queueCapacity,
+                                   @Value("${ollama.admission.max-wait-ms:120000}") long maxWaitMs) {
+        this.defaultMaxConcurrent = Math.max(1, defaultMaxConcurrent);
+        this.maxConcurrentByModel = parseLimits(maxConcurrentByModel);
+        this.queueCapacity = queueCapacity;
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+    }
+
+    /**
+     * Limiter that admits every call immediately
+     */
+    public static ModelConcurrencyLimiter unlimited() {
+        return new ModelConcurrencyLimiter(Integer.MAX_VALUE, "", 0, 0);
+    }
+
+    /**
+     * Parse "model=limit" pairs, e.g. "llava:latest=1,gemma2:2b=4"
+     */
+    private static Map<String, Integer> parseLimits(String limits) {
+        Map<String, Integer> parsed = new HashMap<>();
+        if (limits == null || limits.isBlank()) {
+            return parsed;
+        }
+        for (String entry : limits.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid admission entry (expected model=limit): " + entry);
+            }
+            parsed.put(OllamaModelRegistry.normalize(entry.substring(0, separator).trim()),
+                       Math.max(1, Integer.parseInt(entry.substring(separator + 1).trim())));
+        }
+        return parsed;
+    }
+
+    /**
+     * Identify the caller of the current HTTP request: the X-Client-Id header if sent, else the
+     * remote address. Must be called on the request thread, i.e. while assembling the call.
+     */
+    public static String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            String clientId = request.getHeader(CLIENT_ID_HEADER);
+            return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+        }
+        return "internal";
+    }
+
+    /**
+     * Run a single-valued call once the model has a free slot
+     */
+    public <T> Mono<T> admit(String model, String client, Supplier<? extends Mono<T>> call) {
+        return admitMany(model, client, call).singleOrEmpty();
+    }
+
+    /**
+     * Run a streaming call once the model has a free slot; the slot is held until the stream ends
+     */
+    public <T> Flux<T> admitMany(String model, String client, Supplier<? extends Publisher<T>> call) {
+        String name = model != null ? OllamaModelRegistry.normalize(model) : "";
+        Gate gate = gates.computeIfAbsent(name, k -> new Gate(k, maxConcurrentByModel.getOrDefault(k, defaultMaxConcurrent)));
+        return Flux.defer(() -> {
+            Waiter waiter;
+            try {
+                waiter = gate.enqueue(client != null ? client : "internal");
+            } catch (QueueFullException e) {
+                return Flux.error(e);
+            }
+            Mono<Void> admission = waiter.admitted.asMono();
+            if (!maxWait.isZero()) {
+                admission = admission.timeout(maxWait, Mono.defer(() -> {
+                    gate.timedOut(waiter);
+                    return Mono.error(new QueueFullException("Timed out after " + maxWait.toMillis()
+                        + "ms waiting for model " + name + " to become available", gate.retryAfterSeconds()));
+                }));
+            }
+            return admission
+                .thenMany(Flux.defer(call))
+                .doFinally(signal -> gate.finish(waiter));
+        });
+    }
+
+    /**
+     * Queue and throughput metrics per model
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("default_max_concurrent", defaultMaxConcurrent);
+        stats.put("queue_capacity", queueCapacity);
+        stats.put("max_wait_ms", maxWait.toMillis());
+        Map<String, Object> models = new HashMap<>();
+        gates.forEach((model, gate) -> models.put(model, gate.getStats()));
+        stats.put("models", models);
+        return stats;
+    }
+
+    /**
+     * A caller waiting for, or holding, a slot
+     */
+    private static final class Waiter {
+        final String client;
+        final long enqueuedNanos = System.nanoTime();
+        final Sinks.Empty<Void> admitted = Sinks.empty();
+        long grantedNanos;
+        boolean holding;
+        boolean finished;
+
+        Waiter(String client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * Slots and wait queue for one model. All state is guarded by the gate's monitor.
+     */
+    private final class Gate {
+
+        private final String model;
+        private final int maxConcurrent;
+        // Waiters per client in arrival order; iteration order is the round-robin order of clients
+        private final LinkedHashMap<String, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+
+        private int active;
+        private int queued;
+        private long admittedCount;
+        private long rejected;
+        private long timeouts;
+        private long totalQueueNanos;
+        private long maxQueueNanos;
+        private long totalRunNanos;
+        private long completedCount;
+
+        Gate(String model, int maxConcurrent) {
+            this.model = model;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        Waiter enqueue(String client) throws QueueFullException {
+            Waiter waiter = new Waiter(client);
+            synchronized (this) {
+                if (active < maxConcurrent && queued == 0) {
+                    grant(waiter);
+                } else if (queued >= queueCapacity) {
+                    rejected++;
+                    throw new QueueFullException("Too many requests waiting for model " + model
+                        + ", please retry later", retryAfterSeconds());
+                } else {
+                    queues.computeIfAbsent(client, k -> new ArrayDeque<>()).addLast(waiter);
+                    queued++;
+                    return waiter;
+                }
+            }
+            waiter.admitted.tryEmitEmpty();
+            return waiter;
+        }
+
+        /**
+         * Release the waiter's slot, or drop it from the queue if it never got one
+         */
+        void finish(Waiter waiter) {
+            Waiter next;
+            synchronized (this) {
+                if (waiter.finished) {
+                    return;
+                }
+                waiter.finished = true;
+                if (!waiter.holding) {
+                    ArrayDeque<Waiter> queue = queues.get(waiter.client);
+                    if (queue != null && queue.remove(waiter)) {
+                        queued--;
+                        if (queue.isEmpty()) {
+                            queues.remove(waiter.client);
+                        }
+                    }
+                    return;
+                }
+                active--;
+                completedCount++;
+                totalRunNanos += System.nanoTime() - waiter.grantedNanos;
+                next = pollNext();
+                if (next != null) {
+                    grant(next);
+                }
+            }
+            if (next != null) {
+                next.admitted.tryEmitEmpty();
+            }
+        }
+
+        /**
+         * Give up on a waiter past its deadline, before the caller sees the error, so the queue
+         * never holds callers that are already gone
+         */
+        void timedOut(Waiter waiter) {
+            synchronized (this) {
+                timeouts++;
+            }
+            finish(waiter);
+        }
+
+        /**
+         * Take the oldest waiter of the next client in turn, then move that client to the back
+         */
+        private Waiter pollNext() {
+            Iterator<Map.Entry<String, ArrayDeque<Waiter>>> clients = queues.entrySet().iterator();
+            if (!clients.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, ArrayDeque<Waiter>> first = clients.next();
+            Waiter waiter = first.getValue().pollFirst();
+            clients.remove();
+            if (!first.getValue().isEmpty()) {
+                queues.put(first.getKey(), first.getValue());
+            }
+            queued--;
+            return waiter;
+        }
+
+        private void grant(Waiter waiter) {
+            waiter.grantedNanos = System.nanoTime();
+            long waited = waiter.grantedNanos - waiter.enqueuedNanos;
+            waiter.holding = true;
+            active++;
+            admittedCount++;
+            totalQueueNanos += waited;
+            maxQueueNanos = Math.max(maxQueueNanos, waited);
+        }
+
+        /**
+         * Rough time until a queued call would start, from the average slot hold time so far
+         */
+        synchronized long retryAfterSeconds() {
+            long averageRunMillis = completedCount == 0 ? 1000 : totalRunNanos / completedCount / 1_000_000;
+            return Math.max(1, averageRunMillis * (queued + 1) / maxConcurrent / 1000);
+        }
+
+        synchronized Map<String, Object> getStats() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("max_concurrent", maxConcurrent);
+            stats.put("active", active);
+            stats.put("queued", queued);
+            stats.put("waiting_clients", queues.size());
+            stats.put("admitted", admittedCount);
+            stats.put("rejected", rejected);
+            stats.put("timeouts", timeouts);
+            stats.put("avg_queue_ms", admittedCount == 0 ? 0.0 : totalQueueNanos / 1_000_000.0 / admittedCount);
+            stats.put("max_queue_ms", maxQueueNanos / 1_000_000.0);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.hemendra.ocr.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the configured models loaded so requests do not pay Ollama's model load time.
+ *
+ * Models are preloaded on every healthy backend at startup and loaded again whenever a
+ * backend probe shows that Ollama has evicted them. Requests carry a per-model keep_alive,
+ * and responses that still had to load the model are counted as cold starts. Warm-ups take
+ * a slot from the per-model concurrency limit like any other request.
+ */
+@Component
+public class ModelWarmupManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelWarmupManager.class);
+
+    private static final Duration WARMUP_TIMEOUT = Duration.ofMinutes(5);
+
+    private final OllamaRouter router;
+    private final ModelConcurrencyLimiter concurrencyLimiter;
+    private final boolean enabled;
+    private final List<String> warmModels;
+    private final String defaultKeepAlive;
+    private final Map<String, String> keepAliveByModel;
+    private final long coldStartThresholdNanos;
+
+    // Backend URL + model pairs with a warm-up request outstanding
+    private final Set<String> warming = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> lastErrors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> coldStarts = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastColdStartMs = new ConcurrentHashMap<>();
+
+    private final AtomicLong warmups = new AtomicLong();
+    private final AtomicLong rewarms = new AtomicLong();
+    private final AtomicLong warmupFailures = new AtomicLong();
+    private volatile boolean initialWarmupIssued;
+
+    public ModelWarmupManager(OllamaRouter router,
+                              ModelConcurrencyLimiter concurrencyLimiter,
+                              @Value("${ollama.warmup.enabled:true}") boolean enabled,
+                              @Value("${ollama.warmup.models:llava:latest,gemma2:2b}") String[] warmModels,
+                              @Value("${ollama.keep-alive.default:}") String defaultKeepAlive,
+                              @Value("${ollama.keep-alive.models:}") String keepAliveByModel,
+                              @Value("${ollama.warmup.cold-start-threshold-ms:1000}") long coldStartThresholdMs) {
+        this.router = router;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.enabled = enabled;
+        this.warmModels = Arrays.stream(warmModels)
+            .map(String::trim)
+            .filter(model -> !model.isEmpty())
+            .map(OllamaModelRegistry::normalize)
+            .distinct()
+            .toList();
+        this.defaultKeepAlive = defaultKeepAlive == null || defaultKeepAlive.isBlank() ? null : defaultKeepAlive.trim();
+        this.keepAliveByModel = parseKeepAlive(keepAliveByModel);
+        this.coldStartThresholdNanos = Duration.ofMillis(coldStartThresholdMs).toNanos();
+    }
+
+    /**
+     * Parse "model=duration" pairs, e.g. "llava:latest=30m,gemma2:2b=-1"
+     */
+    private static Map<String, String> parseKeepAlive(String policy) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        if (policy == null || policy.isBlank()) {
+            return parsed;
+        }
+        for (String entry : policy.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("Invalid keep-alive entry (expected model=duration): " + entry);
+            }
+            parsed.put(OllamaModelRegistry.normalize(entry.substring(0, separator).trim()),
+                       entry.substring(separator + 1).trim());
+        }
+        return parsed;
+    }
+
+    /**
+     * keep_alive to send with a request for the model, or null for Ollama's default
+     */
+    public String keepAliveFor(String model) {
+        if (model == null) {
+            return defaultKeepAlive;
+        }
+        return keepAliveByModel.getOrDefault(OllamaModelRegistry.normalize(model), defaultKeepAlive);
+    }
+
+    /**
+     * Record the load time Ollama reported for a request; anything above the threshold is a cold start
+     */
+    public void recordLoadDuration(String model, Long loadDurationNanos) {
+        if (model == null || loadDurationNanos == null || loadDurationNanos < coldStartThresholdNanos) {
+            return;
+        }
+        String name = OllamaModelRegistry.normalize(model);
+        long loadMs = loadDurationNanos / 1_000_000;
+        coldStarts.computeIfAbsent(name, k -> new AtomicLong()).incrementAndGet();
+        lastColdStartMs.put(name, loadMs);
+        logger.warn("Cold start for model {}: Ollama spent {}ms loading it", name, loadMs);
+    }
+
+    /**
+     * Load every configured model on each healthy backend that does not have it loaded. Runs at
+     * startup and then periodically, which re-warms models after Ollama evicts them.
+     */
+    @Scheduled(fixedDelayString = "${ollama.warmup.check-interval-ms:30000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        for (OllamaBackend backend : router.getBackends()) {
+            if (!backend.isHealthy()) {
+                continue;
+            }
+            for (String model : warmModels) {
+                if (!backend.hasModelLoaded(model)) {
+                    warm(backend, model);
+                }
+            }
+        }
+        initialWarmupIssued = true;
+    }
+
+    private void warm(OllamaBackend backend, String model) {
+        String key = backend.getBaseUrl() + "|" + model;
+        if (!warming.add(key)) {
+            return;
+        }
+        // After the first pass, a missing model means Ollama unloaded it
+        if (initialWarmupIssued) {
+            rewarms.incrementAndGet();
+        }
+        warmups.incrementAndGet();
+
+        // A generate request without a prompt only loads the model
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        String keepAlive = keepAliveFor(model);
+        if (keepAlive != null) {
+            body.put("keep_alive", keepAlive);
+        }
+
+        logger.info("Warming up model {} on {}", model, backend.getBaseUrl());
+        concurrencyLimiter.admit(model, "internal", () -> router.routeTo(backend, model,
+                target -> target.webClient().post()
+                    .uri("/api/generate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(WARMUP_TIMEOUT)))
+            .doFinally(signal -> warming.remove(key))
+            .subscribe(
+                response -> {
+                    lastErrors.remove(key);
+                    logger.info("Model {} is loaded on {}", model, backend.getBaseUrl());
+                },
+                error -> {
+                    warmupFailures.incrementAndGet();
+                    lastErrors.put(key, String.valueOf(error.getMessage()));
+                    logger.warn("Failed to warm up model {} on {}: {}", model, backend.getBaseUrl(), error.getMessage());
+                });
+    }
+
+    /**
+     * True once every configured model is loaded on at least one healthy backend
+     */
+    public boolean isReady() {
+        return !enabled || warmModels.stream().allMatch(this::isLoaded);
+    }
+
+    private boolean isLoaded(String model) {
+        return router.getBackends().stream()
+            .anyMatch(backend -> backend.isHealthy() && backend.hasModelLoaded(model));
+    }
+
+    /**
+     * Per-model readiness: "ready", "warming", "failed" or "cold"
+     */
+    public Map<String, String> getModelStates() {
+        Map<String, String> states = new LinkedHashMap<>();
+        for (String model : warmModels) {
+            String state;
+            if (isLoaded(model)) {
+                state = "ready";
+            } else if (warming.stream().anyMatch(key -> key.endsWith("|" + model))) {
+                state = "warming";
+            } else if (lastErrors.keySet().stream().anyMatch(key -> key.endsWith("|" + model))) {
+                state = "failed";
+            } else {
+                state = "cold";
+            }
+            states.put(model, state);
+        }
+        return states;
+    }
+
+    /**
+     * Snapshot of warm-up activity and cold starts
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", isReady());
+        stats.put("models", getModelStates());
+        stats.put("warmups", warmups.get());
+        stats.put("rewarms", rewarms.get());
+        stats.put("warmup_failures", warmupFailures.get());
+        stats.put("last_errors", new HashMap<>(lastErrors));
+        Map<String, Long> cold = new HashMap<>();
+        coldStarts.forEach((model, count) -> cold.put(model, count.get()));
+        stats.put("cold_starts", cold);
+        stats.put("last_cold_start_load_ms", new HashMap<>(lastColdStartMs));
+        stats.put("keep_alive", keepAliveByModel);
+        return stats;
+    }
+}
@@ -0,0 +1,265 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OcrJobResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.exception.QueueFullException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs OCR requests asynchronously on a bounded queue and worker pool.
+ *
+ * Submitting returns immediately with a job id; when the queue is full the submission is
+ * rejected so callers can back off instead of tying up servlet threads.
+ */
+@Service
+public class OcrJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrJobService.class);
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final OcrService ocrService;
+    private final UploadSpooler uploadSpooler;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long retentionMillis;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+
+    public OcrJobService(OcrService ocrService,
+                         TesseractPool tesseractPool,
+                         UploadSpooler uploadSpooler,
+                         @Value("${ocr.jobs.workers:0}") int workers,
+                         @Value("${ocr.jobs.queue-capacity:100}") int queueCapacity,
+                         @Value("${ocr.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.ocrService = ocrService;
+        this.uploadSpooler = uploadSpooler;
+        this.queueCapacity = queueCapacity;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+
+        int poolSize = workers > 0 ? workers : tesseractPool.getMaxSize();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ocr-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue an OCR job, spooling the upload to disk so it outlives the HTTP request
+     */
+    public OcrJobResponse submit(MultipartFile file, OcrOptions options) throws OcrException {
+        if (file == null || file.isEmpty()) {
+            throw new OcrException("No file uploaded or file is empty");
+        }
+
+        // Turn the client away before paying for a copy of the upload that would only be deleted
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw queueFull(file);
+        }
+
+        // Queued uploads wait on disk rather than on the heap
+        FileBackedMultipartFile copy;
+        try {
+            copy = uploadSpooler.copyToDisk(file);
+        } catch (IOException e) {
+            throw new OcrException("Error reading uploaded file: " + e.getMessage(), e);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), copy.getOriginalFilename());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, copy, options));
+        } catch (RejectedExecutionException e) {
+            // The queue filled up while the upload was being spooled
+            jobs.remove(job.id);
+            copy.close();
+            throw queueFull(file);
+        }
+        submitted.incrementAndGet();
+
+        logger.info("Queued OCR job {} for file: {}", job.id, file.getOriginalFilename());
+        return toResponse(job);
+    }
+
+    /**
+     * Get the status of a job, or null if it is unknown or has expired
+     */
+    public OcrJobResponse getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? toResponse(job) : null;
+    }
+
+    /**
+     * Get the OCR result of a finished job, or null if the job is unknown or still pending
+     */
+    public OcrResponse getResult(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? job.result : null;
+    }
+
+    private void run(Job job, FileBackedMultipartFile file, OcrOptions options) {
+        job.startedAt = LocalDateTime.now();
+        job.startedNanos = System.nanoTime();
+        job.status = Status.RUNNING;
+
+        long waited = TimeUnit.NANOSECONDS.toMillis(job.startedNanos - job.submittedNanos);
+        totalWaitMillis.addAndGet(waited);
+        maxWaitMillis.accumulateAndGet(waited, Math::max);
+
+        OcrResponse result;
+        Status outcome;
+        try {
+            result = ocrService.extractTextFromImage(file, options);
+            outcome = Status.COMPLETED;
+            completed.incrementAndGet();
+        } catch (OcrException e) {
+            logger.error("OCR job {} failed: {}", job.id, e.getMessage());
+            result = new OcrResponse(e.getMessage());
+            result.setFileName(file.getOriginalFilename());
+            outcome = Status.FAILED;
+            failed.incrementAndGet();
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error in OCR job {}", job.id, e);
+            result = new OcrResponse("Internal server error occurred");
+            result.setFileName(file.getOriginalFilename());
+            outcome = Status.FAILED;
+            failed.incrementAndGet();
+        } finally {
+            file.close();
+        }
+
+        totalRunMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - job.startedNanos));
+        job.result = result;
+        job.completedAt = LocalDateTime.now();
+        job.completedMillis = System.currentTimeMillis();
+        job.status = outcome;
+    }
+
+    /**
+     * Drop finished jobs whose results have been kept longer than the retention period
+     */
+    @Scheduled(fixedDelayString = "${ocr.jobs.cleanup-interval-ms:60000}")
+    public void evictExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.completedMillis > 0 && job.completedMillis < cutoff);
+    }
+
+    /**
+     * Rough time until a queue slot frees up, based on the average run time so far
+     */
+    private QueueFullException queueFull(MultipartFile file) {
+        rejected.incrementAndGet();
+        logger.warn("OCR job queue full ({} queued), rejecting file: {}", 
+                   executor.getQueue().size(), file.getOriginalFilename());
+        return new QueueFullException("OCR job queue is full, please retry later", estimateRetryAfterSeconds());
+    }
+
+    private long estimateRetryAfterSeconds() {
+        long finished = completed.get() + failed.get();
+        long averageRunMillis = finished == 0 ? 1000 : totalRunMillis.get() / finished;
+        long seconds = (averageRunMillis * (executor.getQueue().size() + 1)) 
+            / Math.max(1, executor.getMaximumPoolSize()) / 1000;
+        return Math.max(1, seconds);
+    }
+
+    /**
+     * Snapshot of queue depth, wait time and throughput
+     */
+    public Map<String, Object> getStats() {
+        long started = completed.get() + failed.get() + executor.getActiveCount();
+        long finished = completed.get() + failed.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("workers", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queue_depth", executor.getQueue().size());
+        stats.put("queue_capacity", queueCapacity);
+        stats.put("submitted", submitted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("avg_queue_wait_ms", started == 0 ? 0.0 : (double) totalWaitMillis.get() / started);
+        stats.put("max_queue_wait_ms", maxWaitMillis.get());
+        stats.put("avg_run_ms", finished == 0 ? 0.0 : (double) totalRunMillis.get() / finished);
+        stats.put("retained_jobs", jobs.size());
+        return stats;
+    }
+
+    private OcrJobResponse toResponse(Job job) {
+        OcrJobResponse response = new OcrJobResponse();
+        response.setJobId(job.id);
+        response.setStatus(job.status.name());
+        response.setFileName(job.fileName);
+        response.setSubmittedAt(job.submittedAt);
+        response.setStartedAt(job.startedAt);
+        response.setCompletedAt(job.completedAt);
+        if (job.startedAt != null) {
+            response.setQueueWaitMs(TimeUnit.NANOSECONDS.toMillis(job.startedNanos - job.submittedNanos));
+        }
+        response.setResultUrl("/api/ocr/jobs/" + job.id + "/result");
+        response.setSuccess(job.status != Status.FAILED);
+        if (job.status == Status.FAILED && job.result != null) {
+            response.setErrorMessage(job.result.getErrorMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Mutable job state; fields are written by one worker and read by status requests
+     */
+    private static final class Job {
+        private final String id;
+        private final String fileName;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final long submittedNanos = System.nanoTime();
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile long startedNanos;
+        private volatile LocalDateTime completedAt;
+        private volatile long completedMillis;
+        private volatile OcrResponse result;
+
+        private Job(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OcrTextSpan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recognized text together with its word- and line-level confidences
+ */
+public record OcrRecognition(String text, List<OcrTextSpan> words, List<OcrTextSpan> lines) {
+
+    /**
+     * Text recognized by an engine that does not report confidences
+     */
+    public static OcrRecognition textOnly(String text) {
+        return new OcrRecognition(text, List.of(), List.of());
+    }
+
+    /**
+     * Mean word confidence (0-100), or null if no words were recognized
+     */
+    public Double meanConfidence() {
+        double total = 0;
+        int count = 0;
+        for (OcrTextSpan word : words) {
+            if (word.getConfidence() != null && word.getConfidence() >= 0) {
+                total += word.getConfidence();
+                count++;
+            }
+        }
+        return count == 0 ? null : total / count;
+    }
+
+    /**
+     * Combine the recognitions of several tiles, using already-stitched text
+     */
+    public static OcrRecognition merge(String stitchedText, List<OcrRecognition> parts) {
+        List<OcrTextSpan> words = new ArrayList<>();
+        List<OcrTextSpan> lines = new ArrayList<>();
+        for (OcrRecognition part : parts) {
+            words.addAll(part.words());
+            lines.addAll(part.lines());
+        }
+        return new OcrRecognition(stitchedText, words, lines);
+    }
+}
@@ -0,0 +1,176 @@
+package com.hemendra.ocr.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hemendra.ocr.dto.OcrResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of OCR results.
+ *
+ * Entries are keyed by a hash of the image bytes, the language and any options that
+ * affect the recognized text. A bounded in-memory LRU tier is backed by an optional
+ * on-disk tier that survives restarts.
+ */
+@Component
+public class OcrResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrResultCache.class);
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final LruTtlCache<String, OcrResponse> memory;
+    private final Path diskDir;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+    private final AtomicLong diskExpirations = new AtomicLong();
+    private final AtomicLong diskErrors = new AtomicLong();
+
+    public OcrResultCache(@Value("${ocr.cache.enabled:true}") boolean enabled,
+                          @Value("${ocr.cache.max-entries:1000}") int maxEntries,
+                          @Value("${ocr.cache.ttl-minutes:60}") long ttlMinutes,
+                          @Value("${ocr.cache.disk-dir:}") String diskDir) {
+        this.enabled = enabled;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.memory = new LruTtlCache<>(maxEntries, ttlMillis);
+        this.diskDir = enabled && diskDir != null && !diskDir.isBlank() ? Paths.get(diskDir) : null;
+
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+                logger.info("OCR result disk cache enabled at: {}", this.diskDir.toAbsolutePath());
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to create OCR cache directory: " + diskDir, e);
+            }
+        }
+    }
+
+    /**
+     * Cache that never stores anything
+     */
+    public static OcrResultCache disabled() {
+        return new OcrResultCache(false, 0, 0, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Build the cache key for an image digest, language and option signature
+     */
+    public String key(String imageSha256, String language, String options) {
+        return ContentHash.sha256(imageSha256, language, options);
+    }
+
+    /**
+     * Look up a result, checking memory first and then disk
+     */
+    public OcrResponse get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        OcrResponse cached = memory.get(key);
+        if (cached != null || diskDir == null) {
+            return cached;
+        }
+
+        cached = readFromDisk(key);
+        if (cached != null) {
+            // Promote to the memory tier so the next hit skips the disk
+            memory.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Store a successful result in both tiers
+     */
+    public void put(String key, OcrResponse response) {
+        if (!enabled || response == null || !response.isSuccess()) {
+            return;
+        }
+        memory.put(key, response);
+        if (diskDir != null) {
+            writeToDisk(key, response);
+        }
+    }
+
+    public void clear() {
+        memory.clear();
+        if (diskDir != null) {
+            try (var files = Files.list(diskDir)) {
+                files.filter(path -> path.toString().endsWith(".json")).forEach(path -> path.toFile().delete());
+            } catch (IOException e) {
+                logger.warn("Failed to clear OCR disk cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    private OcrResponse readFromDisk(String key) {
+        Path file = diskDir.resolve(key + ".json");
+        try {
+            if (!Files.exists(file)) {
+                diskMisses.incrementAndGet();
+                return null;
+            }
+            if (Files.getLastModifiedTime(file).toMillis() + ttlMillis <= System.currentTimeMillis()) {
+                Files.deleteIfExists(file);
+                diskExpirations.incrementAndGet();
+                diskMisses.incrementAndGet();
+                return null;
+            }
+            OcrResponse response = objectMapper.readValue(file.toFile(), OcrResponse.class);
+            diskHits.incrementAndGet();
+            return response;
+        } catch (IOException e) {
+            logger.warn("Failed to read OCR cache entry {}: {}", key, e.getMessage());
+            diskErrors.incrementAndGet();
+            diskMisses.incrementAndGet();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, OcrResponse response) {
+        try {
+            // Write to a temp file and move into place so readers never see a partial entry
+            Path temp = Files.createTempFile(diskDir, key, ".tmp");
+            objectMapper.writeValue(temp.toFile(), response);
+            Files.move(temp, diskDir.resolve(key + ".json"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write OCR cache entry {}: {}", key, e.getMessage());
+            diskErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Snapshot of cache statistics for both tiers
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = memory.getStats();
+        stats.put("enabled", enabled);
+        stats.put("disk_enabled", diskDir != null);
+        if (diskDir != null) {
+            stats.put("disk_hits", diskHits.get());
+            stats.put("disk_misses", diskMisses.get());
+            stats.put("disk_expirations", diskExpirations.get());
+            stats.put("disk_errors", diskErrors.get());
+        }
+        return stats;
+    }
+}
@@ -1,21 +1,48 @@
 package com.hemendra.ocr.service;
 
+import com.hemendra.ocr.dto.BatchOcrResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrPageResult;
+import com.hemendra.ocr.dto.OcrRegion;
+import com.hemendra.ocr.dto.OcrRegionResult;
 import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.dto.RegionOcrResponse;
 import com.hemendra.ocr.exception.OcrException;
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
+import com.hemendra.ocr.service.preprocess.ImagePreprocessingPipeline;
+import com.hemendra.ocr.service.preprocess.PreprocessingResult;
+import com.hemendra.ocr.service.preprocess.PreprocessingStage;
+import jakarta.annotation.PreDestroy;
 import net.sourceforge.tess4j.TesseractException;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
  * Service class for OCR operations using Tesseract
@@ -29,83 +56,167 @@ public class OcrService {
         "png", "jpg", "jpeg", "gif", "bmp", "tiff", "tif"
     );
     
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final List<String> MULTI_PAGE_FORMATS = Arrays.asList(
+        "png", "jpg", "jpeg", "gif", "bmp", "tiff", "tif", "pdf"
+    );
     
-    private final ITesseract tesseract;
+    private static final String DEFAULT_LANGUAGE = "eng";
     
-    public OcrService() {
-        this.tesseract = new Tesseract();
-
-        // Auto-detect tessdata path based on environment
-        String tessDataPath = detectTessDataPath();
-        if (tessDataPath != null) {
-            tesseract.setDatapath(tessDataPath);
-            logger.info("Using tessdata path: {}", tessDataPath);
-        } else {
-            logger.warn("Could not detect tessdata path, using default");
-        }
-
-        tesseract.setLanguage("eng"); // Default to English
+    // Tess4J's "not set" value, which leaves Tesseract on its own default mode
+    private static final int DEFAULT_PAGE_SEG_MODE = -1;
+    
+    @Value("${ocr.upload.max-file-size:10MB}")
+    private DataSize maxFileSize = DataSize.ofMegabytes(10);
+    
+    @Value("${ocr.batch.max-files:100}")
+    private int maxBatchFiles = 100;
+    
+    @Value("${ocr.tiling.auto-threshold-pixels:6000000}")
+    private long tilingThresholdPixels = 6_000_000;
+    
+    @Value("${ocr.tiling.min-band-height:800}")
+    private int minBandHeight = 800;
+    
+    @Value("${ocr.tiling.overlap:150}")
+    private int bandOverlap = 150;
+    
+    @Value("${ocr.regions.max:50}")
+    private int maxRegions = 50;
+    
+    @Value("${ocr.pdf.render-dpi:300}")
+    private float pdfRenderDpi = 300;
+    
+    private final TesseractPool tesseractPool;
+    private final OcrResultCache resultCache;
+    private final ImagePreprocessingPipeline preprocessing;
+    private final UploadSpooler uploadSpooler;
+    private final ForkJoinPool ocrWorkers;
+    
+    public OcrService(TesseractPool tesseractPool, OcrResultCache resultCache, 
+                      ImagePreprocessingPipeline preprocessing, UploadSpooler uploadSpooler) {
+        this.tesseractPool = tesseractPool;
+        this.resultCache = resultCache;
+        this.preprocessing = preprocessing;
+        this.uploadSpooler = uploadSpooler;
+        this.ocrWorkers = new ForkJoinPool(tesseractPool.getMaxSize(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ocr-worker-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
     }
-
-    /**
-     * Auto-detect tessdata path based on the environment
-     */
-    private String detectTessDataPath() {
-        // Common tessdata paths to check
-        String[] possiblePaths = {
-            "/usr/share/tesseract-ocr/4.00/tessdata",  // Ubuntu/Debian Docker
-            "/usr/share/tesseract-ocr/tessdata",       // Alternative Ubuntu/Debian
-            "/usr/share/tessdata",                     // Some Linux distributions
-            "/opt/homebrew/share/tessdata",            // macOS Homebrew
-            "/usr/local/share/tessdata",               // macOS alternative
-            "C:\\Program Files\\Tesseract-OCR\\tessdata" // Windows
-        };
-
-        for (String path : possiblePaths) {
-            java.io.File tessDataDir = new java.io.File(path);
-            if (tessDataDir.exists() && tessDataDir.isDirectory()) {
-                return path;
-            }
-        }
-
-        // Check environment variable
-        String envPath = System.getenv("TESSDATA_PREFIX");
-        if (envPath != null) {
-            java.io.File tessDataDir = new java.io.File(envPath);
-            if (tessDataDir.exists() && tessDataDir.isDirectory()) {
-                return envPath;
-            }
-        }
-
-        return null;
+    
+    @PreDestroy
+    public void shutdown() {
+        ocrWorkers.shutdownNow();
     }
     
     /**
      * Extract text from uploaded image file
      */
     public OcrResponse extractTextFromImage(MultipartFile file) throws OcrException {
+        return extractTextFromImage(file, DEFAULT_LANGUAGE);
+    }
+    
+    /**
+     * Extract text with specific language
+     */
+    public OcrResponse extractTextFromImage(MultipartFile file, String language) throws OcrException {
+        return extractTextFromImage(file, new OcrOptions(language));
+    }
+    
+    /**
+     * Extract text with per-request options such as the preprocessing profile
+     */
+    public OcrResponse extractTextFromImage(MultipartFile file, OcrOptions options) throws OcrException {
         long startTime = System.currentTimeMillis();
         
+        // Validate file
+        validateFile(file, SUPPORTED_FORMATS);
+        
+        // Large uploads are spooled to disk so hashing and decoding read them through file channels
+        try (UploadSpooler.Spooled upload = uploadSpooler.spool(file)) {
+            return extractSpooled(upload.file(), options, startTime);
+        } catch (IOException e) {
+            logger.error("Unable to spool file: {}", file.getOriginalFilename(), e);
+            throw new OcrException("Error reading image file: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Extract text from an upload that has already been validated and, if large, spooled
+     */
+    private OcrResponse extractSpooled(MultipartFile file, OcrOptions options, long startTime) throws OcrException {
+        String language = options.getLanguage();
+        
         try {
-            // Validate file
-            validateFile(file);
+            List<PreprocessingStage> stages = preprocessing.resolve(options.getPreprocess());
+            
+            // Serve repeated submissions of the same image from the cache
+            String cacheKey = null;
+            if (resultCache.isEnabled()) {
+                cacheKey = resultCache.key(ContentHash.sha256(file), language, 
+                                           ImagePreprocessingPipeline.signature(stages) 
+                                           + "|tiled=" + options.getTiled() + "|detail=" + options.isDetail());
+                OcrResponse cached = resultCache.get(cacheKey);
+                if (cached != null) {
+                    OcrResponse response = new OcrResponse(cached.getExtractedText(), 
+                                                           file.getOriginalFilename(), file.getSize());
+                    response.setConfidence(cached.getConfidence());
+                    response.setWords(cached.getWords());
+                    response.setLines(cached.getLines());
+                    // Same shape as a miss: timings and tiling of the run that produced the entry
+                    response.setPreprocessingMs(cached.getPreprocessingMs());
+                    response.setTileCount(cached.getTileCount());
+                    response.setCached(true);
+                    response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+                    
+                    logger.info("OCR served from cache for file: {}", file.getOriginalFilename());
+                    return response;
+                }
+            }
             
             // Convert MultipartFile to BufferedImage
-            BufferedImage image = ImageIO.read(file.getInputStream());
-            if (image == null) {
-                throw new OcrException("Unable to read image file. Please ensure it's a valid image format.");
+            BufferedImage image;
+            int dpi;
+            try (PageSource source = openImage(file)) {
+                if (source == null) {
+                    throw new OcrException("Unable to read image file. Please ensure it's a valid image format.");
+                }
+                image = source.readPage(0);
+                dpi = source.getDpi(0);
             }
             
-            // Perform OCR
-            String extractedText = tesseract.doOCR(image);
+            // Clean up and shrink the image before handing it to Tesseract
+            PreprocessingResult prepared = preprocessing.apply(image, dpi, stages);
+            
+            // Perform OCR on an engine dedicated to this request, or on several engines at once for huge images
+            OcrRecognition recognition;
+            List<ImageTiler.Tile> tiles = planTiles(prepared.image(), options.getTiled());
+            if (tiles.size() > 1) {
+                recognition = runTiledOcr(tiles, language);
+            } else {
+                recognition = runOcr(prepared.image(), language);
+            }
             
             // Calculate processing time
             long processingTime = System.currentTimeMillis() - startTime;
             
             // Create response
-            OcrResponse response = new OcrResponse(extractedText, file.getOriginalFilename(), file.getSize());
+            OcrResponse response = new OcrResponse(recognition.text(), file.getOriginalFilename(), file.getSize());
+            response.setConfidence(recognition.meanConfidence());
+            if (options.isDetail()) {
+                response.setWords(recognition.words());
+                response.setLines(recognition.lines());
+            }
             response.setProcessingTimeMs(processingTime);
+            response.setPreprocessingMs(prepared.stageTimingsMs());
+            if (tiles.size() > 1) {
+                response.setTileCount(tiles.size());
+            }
+            
+            if (cacheKey != null) {
+                resultCache.put(cacheKey, response);
+            }
             
             logger.info("OCR completed successfully for file: {} in {}ms", 
                        file.getOriginalFilename(), processingTime);
@@ -122,30 +233,482 @@ public class OcrService {
     }
     
     /**
-     * Extract text with specific language
+     * Extract text from named rectangles of an image only, each with its own page segmentation mode.
+     * Regions are recognized in parallel; a failure in one region is reported in its own result.
      */
-    public OcrResponse extractTextFromImage(MultipartFile file, String language) throws OcrException {
-        // Store the current language (default is "eng")
-        String originalLanguage = "eng";
+    public RegionOcrResponse extractRegions(MultipartFile file, List<OcrRegion> regions, OcrOptions options) 
+            throws OcrException {
+        long startTime = System.currentTimeMillis();
+        
+        validateFile(file, SUPPORTED_FORMATS);
+        validateRegions(regions);
+        List<PreprocessingStage> stages = preprocessing.resolve(options.getPreprocess());
+        
+        BufferedImage image;
+        int dpi;
+        try (UploadSpooler.Spooled upload = uploadSpooler.spool(file);
+             PageSource source = openImage(upload.file())) {
+            if (source == null) {
+                throw new OcrException("Unable to read image file. Please ensure it's a valid image format.");
+            }
+            image = source.readPage(0);
+            dpi = source.getDpi(0);
+        } catch (IOException e) {
+            logger.error("IO error while processing file: {}", file.getOriginalFilename(), e);
+            throw new OcrException("Error reading image file: " + e.getMessage(), e);
+        }
+        
+        List<Callable<OcrRegionResult>> tasks = new ArrayList<>();
+        for (OcrRegion region : regions) {
+            tasks.add(() -> ocrRegion(image, dpi, region, stages, options.getLanguage()));
+        }
+        List<OcrRegionResult> results = invokeAllOnWorkers(tasks);
+        
+        Map<String, OcrRegionResult> byName = new LinkedHashMap<>();
+        for (int i = 0; i < regions.size(); i++) {
+            byName.put(regions.get(i).getName(), results.get(i));
+        }
+        
+        RegionOcrResponse response = new RegionOcrResponse(byName, file.getOriginalFilename(), file.getSize());
+        response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        
+        logger.info("Region OCR completed for {} regions of file: {} in {}ms", 
+                   regions.size(), file.getOriginalFilename(), response.getProcessingTimeMs());
+        
+        return response;
+    }
+    
+    /**
+     * OCR a single region, clipped to the image. The crop shares the image's raster, so no pixels are copied.
+     */
+    private OcrRegionResult ocrRegion(BufferedImage image, int dpi, OcrRegion region, 
+                                      List<PreprocessingStage> stages, String language) {
+        long startTime = System.currentTimeMillis();
+        OcrRegionResult result;
+        
+        int x = Math.max(0, region.getX());
+        int y = Math.max(0, region.getY());
+        int width = Math.min(region.getX() + region.getWidth(), image.getWidth()) - x;
+        int height = Math.min(region.getY() + region.getHeight(), image.getHeight()) - y;
+        
+        if (width <= 0 || height <= 0) {
+            result = OcrRegionResult.failed("Region lies outside the image (" 
+                                            + image.getWidth() + "x" + image.getHeight() + ")");
+        } else {
+            try {
+                PreprocessingResult prepared = preprocessing.apply(image.getSubimage(x, y, width, height), dpi, stages);
+                OcrRecognition recognition = runOcr(prepared.image(), language, region.getPsm());
+                result = new OcrRegionResult(recognition.text(), recognition.meanConfidence());
+            } catch (OcrException | TesseractException e) {
+                logger.warn("OCR failed for region {}: {}", region.getName(), e.getMessage());
+                result = OcrRegionResult.failed("OCR processing failed: " + e.getMessage());
+            }
+        }
+        result.setPsm(region.getPsm());
+        result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+    
+    /**
+     * Validate region definitions: named, unique, positive size and a valid segmentation mode
+     */
+    private void validateRegions(List<OcrRegion> regions) throws OcrException {
+        if (regions == null || regions.isEmpty()) {
+            throw new OcrException("At least one region is required");
+        }
+        if (regions.size() > maxRegions) {
+            throw new OcrException("Too many regions (max " + maxRegions + ")");
+        }
+        
+        Set<String> names = new HashSet<>();
+        for (OcrRegion region : regions) {
+            if (region == null || region.getName() == null || region.getName().isBlank()) {
+                throw new OcrException("Every region needs a name");
+            }
+            if (!names.add(region.getName())) {
+                throw new OcrException("Duplicate region name: " + region.getName());
+            }
+            if (region.getWidth() <= 0 || region.getHeight() <= 0) {
+                throw new OcrException("Region " + region.getName() + " must have a positive width and height");
+            }
+            if (region.getPsm() != null && (region.getPsm() < 0 || region.getPsm() > 13)) {
+                throw new OcrException("Region " + region.getName() + " has an invalid page segmentation mode: " 
+                                       + region.getPsm() + " (expected 0-13)");
+            }
+        }
+    }
+    
+    /**
+     * Extract text from many files at once, fanning them out across the OCR workers.
+     * A failure on one file is reported in its own result and never fails the batch.
+     */
+    public BatchOcrResponse extractBatch(List<MultipartFile> files, OcrOptions options) throws OcrException {
+        if (files == null || files.isEmpty()) {
+            throw new OcrException("No files uploaded");
+        }
+        if (files.size() > maxBatchFiles) {
+            throw new OcrException("Too many files in batch (max " + maxBatchFiles + ")");
+        }
+        
+        long startTime = System.currentTimeMillis();
+        List<OcrResponse> results = ocrWorkers.invoke(new BatchOcrTask(files, 0, files.size(), options));
+        
+        BatchOcrResponse response = new BatchOcrResponse(results);
+        response.setWallTimeMs(System.currentTimeMillis() - startTime);
+        
+        logger.info("Batch OCR completed for {} files ({} failed) in {}ms", 
+                   response.getTotalFiles(), response.getFailed(), response.getWallTimeMs());
+        
+        return response;
+    }
+    
+    /**
+     * Unpack a zip archive into individual files for batch OCR.
+     * Directories and archive metadata are skipped; every entry is bounded by the file size limit.
+     * Entries are spooled to temp files rather than the heap; the caller must close them.
+     */
+    public List<FileBackedMultipartFile> expandArchive(MultipartFile archive) throws OcrException {
+        if (archive == null || archive.isEmpty()) {
+            throw new OcrException("No file uploaded or file is empty");
+        }
+        
+        List<FileBackedMultipartFile> files = new ArrayList<>();
+        boolean expanded = false;
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String entryName = entry.getName();
+                if (entry.isDirectory() || entryName.startsWith("__MACOSX/")
+                        || FilenameUtils.getName(entryName).startsWith(".")) {
+                    continue;
+                }
+                if (files.size() >= maxBatchFiles) {
+                    throw new OcrException("Too many files in archive (max " + maxBatchFiles + ")");
+                }
+                
+                // Entries share the upload limit; spooling stops one byte past it, so oversized entries
+                // are rejected without being fully inflated
+                FileBackedMultipartFile file = uploadSpooler.spoolStream(zip, FilenameUtils.getName(entryName), 
+                                                                         maxFileSize.toBytes());
+                files.add(file);
+                if (file.getSize() > maxFileSize.toBytes()) {
+                    throw new OcrException("Archive entry " + FilenameUtils.getName(entryName) 
+                                           + " exceeds maximum limit of " + maxFileSize.toMegabytes() + "MB");
+                }
+            }
+            
+            if (files.isEmpty()) {
+                throw new OcrException("Archive contains no files");
+            }
+            expanded = true;
+            return files;
+        } catch (IOException e) {
+            logger.error("Unable to read archive: {}", archive.getOriginalFilename(), e);
+            throw new OcrException("Error reading zip archive: " + e.getMessage(), e);
+        } finally {
+            if (!expanded) {
+                files.forEach(FileBackedMultipartFile::close);
+            }
+        }
+    }
+    
+    /**
+     * Recursively splits a batch in half until each task covers a single file
+     */
+    private class BatchOcrTask extends RecursiveTask<List<OcrResponse>> {
+        
+        private final List<MultipartFile> files;
+        private final int from;
+        private final int to;
+        private final OcrOptions options;
+        
+        BatchOcrTask(List<MultipartFile> files, int from, int to, OcrOptions options) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.options = options;
+        }
+        
+        @Override
+        protected List<OcrResponse> compute() {
+            if (to - from == 1) {
+                return List.of(extractOrReportFailure(files.get(from), options));
+            }
+            
+            int middle = (from + to) >>> 1;
+            BatchOcrTask left = new BatchOcrTask(files, from, middle, options);
+            left.fork();
+            List<OcrResponse> right = new BatchOcrTask(files, middle, to, options).compute();
+            
+            List<OcrResponse> results = new ArrayList<>(to - from);
+            results.addAll(left.join());
+            results.addAll(right);
+            return results;
+        }
+    }
+    
+    /**
+     * Extract text from a single batch file, turning any failure into an error response
+     */
+    private OcrResponse extractOrReportFailure(MultipartFile file, OcrOptions options) {
+        try {
+            return extractTextFromImage(file, options);
+        } catch (OcrException e) {
+            logger.warn("Batch OCR failed for file: {}: {}", file.getOriginalFilename(), e.getMessage());
+            OcrResponse errorResponse = new OcrResponse(e.getMessage());
+            errorResponse.setFileName(file.getOriginalFilename());
+            errorResponse.setFileSize(file.getSize());
+            return errorResponse;
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error in batch OCR for file: {}", file.getOriginalFilename(), e);
+            OcrResponse errorResponse = new OcrResponse("Internal error: " + e.getMessage());
+            errorResponse.setFileName(file.getOriginalFilename());
+            errorResponse.setFileSize(file.getSize());
+            return errorResponse;
+        }
+    }
+    
+    /**
+     * Open a multi-page document (multi-frame image or PDF) for page-by-page OCR
+     */
+    public PageSource openPages(MultipartFile file) throws OcrException {
+        validateFile(file, MULTI_PAGE_FORMATS);
+        
+        UploadSpooler.Spooled upload = null;
+        try {
+            // The spooled copy, if any, lives until the caller closes the page source
+            upload = uploadSpooler.spool(file);
+            String extension = FilenameUtils.getExtension(file.getOriginalFilename()).toLowerCase();
+            PageSource pages = "pdf".equals(extension)
+                ? openPdf(upload.file())
+                : openImage(upload.file());
+            if (pages == null) {
+                throw new OcrException("Unable to read image file. Please ensure it's a valid image format.");
+            }
+            if (pages.getPageCount() < 1) {
+                pages.close();
+                throw new OcrException("Document contains no pages");
+            }
+            return PageSource.closing(pages, upload);
+        } catch (OcrException e) {
+            if (upload != null) {
+                upload.close();
+            }
+            throw e;
+        } catch (IOException e) {
+            if (upload != null) {
+                upload.close();
+            }
+            logger.error("Unable to open document: {}", file.getOriginalFilename(), e);
+            throw new OcrException("Unable to read document: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * OCR every page in parallel, handing each result to the consumer as soon as it is done.
+     * Pages are decoded lazily on the calling thread and only a bounded window of them is
+     * held in memory at once; results are delivered on the calling thread in completion order.
+     */
+    public void extractPages(PageSource pages, OcrOptions options, Consumer<OcrPageResult> pageConsumer)
+            throws OcrException {
+        long startTime = System.currentTimeMillis();
+        List<PreprocessingStage> stages = preprocessing.resolve(options.getPreprocess());
+        int window = tesseractPool.getMaxSize() * 2;
+        
+        CompletionService<OcrPageResult> completion = new ExecutorCompletionService<>(ocrWorkers);
+        List<Future<OcrPageResult>> futures = new ArrayList<>();
+        
         try {
-            tesseract.setLanguage(language);
-            return extractTextFromImage(file);
+            int totalPages = pages.getPageCount();
+            int nextPage = 0;
+            int inFlight = 0;
+            int completed = 0;
+            
+            while (completed < totalPages) {
+                // Keep the window full, decoding the next page only when there is room for it
+                while (nextPage < totalPages && inFlight < window) {
+                    int pageNumber = ++nextPage;
+                    BufferedImage image;
+                    int dpi;
+                    try {
+                        image = pages.readPage(pageNumber - 1);
+                        dpi = pages.getDpi(pageNumber - 1);
+                    } catch (IOException | RuntimeException e) {
+                        logger.warn("Failed to decode page {} of {}", pageNumber, totalPages, e);
+                        pageConsumer.accept(OcrPageResult.failed(pageNumber, totalPages,
+                            "Unable to decode page: " + e.getMessage()));
+                        completed++;
+                        continue;
+                    }
+                    futures.add(completion.submit(() -> 
+                        ocrPage(image, dpi, stages, pageNumber, totalPages, options.getLanguage())));
+                    inFlight++;
+                }
+                
+                if (inFlight > 0) {
+                    OcrPageResult result = completion.take().get();
+                    inFlight--;
+                    completed++;
+                    pageConsumer.accept(result);
+                }
+            }
+            
+            logger.info("Multi-page OCR completed for {} pages in {}ms",
+                       totalPages, System.currentTimeMillis() - startTime);
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrException("Multi-page OCR interrupted", e);
+        } catch (ExecutionException e) {
+            throw new OcrException("Multi-page OCR failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            throw new OcrException("Error reading document: " + e.getMessage(), e);
         } finally {
-            // Reset to original language
-            tesseract.setLanguage(originalLanguage);
+            // Stop any outstanding pages if the consumer gave up early (e.g. client disconnected)
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+    
+    /**
+     * OCR a single decoded page, capturing failures in the result
+     */
+    private OcrPageResult ocrPage(BufferedImage image, int dpi, List<PreprocessingStage> stages,
+                                  int pageNumber, int totalPages, String language) {
+        long startTime = System.currentTimeMillis();
+        OcrPageResult result;
+        try {
+            PreprocessingResult prepared = preprocessing.apply(image, dpi, stages);
+            OcrRecognition recognition = runOcr(prepared.image(), language);
+            result = new OcrPageResult(pageNumber, totalPages, recognition.text());
+            result.setConfidence(recognition.meanConfidence());
+        } catch (OcrException | TesseractException e) {
+            logger.warn("OCR failed for page {} of {}: {}", pageNumber, totalPages, e.getMessage());
+            result = OcrPageResult.failed(pageNumber, totalPages, "OCR processing failed: " + e.getMessage());
+        }
+        result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+    
+    /**
+     * Decide how to band an image: explicitly requested tiling always splits (if the image is
+     * tall enough), otherwise only images above the pixel threshold are split
+     */
+    private List<ImageTiler.Tile> planTiles(BufferedImage image, Boolean tiled) {
+        boolean split = tiled != null
+            ? tiled
+            : (long) image.getWidth() * image.getHeight() > tilingThresholdPixels;
+        int bandCount = Math.min(tesseractPool.getMaxSize(), image.getHeight() / minBandHeight);
+        if (!split || bandCount < 2) {
+            return List.of(new ImageTiler.Tile(0, 0, image));
+        }
+        return ImageTiler.split(image, bandCount, bandOverlap);
+    }
+    
+    /**
+     * OCR each band concurrently on its own engine and stitch the text back together
+     */
+    private OcrRecognition runTiledOcr(List<ImageTiler.Tile> tiles, String language) throws OcrException {
+        List<Callable<OcrRecognition>> tasks = new ArrayList<>();
+        for (ImageTiler.Tile tile : tiles) {
+            tasks.add(() -> runOcr(tile.image(), language));
+        }
+        List<OcrRecognition> parts = invokeAllOnWorkers(tasks);
+        return ImageTiler.stitch(tiles, parts);
+    }
+    
+    /**
+     * Run tasks on the OCR workers and wait for all of them, returning results in task order.
+     * When called from a worker (e.g. inside a batch) the tasks are forked so the waiting
+     * worker helps run them instead of blocking a thread.
+     */
+    private <T> List<T> invokeAllOnWorkers(List<Callable<T>> tasks) throws OcrException {
+        List<ForkJoinTask<T>> forked = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            forked.add(ForkJoinTask.adapt(task));
+        }
+        
+        List<T> results = new ArrayList<>(forked.size());
+        try {
+            if (Thread.currentThread() instanceof ForkJoinWorkerThread worker && worker.getPool() == ocrWorkers) {
+                ForkJoinTask.invokeAll(forked);
+            } else {
+                forked.forEach(ocrWorkers::execute);
+            }
+            for (ForkJoinTask<T> task : forked) {
+                results.add(task.join());
+            }
+        } catch (RuntimeException e) {
+            forked.forEach(task -> task.cancel(true));
+            
+            // Adapted callables wrap checked exceptions; surface the original OCR failure
+            Throwable cause = e;
+            while (cause.getCause() != null && !(cause instanceof OcrException)) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof OcrException ocrException) {
+                throw ocrException;
+            }
+            throw new OcrException("OCR processing failed: " + cause.getMessage(), cause);
+        }
+        return results;
+    }
+    
+    /**
+     * Run Tesseract on an engine borrowed from the pool, collecting confidences in the same pass
+     */
+    private OcrRecognition runOcr(BufferedImage image, String language) throws OcrException, TesseractException {
+        return runOcr(image, language, null);
+    }
+    
+    /**
+     * Run Tesseract with a specific page segmentation mode, restoring the engine default afterwards
+     */
+    private OcrRecognition runOcr(BufferedImage image, String language, Integer pageSegMode) 
+            throws OcrException, TesseractException {
+        try (TesseractPool.Lease lease = tesseractPool.borrow(language)) {
+            if (pageSegMode != null) {
+                lease.engine().setPageSegMode(pageSegMode);
+            }
+            try {
+                if (lease.engine() instanceof ConfidenceTesseract engine) {
+                    return engine.recognize(image);
+                }
+                return OcrRecognition.textOnly(lease.engine().doOCR(image));
+            } finally {
+                if (pageSegMode != null) {
+                    lease.engine().setPageSegMode(DEFAULT_PAGE_SEG_MODE);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Open an image upload, seeking within the spooled file instead of caching a stream copy
+     */
+    private static PageSource openImage(MultipartFile file) throws IOException {
+        if (file instanceof FileBackedMultipartFile spooled) {
+            return PageSource.image(spooled.getPath().toFile());
+        }
+        return PageSource.image(file.getInputStream());
+    }
+    
+    private PageSource openPdf(MultipartFile file) throws IOException {
+        if (file instanceof FileBackedMultipartFile spooled) {
+            return PageSource.pdf(spooled.getPath().toFile(), pdfRenderDpi);
         }
+        return PageSource.pdf(file.getInputStream(), pdfRenderDpi);
     }
     
     /**
      * Validate uploaded file
      */
-    private void validateFile(MultipartFile file) throws OcrException {
+    private void validateFile(MultipartFile file, List<String> allowedFormats) throws OcrException {
         if (file == null || file.isEmpty()) {
             throw new OcrException("No file uploaded or file is empty");
         }
         
-        if (file.getSize() > MAX_FILE_SIZE) {
-            throw new OcrException("File size exceeds maximum limit of " + (MAX_FILE_SIZE / 1024 / 1024) + "MB");
+        if (file.getSize() > maxFileSize.toBytes()) {
+            throw new OcrException("File size exceeds maximum limit of " + maxFileSize.toMegabytes() + "MB");
         }
         
         String originalFilename = file.getOriginalFilename();
@@ -154,8 +717,8 @@ public class OcrService {
         }
         
         String extension = FilenameUtils.getExtension(originalFilename).toLowerCase();
-        if (!SUPPORTED_FORMATS.contains(extension)) {
-            throw new OcrException("Unsupported file format. Supported formats: " + SUPPORTED_FORMATS);
+        if (!allowedFormats.contains(extension)) {
+            throw new OcrException("Unsupported file format. Supported formats: " + allowedFormats);
         }
     }
     
@@ -165,4 +728,49 @@ public class OcrService {
     public List<String> getSupportedFormats() {
         return SUPPORTED_FORMATS;
     }
+    
+    /**
+     * Get list of formats accepted for multi-page OCR
+     */
+    public List<String> getMultiPageFormats() {
+        return MULTI_PAGE_FORMATS;
+    }
+    
+    /**
+     * Get the configured upload size limit in megabytes
+     */
+    public long getMaxFileSizeMb() {
+        return maxFileSize.toMegabytes();
+    }
+    
+    /**
+     * Get OCR engine pool statistics
+     */
+    public Map<String, Object> getPoolStats() {
+        return tesseractPool.getStats();
+    }
+    
+    /**
+     * Get upload spooling statistics
+     */
+    public Map<String, Object> getUploadStats() {
+        return uploadSpooler.getStats();
+    }
+    
+    /**
+     * Get OCR result cache statistics
+     */
+    public Map<String, Object> getCacheStats() {
+        return resultCache.getStats();
+    }
+    
+    /**
+     * Get available preprocessing stages and profiles
+     */
+    public Map<String, Object> getPreprocessingOptions() {
+        Map<String, Object> options = new HashMap<>();
+        options.put("stages", preprocessing.getStageNames());
+        options.put("profiles", preprocessing.getProfileNames());
+        return options;
+    }
 }
@@ -0,0 +1,171 @@
+package com.hemendra.ocr.service;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One Ollama server behind the router: its own connection pool and WebClient, plus the
+ * in-flight count, latency and health state used to pick a backend for each request.
+ */
+public class OllamaBackend {
+
+    // Weight of the latest sample in the moving latency average
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final String baseUrl;
+    private final ConnectionProvider connections;
+    private final WebClient webClient;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong ejections = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final Set<String> loadedModels = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean healthy = true;
+    private volatile double smoothedLatencyMs;
+    private volatile long lastProbeMillis;
+    private volatile String lastError;
+
+    OllamaBackend(String baseUrl, int maxConnections, DataSize maxInMemorySize) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.connections = ConnectionProvider.builder("ollama-" + this.baseUrl)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(-1)
+            .maxIdleTime(Duration.ofSeconds(60))
+            .build();
+        this.webClient = WebClient.builder()
+            .baseUrl(this.baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+            .build();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Client bound to this backend's base URL and connection pool; use paths such as "/api/generate"
+     */
+    public WebClient webClient() {
+        return webClient;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public double getSmoothedLatencyMs() {
+        return smoothedLatencyMs;
+    }
+
+    public boolean hasModelLoaded(String model) {
+        return loadedModels.contains(model);
+    }
+
+    long begin() {
+        requests.incrementAndGet();
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void succeeded(long startNanos, String model) {
+        inFlight.decrementAndGet();
+        consecutiveFailures.set(0);
+        recordLatency(System.nanoTime() - startNanos);
+        if (model != null) {
+            // Ollama keeps a model resident after serving it, so later calls prefer this backend
+            loadedModels.add(model);
+        }
+    }
+
+    void failed(Throwable error, int ejectAfterFailures) {
+        inFlight.decrementAndGet();
+        failures.incrementAndGet();
+        recordFailure(error, ejectAfterFailures);
+    }
+
+    void abandoned() {
+        inFlight.decrementAndGet();
+    }
+
+    void probeSucceeded(Set<String> runningModels) {
+        lastProbeMillis = System.currentTimeMillis();
+        loadedModels.retainAll(runningModels);
+        loadedModels.addAll(runningModels);
+        consecutiveFailures.set(0);
+        healthy = true;
+    }
+
+    void probeFailed(Throwable error, int ejectAfterFailures) {
+        lastProbeMillis = System.currentTimeMillis();
+        recordFailure(error, ejectAfterFailures);
+    }
+
+    private void recordFailure(Throwable error, int ejectAfterFailures) {
+        lastError = error.getMessage();
+        if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures && healthy) {
+            healthy = false;
+            ejections.incrementAndGet();
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        completed.incrementAndGet();
+        totalLatencyNanos.addAndGet(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        double millis = nanos / 1_000_000.0;
+        synchronized (this) {
+            smoothedLatencyMs = smoothedLatencyMs == 0 ? millis
+                : smoothedLatencyMs + LATENCY_SMOOTHING * (millis - smoothedLatencyMs);
+        }
+    }
+
+    void close() {
+        connections.dispose();
+    }
+
+    /**
+     * Snapshot of load, latency and health for this backend
+     */
+    public Map<String, Object> getStats() {
+        long done = completed.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("base_url", baseUrl);
+        stats.put("healthy", healthy);
+        stats.put("in_flight", inFlight.get());
+        stats.put("requests", requests.get());
+        stats.put("failures", failures.get());
+        stats.put("consecutive_failures", consecutiveFailures.get());
+        stats.put("ejections", ejections.get());
+        stats.put("avg_latency_ms", done == 0 ? 0.0 : totalLatencyNanos.get() / 1_000_000.0 / done);
+        stats.put("max_latency_ms", maxLatencyNanos.get() / 1_000_000.0);
+        stats.put("smoothed_latency_ms", smoothedLatencyMs);
+        stats.put("loaded_models", new ArrayList<>(loadedModels));
+        stats.put("last_probe_ms", lastProbeMillis);
+        stats.put("last_error", lastError);
+        return stats;
+    }
+}
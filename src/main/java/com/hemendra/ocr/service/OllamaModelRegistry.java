@@ -0,0 +1,279 @@
+package com.hemendra.ocr.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hemendra.ocr.dto.OllamaModelInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory registry of the models installed on the Ollama backends.
+ *
+ * A background refresh lists models with /api/tags and inspects new or changed ones with
+ * /api/show to tell vision models from text models. Lookups never touch the network.
+ */
+@Component
+public class OllamaModelRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OllamaModelRegistry.class);
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Set<String> VISION_FAMILIES = Set.of("clip", "mllama");
+
+    private final OllamaRouter router;
+
+    // Models listed by each backend at its last successful /api/tags call
+    private final Map<String, Map<String, TagEntry>> tagsByBackend = new ConcurrentHashMap<>();
+    // Capabilities keyed by digest, so a model is only inspected again when it changes
+    private final Map<String, List<String>> capabilitiesByDigest = new ConcurrentHashMap<>();
+
+    private volatile Map<String, OllamaModelInfo> models = Collections.emptyMap();
+    private volatile long lastRefreshMillis;
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshErrors = new AtomicLong();
+    private final AtomicLong showCalls = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong requestedRefreshes = new AtomicLong();
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    public OllamaModelRegistry(OllamaRouter router) {
+        this.router = router;
+    }
+
+    /**
+     * A model as listed by /api/tags
+     */
+    private record TagEntry(String name, String digest, long size, String family, List<String> families,
+                            String parameterSize, String quantizationLevel) {
+    }
+
+    /**
+     * Model names without a tag refer to ":latest"
+     */
+    public static String normalize(String name) {
+        return name.contains(":") ? name : name + ":latest";
+    }
+
+    /**
+     * Re-list models on every backend. A backend that cannot be reached keeps its last known list.
+     */
+    @Scheduled(fixedDelayString = "${ollama.models.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        for (OllamaBackend backend : router.getBackends()) {
+            try {
+                tagsByBackend.put(backend.getBaseUrl(), fetchTags(backend));
+            } catch (RuntimeException e) {
+                refreshErrors.incrementAndGet();
+                logger.warn("Failed to list models on Ollama backend {}: {}", backend.getBaseUrl(), e.getMessage());
+            }
+        }
+
+        Map<String, OllamaModelInfo> next = new TreeMap<>();
+        for (OllamaBackend backend : router.getBackends()) {
+            Map<String, TagEntry> tags = tagsByBackend.getOrDefault(backend.getBaseUrl(), Map.of());
+            for (TagEntry tag : tags.values()) {
+                OllamaModelInfo info = next.computeIfAbsent(tag.name(), name -> toModelInfo(backend, tag));
+                info.getBackends().add(backend.getBaseUrl());
+            }
+        }
+
+        // Forget details of models that are no longer installed anywhere
+        Set<String> digests = next.values().stream().map(OllamaModelInfo::getDigest).collect(Collectors.toSet());
+        capabilitiesByDigest.keySet().retainAll(digests);
+
+        models = Collections.unmodifiableMap(next);
+        lastRefreshMillis = System.currentTimeMillis();
+        refreshes.incrementAndGet();
+    }
+
+    /**
+     * Refresh on a background thread, e.g. after a lookup missed a model that may have been pulled
+     * since. Returns at once; a request made while another is still pending is dropped.
+     */
+    public boolean requestRefresh() {
+        if (!refreshRequested.compareAndSet(false, true)) {
+            return false;
+        }
+        requestedRefreshes.incrementAndGet();
+        Thread thread = new Thread(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.warn("Requested model registry refresh failed: {}", e.getMessage());
+            } finally {
+                refreshRequested.set(false);
+            }
+        }, "model-registry-refresh");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private Map<String, TagEntry> fetchTags(OllamaBackend backend) {
+        JsonNode body = backend.webClient().get()
+            .uri("/api/tags")
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(TIMEOUT)
+            .block();
+
+        Map<String, TagEntry> tags = new LinkedHashMap<>();
+        if (body == null) {
+            return tags;
+        }
+        for (JsonNode model : body.path("models")) {
+            JsonNode details = model.path("details");
+            List<String> families = new ArrayList<>();
+            details.path("families").forEach(family -> families.add(family.asText()));
+            String name = normalize(model.path("name").asText());
+            tags.put(name, new TagEntry(
+                name,
+                model.path("digest").asText(""),
+                model.path("size").asLong(),
+                details.path("family").asText(null),
+                families,
+                details.path("parameter_size").asText(null),
+                details.path("quantization_level").asText(null)));
+        }
+        return tags;
+    }
+
+    private OllamaModelInfo toModelInfo(OllamaBackend backend, TagEntry tag) {
+        List<String> capabilities = capabilitiesByDigest.get(tag.digest());
+        if (capabilities == null) {
+            capabilities = fetchCapabilities(backend, tag);
+            if (capabilities != null && !tag.digest().isEmpty()) {
+                capabilitiesByDigest.put(tag.digest(), capabilities);
+            }
+        }
+
+        OllamaModelInfo info = new OllamaModelInfo();
+        info.setName(tag.name());
+        info.setDigest(tag.digest());
+        info.setSizeBytes(tag.size());
+        info.setFamily(tag.family());
+        info.setParameterSize(tag.parameterSize());
+        info.setQuantizationLevel(tag.quantizationLevel());
+        info.setCapabilities(capabilities != null ? capabilities : List.of());
+        // Older Ollama versions report no capabilities; a CLIP projector family still marks a vision model
+        info.setVision(capabilities != null && capabilities.contains("vision")
+            || tag.families().stream().anyMatch(VISION_FAMILIES::contains));
+        info.setBackends(new ArrayList<>());
+        return info;
+    }
+
+    /**
+     * Capabilities from /api/show, or null if the model could not be inspected this time
+     */
+    private List<String> fetchCapabilities(OllamaBackend backend, TagEntry tag) {
+        try {
+            showCalls.incrementAndGet();
+            JsonNode body = backend.webClient().post()
+                .uri("/api/show")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("model", tag.name()))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(TIMEOUT)
+                .block();
+
+            List<String> capabilities = new ArrayList<>();
+            if (body != null) {
+                body.path("capabilities").forEach(capability -> capabilities.add(capability.asText()));
+                if (!body.path("projector_info").isMissingNode() && !capabilities.contains("vision")) {
+                    capabilities.add("vision");
+                }
+            }
+            return capabilities;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to inspect model {} on {}: {}", tag.name(), backend.getBaseUrl(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Forget a model a backend reported as not found (404) until the next refresh lists it again
+     */
+    public synchronized void markMissing(String name) {
+        if (name == null) {
+            return;
+        }
+        String model = normalize(name);
+        notFound.incrementAndGet();
+        tagsByBackend.values().forEach(tags -> tags.remove(model));
+        if (models.containsKey(model)) {
+            Map<String, OllamaModelInfo> next = new TreeMap<>(models);
+            next.remove(model);
+            models = Collections.unmodifiableMap(next);
+            logger.info("Model {} was not found on Ollama, removed it from the registry", model);
+        }
+    }
+
+    public List<OllamaModelInfo> getModels() {
+        return new ArrayList<>(models.values());
+    }
+
+    public Optional<OllamaModelInfo> find(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(models.get(normalize(name)));
+    }
+
+    public boolean isInstalled(String name) {
+        return find(name).isPresent();
+    }
+
+    /**
+     * Installed models that accept images
+     */
+    public List<String> getVisionModelNames() {
+        return models.values().stream()
+            .filter(OllamaModelInfo::isVision)
+            .map(OllamaModelInfo::getName)
+            .toList();
+    }
+
+    /**
+     * Installed models that generate text but do not accept images (embedding-only models are excluded)
+     */
+    public List<String> getTextModelNames() {
+        return models.values().stream()
+            .filter(info -> !info.isVision())
+            .filter(info -> info.getCapabilities().isEmpty() || info.getCapabilities().contains("completion"))
+            .map(OllamaModelInfo::getName)
+            .toList();
+    }
+
+    /**
+     * Snapshot of registry size and refresh counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("model_count", models.size());
+        stats.put("vision_models", getVisionModelNames().size());
+        stats.put("text_models", getTextModelNames().size());
+        stats.put("last_refresh_ms", lastRefreshMillis);
+        stats.put("refreshes", refreshes.get());
+        stats.put("requested_refreshes", requestedRefreshes.get());
+        stats.put("refresh_errors", refreshErrors.get());
+        stats.put("show_calls", showCalls.get());
+        stats.put("not_found", notFound.get());
+        return stats;
+    }
+}
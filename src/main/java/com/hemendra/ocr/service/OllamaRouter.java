@@ -0,0 +1,230 @@
+package com.hemendra.ocr.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Routes Ollama calls across one or more backends.
+ *
+ * Each call goes to the healthy backend with the fewest outstanding requests, preferring
+ * one that already has the requested model loaded. Backends that keep failing (connection
+ * errors, timeouts, 5xx) are ejected and re-admitted once an active probe succeeds again.
+ */
+@Component
+public class OllamaRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OllamaRouter.class);
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final List<OllamaBackend> backends;
+    private final int ejectAfterFailures;
+    private final int affinitySlack;
+
+    @Autowired
+    public OllamaRouter(@Value("${ollama.backends:${ollama.base-url:http://localhost:11434}}") String[] baseUrls,
+                        @Value("${ollama.routing.max-connections:64}") int maxConnections,
+                        @Value("${ollama.routing.max-in-memory-size:16MB}") DataSize maxInMemorySize,
+                        @Value("${ollama.routing.eject-after-failures:3}") int ejectAfterFailures,
+                        @Value("${ollama.routing.affinity-slack:2}") int affinitySlack) {
+        this.backends = Arrays.stream(baseUrls)
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .distinct()
+            .map(url -> new OllamaBackend(url, maxConnections, maxInMemorySize))
+            .toList();
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("At least one Ollama backend must be configured");
+        }
+        this.ejectAfterFailures = Math.max(1, ejectAfterFailures);
+        this.affinitySlack = affinitySlack;
+        logger.info("Routing Ollama calls across {} backend(s): {}", backends.size(),
+                    backends.stream().map(OllamaBackend::getBaseUrl).toList());
+    }
+
+    /**
+     * Router with default settings, e.g. for tests against stub servers
+     */
+    public static OllamaRouter of(String... baseUrls) {
+        return new OllamaRouter(baseUrls, 64, DataSize.ofMegabytes(16), 3, 2);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backends.forEach(OllamaBackend::close);
+    }
+
+    public List<OllamaBackend> getBackends() {
+        return backends;
+    }
+
+    /**
+     * Run a single-valued call on the best backend for the model (null if any backend will do)
+     */
+    public <T> Mono<T> route(String model, Function<OllamaBackend, ? extends Mono<T>> call) {
+        return routeMany(model, call).singleOrEmpty();
+    }
+
+    /**
+     * Run a streaming call on the best backend for the model; the backend is chosen on subscription
+     */
+    public <T> Flux<T> routeMany(String model, Function<OllamaBackend, ? extends Publisher<T>> call) {
+        return Flux.defer(() -> track(select(model), model, call));
+    }
+
+    /**
+     * Run a call on every healthy backend, e.g. to pull a model everywhere it may be routed
+     */
+    public <T> Flux<T> broadcast(Function<OllamaBackend, ? extends Mono<T>> call) {
+        return Flux.defer(() -> Flux.fromIterable(candidates())
+            .flatMap(backend -> track(backend, null, call)));
+    }
+
+    /**
+     * Run a call on one specific backend, e.g. to load a model where it is missing
+     */
+    public <T> Mono<T> routeTo(OllamaBackend backend, String model, Function<OllamaBackend, ? extends Mono<T>> call) {
+        return Flux.defer(() -> track(backend, model, call)).singleOrEmpty();
+    }
+
+    private <T> Flux<T> track(OllamaBackend backend, String model, Function<OllamaBackend, ? extends Publisher<T>> call) {
+        long started = backend.begin();
+        AtomicBoolean finished = new AtomicBoolean();
+        Flux<T> upstream;
+        try {
+            upstream = Flux.from(call.apply(backend));
+        } catch (RuntimeException e) {
+            upstream = Flux.error(e);
+        }
+        return upstream
+            .doOnComplete(() -> {
+                if (finished.compareAndSet(false, true)) {
+                    backend.succeeded(started, model);
+                }
+            })
+            .doOnError(e -> {
+                if (!finished.compareAndSet(false, true)) {
+                    return;
+                }
+                if (isBackendFailure(e)) {
+                    backend.failed(e, ejectAfterFailures);
+                    if (!backend.isHealthy()) {
+                        logger.warn("Ejected Ollama backend {} after repeated failures: {}",
+                                    backend.getBaseUrl(), e.getMessage());
+                    }
+                } else {
+                    // The backend answered (e.g. 404 for an unknown model); that is not a health problem
+                    backend.succeeded(started, null);
+                }
+            })
+            .doOnCancel(() -> {
+                if (finished.compareAndSet(false, true)) {
+                    backend.abandoned();
+                }
+            });
+    }
+
+    /**
+     * Least outstanding requests among healthy backends, preferring one that has the model loaded
+     * unless it is busier than the least loaded backend by more than the affinity slack
+     */
+    OllamaBackend select(String model) {
+        List<OllamaBackend> candidates = candidates();
+        Comparator<OllamaBackend> byLoad = Comparator.comparingInt(OllamaBackend::getInFlight)
+            .thenComparingDouble(OllamaBackend::getSmoothedLatencyMs);
+
+        OllamaBackend leastLoaded = candidates.stream().min(byLoad).orElseThrow();
+        if (model == null) {
+            return leastLoaded;
+        }
+        return candidates.stream()
+            .filter(backend -> backend.hasModelLoaded(model))
+            .min(byLoad)
+            .filter(warm -> warm.getInFlight() - leastLoaded.getInFlight() <= affinitySlack)
+            .orElse(leastLoaded);
+    }
+
+    private List<OllamaBackend> candidates() {
+        List<OllamaBackend> healthy = backends.stream().filter(OllamaBackend::isHealthy).toList();
+        // With every backend ejected, keep trying all of them rather than failing outright
+        return healthy.isEmpty() ? backends : healthy;
+    }
+
+    private static boolean isBackendFailure(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException || e instanceof IOException;
+    }
+
+    /**
+     * Ask every backend which models it has loaded; a successful answer re-admits an ejected backend
+     */
+    @Scheduled(fixedDelayString = "${ollama.routing.probe-interval-ms:10000}")
+    public void probeBackends() {
+        Flux.fromIterable(backends)
+            .flatMap(this::probe)
+            .then()
+            .block();
+    }
+
+    private Mono<Void> probe(OllamaBackend backend) {
+        boolean wasHealthy = backend.isHealthy();
+        return backend.webClient().get()
+            .uri("/api/ps")
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(PROBE_TIMEOUT)
+            .doOnNext(body -> {
+                Set<String> running = new HashSet<>();
+                body.path("models").forEach(model -> running.add(model.path("name").asText()));
+                backend.probeSucceeded(running);
+                if (!wasHealthy) {
+                    logger.info("Re-admitted Ollama backend {}", backend.getBaseUrl());
+                }
+            })
+            .doOnError(e -> backend.probeFailed(e, ejectAfterFailures))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    public boolean isAnyBackendHealthy() {
+        return backends.stream().anyMatch(OllamaBackend::isHealthy);
+    }
+
+    /**
+     * Per-backend load, latency and health
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("backend_count", backends.size());
+        stats.put("healthy_count", backends.stream().filter(OllamaBackend::isHealthy).count());
+        stats.put("backends", backends.stream().map(OllamaBackend::getStats).toList());
+        return stats;
+    }
+}
@@ -1,24 +1,33 @@
 package com.hemendra.ocr.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hemendra.ocr.dto.AiAnalysisResponse;
 import com.hemendra.ocr.dto.OllamaRequest;
 import com.hemendra.ocr.dto.OllamaResponse;
 import com.hemendra.ocr.exception.OcrException;
-import org.apache.commons.codec.binary.Base64;
+import com.hemendra.ocr.exception.QueueFullException;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for interacting with Ollama API
@@ -30,24 +39,58 @@ public class OllamaService {
     
     private static final String DEFAULT_MODEL = "llava:latest";
     private static final Duration TIMEOUT = Duration.ofMinutes(5);
+    public static final String DEFAULT_PROMPT = "Describe what you see in this image in detail. Include any text, objects, people, colors, and overall composition.";
     
-    @Value("${ollama.base-url:http://localhost:11434}")
-    private String ollamaBaseUrl;
+    @Value("${ollama.max-file-size:50MB}")
+    private DataSize maxFileSize = DataSize.ofMegabytes(50);
     
-    private final WebClient webClient;
+    private final OllamaRouter router;
+    private final OllamaModelRegistry modelRegistry;
+    private final ModelWarmupManager warmupManager;
+    private final ModelConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final VisionImageEncoder imageEncoder;
+    private final UploadSpooler uploadSpooler;
+    private final AiAnalysisCache analysisCache;
+    private final SingleFlight<AiAnalysisCache.Key, AiAnalysisResponse> analysisFlights;
+    private final SingleFlight<AiAnalysisCache.Key, OllamaResponse> streamFlights;
+    private final Scheduler blockingScheduler;
     
-    public OllamaService() {
-        this.webClient = WebClient.builder()
-            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(50 * 1024 * 1024)) // 50MB
-            .build();
+    public OllamaService(VisionImageEncoder imageEncoder,
+                         UploadSpooler uploadSpooler,
+                         AiAnalysisCache analysisCache,
+                         OllamaRouter router,
+                         OllamaModelRegistry modelRegistry,
+                         ModelWarmupManager warmupManager,
+                         ModelConcurrencyLimiter concurrencyLimiter,
+                         @Value("${ollama.coalescing.enabled:true}") boolean coalescing,
+                         @Value("${ollama.blocking.threads:0}") int blockingThreads,
+                         @Value("${ollama.blocking.queue-capacity:10000}") int blockingQueueCapacity) {
+        this.router = router;
+        this.modelRegistry = modelRegistry;
+        this.warmupManager = warmupManager;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.imageEncoder = imageEncoder;
+        this.uploadSpooler = uploadSpooler;
+        this.analysisCache = analysisCache;
+        this.analysisFlights = new SingleFlight<>(coalescing);
+        this.streamFlights = new SingleFlight<>(coalescing);
+        
+        // Reading and encoding uploads is blocking I/O; keep it off the event loop on a bounded pool
+        int threads = blockingThreads > 0 ? blockingThreads : Runtime.getRuntime().availableProcessors() * 2;
+        this.blockingScheduler = Schedulers.newBoundedElastic(threads, blockingQueueCapacity, "ollama-blocking");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        blockingScheduler.dispose();
     }
     
     /**
      * Analyze image using Ollama with default prompt
      */
     public AiAnalysisResponse analyzeImage(MultipartFile file) throws OcrException {
-        String defaultPrompt = "Describe what you see in this image in detail. Include any text, objects, people, colors, and overall composition.";
-        return analyzeImage(file, defaultPrompt, DEFAULT_MODEL);
+        return analyzeImage(file, DEFAULT_PROMPT, DEFAULT_MODEL);
     }
     
     /**
@@ -58,24 +101,71 @@ public class OllamaService {
     }
     
     /**
-     * Analyze image using Ollama with custom prompt and model
+     * Analyze image using Ollama with custom prompt and model, blocking until the analysis completes
      */
     public AiAnalysisResponse analyzeImage(MultipartFile file, String prompt, String model) throws OcrException {
+        try {
+            return analyzeImageReactive(file, prompt, model).block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof OcrException ocrException) {
+                throw ocrException;
+            }
+            throw new OcrException("AI analysis failed: " + cause.getMessage(), cause);
+        }
+    }
+    
+    /**
+     * Analyze image using Ollama with default prompt without blocking the calling thread
+     */
+    public Mono<AiAnalysisResponse> analyzeImageReactive(MultipartFile file) {
+        return analyzeImageReactive(file, DEFAULT_PROMPT, DEFAULT_MODEL);
+    }
+    
+    /**
+     * Analyze image using Ollama without blocking the calling thread. The upload is read and
+     * encoded on the bounded blocking scheduler; the HTTP call itself holds no thread while waiting.
+     * A repeated analysis of the same image, prompt and model is answered from the analysis cache,
+     * and callers asking for one that is already running share its result. The shared call works
+     * on its own copy of the image, so it outlives the client that started it.
+     */
+    public Mono<AiAnalysisResponse> analyzeImageReactive(MultipartFile file, String prompt, String model) {
         long startTime = System.currentTimeMillis();
+        String client = ModelConcurrencyLimiter.currentClient();
+        if (!analysisCache.isEnabled() && !analysisFlights.isEnabled()) {
+            return generateAnalysis(file, prompt, model, startTime, client);
+        }
         
-        try {
-            // Validate file
-            validateImageFile(file);
-            
-            // Convert image to base64
-            String base64Image = encodeImageToBase64(file);
-            
-            // Create Ollama request
-            OllamaRequest request = new OllamaRequest(model, prompt, Collections.singletonList(base64Image));
-            
-            // Call Ollama API
-            OllamaResponse ollamaResponse = callOllamaApi(request);
-            
+        return analysisKey(file, prompt, model)
+            .onErrorMap(e -> toAnalysisException(file, e))
+            .flatMap(key -> {
+                AiAnalysisResponse cached = analysisCache.get(key);
+                if (cached != null) {
+                    logger.info("AI analysis for file: {} served from cache", file.getOriginalFilename());
+                    AiAnalysisResponse response = copyFor(cached, file, startTime);
+                    response.setCached(true);
+                    return Mono.just(response);
+                }
+                return analysisFlights.execute(key, () -> Mono.using(
+                            () -> prepare(file, prompt, model, false, client, analysisFlights.isEnabled()),
+                            prepared -> analyze(prepared, file, prompt, model, startTime),
+                            PreparedRequest::release)
+                        .onErrorMap(e -> toAnalysisException(file, e))
+                        .doOnNext(response -> analysisCache.put(key, response)))
+                    .map(response -> copyFor(response, file, startTime));
+            });
+    }
+    
+    private Mono<AiAnalysisResponse> generateAnalysis(MultipartFile file, String prompt, String model, 
+                                                      long startTime, String client) {
+        return prepareRequest(file, prompt, model, false, client)
+            .flatMap(prepared -> analyze(prepared, file, prompt, model, startTime))
+            .onErrorMap(e -> toAnalysisException(file, e));
+    }
+    
+    private Mono<AiAnalysisResponse> analyze(PreparedRequest prepared, MultipartFile file, String prompt, String model,
+                                             long startTime) {
+        return callOllamaApi(prepared).map(ollamaResponse -> {
             // Calculate processing time
             long processingTime = System.currentTimeMillis() - startTime;
             
@@ -88,31 +178,206 @@ public class OllamaService {
             );
             response.setPrompt(prompt);
             response.setProcessingTimeMs(processingTime);
-            
-            // Add Ollama stats
-            if (ollamaResponse.getTotalDuration() != null) {
-                AiAnalysisResponse.OllamaStats stats = new AiAnalysisResponse.OllamaStats();
-                stats.setTotalDurationMs(ollamaResponse.getTotalDuration() / 1_000_000); // Convert nanoseconds to milliseconds
-                stats.setLoadDurationMs(ollamaResponse.getLoadDuration() != null ? 
-                    ollamaResponse.getLoadDuration() / 1_000_000 : null);
-                stats.setEvalCount(ollamaResponse.getEvalCount());
-                stats.setEvalDurationMs(ollamaResponse.getEvalDuration() != null ? 
-                    ollamaResponse.getEvalDuration() / 1_000_000 : null);
-                response.setOllamaStats(stats);
-            }
+            response.setOriginalBytes(prepared.image().originalBytes());
+            response.setSentBytes(prepared.image().sentBytes());
+            response.setOllamaStats(toStats(ollamaResponse));
+            warmupManager.recordLoadDuration(model, ollamaResponse.getLoadDuration());
             
             logger.info("AI analysis completed successfully for file: {} in {}ms using model: {}", 
                        file.getOriginalFilename(), processingTime, model);
             
             return response;
-            
-        } catch (IOException e) {
+        });
+    }
+    
+    /**
+     * Copy of a shared or cached analysis for this upload; ollama_stats still describe the original generation
+     */
+    private AiAnalysisResponse copyFor(AiAnalysisResponse source, MultipartFile file, long startTime) {
+        AiAnalysisResponse response = new AiAnalysisResponse(
+            source.getAnalysis(), source.getModel(), file.getOriginalFilename(), file.getSize());
+        response.setPrompt(source.getPrompt());
+        response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        response.setOriginalBytes(source.getOriginalBytes());
+        response.setSentBytes(source.getSentBytes());
+        response.setOllamaStats(source.getOllamaStats());
+        return response;
+    }
+    
+    /**
+     * Identity of an analysis: image hash, prompt, model and options, computed on the blocking scheduler
+     */
+    private Mono<AiAnalysisCache.Key> analysisKey(MultipartFile file, String prompt, String model) {
+        return Mono.fromCallable(() -> {
+                validateImageFile(file);
+                return AiAnalysisCache.Key.of(ContentHash.sha256(file), prompt, model, null);
+            })
+            .subscribeOn(blockingScheduler);
+    }
+    
+    /**
+     * Get the configured size limit for images sent to AI analysis, in megabytes
+     */
+    public long getMaxFileSizeMb() {
+        return maxFileSize.toMegabytes();
+    }
+    
+    /**
+     * Coalescing counters for buffered and streaming analyses
+     */
+    public Map<String, Object> getCoalescingStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("analyze", analysisFlights.getStats());
+        stats.put("analyze_stream", streamFlights.getStats());
+        return stats;
+    }
+    
+    /**
+     * Snapshot of analysis cache statistics
+     */
+    public Map<String, Object> getCacheStats() {
+        return analysisCache.getStats();
+    }
+    
+    /**
+     * Drop cached analyses of one image, returning how many were removed
+     */
+    public int invalidateCachedImage(String imageSha256) {
+        return analysisCache.invalidateImage(imageSha256);
+    }
+    
+    /**
+     * Drop cached analyses produced by one model, returning how many were removed
+     */
+    public int invalidateCachedModel(String model) {
+        return analysisCache.invalidateModel(model);
+    }
+    
+    public void clearCache() {
+        analysisCache.clear();
+    }
+    
+    /**
+     * Stream the analysis as Ollama generates it. Each element is one chunk of the model's
+     * output; the last one has done=true and carries the timing stats. A caller asking for an
+     * analysis that is already streaming joins it and receives every chunk from the start.
+     */
+    public Flux<OllamaResponse> analyzeImageStream(MultipartFile file, String prompt, String model) {
+        String client = ModelConcurrencyLimiter.currentClient();
+        Flux<OllamaResponse> chunks = streamFlights.isEnabled()
+            ? analysisKey(file, prompt, model)
+                .flatMapMany(key -> streamFlights.executeMany(key, () -> Flux.using(
+                    () -> prepare(file, prompt, model, true, client, true),
+                    prepared -> streamPrepared(prepared, model, client),
+                    PreparedRequest::release)))
+            : prepareRequest(file, prompt, model, true, client)
+                .flatMapMany(prepared -> streamPrepared(prepared, model, client));
+        return chunks
+            .doOnComplete(() -> logger.info("Streaming AI analysis completed for file: {} using model: {}", 
+                                            file.getOriginalFilename(), model))
+            .onErrorMap(e -> toAnalysisException(file, e));
+    }
+    
+    private Flux<OllamaResponse> streamPrepared(PreparedRequest prepared, String model, String client) {
+        return concurrencyLimiter.admitMany(model, client, 
+                () -> router.routeMany(model, backend -> backend.webClient().post()
+                    .uri("/api/generate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(requestBody(prepared)))
+                    .retrieve()
+                    .bodyToFlux(OllamaResponse.class)
+                    // Bound the gap between chunks rather than the whole generation
+                    .timeout(TIMEOUT)))
+            .doOnNext(chunk -> {
+                if (chunk.isDone()) {
+                    warmupManager.recordLoadDuration(model, chunk.getLoadDuration());
+                }
+            });
+    }
+    
+    /**
+     * A request ready to send, with the size of the image before and after re-encoding, the calling client
+     * and the temp copy of the upload it owns, if any
+     */
+    private record PreparedRequest(OllamaRequest request, VisionImageEncoder.EncodedImage image, String client,
+                                   FileBackedMultipartFile ownedCopy) {
+        
+        void release() {
+            if (ownedCopy != null) {
+                ownedCopy.close();
+            }
+        }
+    }
+    
+    /**
+     * Validate, downscale and encode the upload on the blocking scheduler
+     */
+    private Mono<PreparedRequest> prepareRequest(MultipartFile file, String prompt, String model, boolean stream, 
+                                                 String client) {
+        return Mono.fromCallable(() -> prepare(file, prompt, model, stream, client, false))
+            .subscribeOn(blockingScheduler);
+    }
+    
+    /**
+     * Validate and encode the upload. A coalesced call must own its input: the multipart temp file of the
+     * client that started it is deleted as soon as that client goes away, while callers that joined may
+     * still be waiting for admission. With ownInput an image sent unchanged is copied to a temp file that
+     * the caller releases when the call ends.
+     */
+    private PreparedRequest prepare(MultipartFile file, String prompt, String model, boolean stream, String client,
+                                    boolean ownInput) throws OcrException, IOException {
+        // Validate file
+        validateImageFile(file);
+        
+        // Shrink to the model's input resolution; base64 encoding happens while the body is written
+        VisionImageEncoder.EncodedImage image = imageEncoder.encode(file);
+        FileBackedMultipartFile ownedCopy = null;
+        if (ownInput && !image.reencoded()) {
+            ownedCopy = uploadSpooler.copyToDisk(file);
+            image = new VisionImageEncoder.EncodedImage(ownedCopy, null, image.originalBytes(), image.sentBytes());
+        }
+        OllamaRequest request = new OllamaRequest(model, prompt, null);
+        request.setStream(stream);
+        request.setKeepAlive(warmupManager.keepAliveFor(model));
+        return new PreparedRequest(request, image, client, ownedCopy);
+    }
+    
+    private OcrException toAnalysisException(MultipartFile file, Throwable e) {
+        if (e instanceof QueueFullException queueFull) {
+            // Overload, not a failure of this upload; let the caller retry
+            return queueFull;
+        }
+        if (e instanceof IOException) {
             logger.error("IO error while processing file: {}", file.getOriginalFilename(), e);
-            throw new OcrException("Error reading image file: " + e.getMessage(), e);
-        } catch (Exception e) {
-            logger.error("AI analysis failed for file: {}", file.getOriginalFilename(), e);
-            throw new OcrException("AI analysis failed: " + e.getMessage(), e);
+            return new OcrException("Error reading image file: " + e.getMessage(), e);
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            logger.error("Ollama API error: {} - {}", responseException.getStatusCode(), 
+                        responseException.getResponseBodyAsString());
+            e = new OcrException("Ollama API error: " + e.getMessage());
         }
+        logger.error("AI analysis failed for file: {}", file.getOriginalFilename(), e);
+        return new OcrException("AI analysis failed: " + e.getMessage(), e);
+    }
+    
+    /**
+     * Convert Ollama timing fields (nanoseconds) into response stats, or null if Ollama sent none
+     */
+    public static AiAnalysisResponse.OllamaStats toStats(OllamaResponse ollamaResponse) {
+        if (ollamaResponse.getTotalDuration() == null) {
+            return null;
+        }
+        AiAnalysisResponse.OllamaStats stats = new AiAnalysisResponse.OllamaStats();
+        stats.setTotalDurationMs(ollamaResponse.getTotalDuration() / 1_000_000); // Convert nanoseconds to milliseconds
+        stats.setLoadDurationMs(ollamaResponse.getLoadDuration() != null ? 
+            ollamaResponse.getLoadDuration() / 1_000_000 : null);
+        stats.setPromptEvalCount(ollamaResponse.getPromptEvalCount());
+        stats.setPromptEvalDurationMs(ollamaResponse.getPromptEvalDuration() != null ? 
+            ollamaResponse.getPromptEvalDuration() / 1_000_000 : null);
+        stats.setEvalCount(ollamaResponse.getEvalCount());
+        stats.setEvalDurationMs(ollamaResponse.getEvalDuration() != null ? 
+            ollamaResponse.getEvalDuration() / 1_000_000 : null);
+        return stats;
     }
     
     /**
@@ -120,11 +385,11 @@ public class OllamaService {
      */
     public boolean isOllamaAvailable() {
         try {
-            webClient.get()
-                .uri(ollamaBaseUrl + "/api/tags")
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(5))
+            router.route(null, backend -> backend.webClient().get()
+                    .uri("/api/tags")
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(Duration.ofSeconds(5)))
                 .block();
             return true;
         } catch (Exception e) {
@@ -134,47 +399,40 @@ public class OllamaService {
     }
     
     /**
-     * Get list of available models
+     * Get installed vision models, served from the model registry
      */
     public List<String> getAvailableModels() {
-        try {
-            // This is a simplified implementation
-            // In a real scenario, you'd parse the /api/tags response
-            return List.of(DEFAULT_MODEL, "llava:7b", "llava:13b");
-        } catch (Exception e) {
-            logger.error("Failed to get available models", e);
-            return Collections.emptyList();
-        }
+        return modelRegistry.getVisionModelNames();
     }
     
     /**
      * Call Ollama API
      */
-    private OllamaResponse callOllamaApi(OllamaRequest request) throws OcrException {
-        try {
-            return webClient.post()
-                .uri(ollamaBaseUrl + "/api/generate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(OllamaResponse.class)
-                .timeout(TIMEOUT)
-                .block();
-        } catch (WebClientResponseException e) {
-            logger.error("Ollama API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new OcrException("Ollama API error: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to call Ollama API", e);
-            throw new OcrException("Failed to communicate with AI service: " + e.getMessage());
-        }
+    private Mono<OllamaResponse> callOllamaApi(PreparedRequest prepared) {
+        String model = prepared.request().getModel();
+        return concurrencyLimiter.admit(model, prepared.client(), 
+                () -> router.route(model, backend -> backend.webClient().post()
+                    .uri("/api/generate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(requestBody(prepared)))
+                    .retrieve()
+                    .bodyToMono(OllamaResponse.class)
+                    .timeout(TIMEOUT)))
+            .onErrorMap(WebClientResponseException.class, e -> {
+                logger.error("Ollama API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+                return new OcrException("Ollama API error: " + e.getMessage());
+            })
+            .onErrorMap(e -> !(e instanceof OcrException), e -> {
+                logger.error("Failed to call Ollama API", e);
+                return new OcrException("Failed to communicate with AI service: " + e.getMessage());
+            });
     }
     
     /**
-     * Encode image to base64
+     * JSON body with the image base64-encoded as it is written to the connection
      */
-    private String encodeImageToBase64(MultipartFile file) throws IOException {
-        byte[] imageBytes = file.getBytes();
-        return Base64.encodeBase64String(imageBytes);
+    private Flux<DataBuffer> requestBody(PreparedRequest prepared) {
+        return StreamingImageRequestBody.of(objectMapper, prepared.request(), prepared.image(), blockingScheduler);
     }
     
     /**
@@ -185,8 +443,8 @@ public class OllamaService {
             throw new OcrException("No file uploaded or file is empty");
         }
         
-        if (file.getSize() > 50 * 1024 * 1024) { // 50MB limit for AI analysis
-            throw new OcrException("File size exceeds maximum limit of 50MB for AI analysis");
+        if (file.getSize() > maxFileSize.toBytes()) {
+            throw new OcrException("File size exceeds maximum limit of " + maxFileSize.toMegabytes() + "MB for AI analysis");
         }
         
         String contentType = file.getContentType();
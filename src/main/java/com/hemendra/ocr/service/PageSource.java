@@ -0,0 +1,205 @@
+package com.hemendra.ocr.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * A document whose pages are decoded one at a time on demand.
+ *
+ * Implementations are not thread-safe; pages must be read from a single thread.
+ */
+public interface PageSource extends AutoCloseable {
+
+    int getPageCount() throws IOException;
+
+    BufferedImage readPage(int pageIndex) throws IOException;
+
+    /**
+     * Resolution of the page in dots per inch, or 0 if the document does not say
+     */
+    int getDpi(int pageIndex) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Open a PDF document, rendering pages at the given DPI
+     */
+    static PageSource pdf(InputStream input, float dpi) throws IOException {
+        return new PdfPageSource(Loader.loadPDF(new RandomAccessReadBuffer(input)), dpi);
+    }
+
+    /**
+     * Open a PDF file, reading it through a buffered file channel instead of loading it into memory
+     */
+    static PageSource pdf(File file, float dpi) throws IOException {
+        return new PdfPageSource(Loader.loadPDF(file), dpi);
+    }
+
+    /**
+     * Open any ImageIO-readable image; multi-frame formats such as TIFF yield one page per frame.
+     * Returns null if no installed reader understands the format.
+     */
+    static PageSource image(InputStream input) throws IOException {
+        return image(ImageIO.createImageInputStream(input));
+    }
+
+    /**
+     * Open an image file; the reader seeks within the file rather than caching the stream
+     */
+    static PageSource image(File file) throws IOException {
+        return image(ImageIO.createImageInputStream(file));
+    }
+
+    /**
+     * Wrap a page source so that another resource, such as a spooled temp file, is released with it
+     */
+    static PageSource closing(PageSource pages, AutoCloseable resource) {
+        return new PageSource() {
+            @Override
+            public int getPageCount() throws IOException {
+                return pages.getPageCount();
+            }
+
+            @Override
+            public BufferedImage readPage(int pageIndex) throws IOException {
+                return pages.readPage(pageIndex);
+            }
+
+            @Override
+            public int getDpi(int pageIndex) throws IOException {
+                return pages.getDpi(pageIndex);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    pages.close();
+                } finally {
+                    try {
+                        resource.close();
+                    } catch (Exception e) {
+                        throw new IOException("Failed to release resource: " + e.getMessage(), e);
+                    }
+                }
+            }
+        };
+    }
+
+    private static PageSource image(ImageInputStream imageStream) throws IOException {
+        if (imageStream == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+        if (!readers.hasNext()) {
+            imageStream.close();
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(imageStream, false, true);
+        return new ImageReaderPageSource(reader, imageStream);
+    }
+
+    /**
+     * Pages backed by an ImageIO reader
+     */
+    final class ImageReaderPageSource implements PageSource {
+
+        private final ImageReader reader;
+        private final ImageInputStream stream;
+
+        private ImageReaderPageSource(ImageReader reader, ImageInputStream stream) {
+            this.reader = reader;
+            this.stream = stream;
+        }
+
+        @Override
+        public int getPageCount() throws IOException {
+            return reader.getNumImages(true);
+        }
+
+        @Override
+        public BufferedImage readPage(int pageIndex) throws IOException {
+            return reader.read(pageIndex);
+        }
+
+        @Override
+        public int getDpi(int pageIndex) throws IOException {
+            IIOMetadata metadata = reader.getImageMetadata(pageIndex);
+            if (metadata == null || !metadata.isStandardMetadataFormatSupported()) {
+                return 0;
+            }
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(IIOMetadataFormatImpl.standardMetadataFormatName);
+            NodeList pixelSizes = root.getElementsByTagName("HorizontalPixelSize");
+            if (pixelSizes.getLength() == 0) {
+                return 0;
+            }
+            try {
+                // Standard metadata expresses resolution as millimetres per pixel
+                float millimetresPerPixel = Float.parseFloat(
+                    ((IIOMetadataNode) pixelSizes.item(0)).getAttribute("value"));
+                return millimetresPerPixel > 0 ? Math.round(25.4f / millimetresPerPixel) : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.dispose();
+            stream.close();
+        }
+    }
+
+    /**
+     * Pages of a PDF document rendered with PDFBox
+     */
+    final class PdfPageSource implements PageSource {
+
+        private final PDDocument document;
+        private final PDFRenderer renderer;
+        private final float dpi;
+
+        private PdfPageSource(PDDocument document, float dpi) {
+            this.document = document;
+            this.renderer = new PDFRenderer(document);
+            this.dpi = dpi;
+        }
+
+        @Override
+        public int getPageCount() {
+            return document.getNumberOfPages();
+        }
+
+        @Override
+        public BufferedImage readPage(int pageIndex) throws IOException {
+            return renderer.renderImageWithDPI(pageIndex, dpi, ImageType.GRAY);
+        }
+
+        @Override
+        public int getDpi(int pageIndex) {
+            return Math.round(dpi);
+        }
+
+        @Override
+        public void close() throws IOException {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hemendra.ocr.service;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical in-flight calls. While a call for a key is running, later callers
+ * with the same key subscribe to it instead of starting their own; a caller that joins a
+ * stream part-way still receives every element from the start. The upstream call is
+ * cancelled only once all of its subscribers have cancelled.
+ */
+public class SingleFlight<K, V> {
+
+    private final boolean enabled;
+    private final Map<K, Flux<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run a single-valued call, or join the identical one already in flight
+     */
+    public Mono<V> execute(K key, Supplier<? extends Mono<V>> call) {
+        return executeMany(key, call).singleOrEmpty();
+    }
+
+    /**
+     * Run a streaming call, or join the identical one already in flight
+     */
+    public Flux<V> executeMany(K key, Supplier<? extends Publisher<V>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        return Flux.defer(() -> {
+            requests.incrementAndGet();
+            AtomicBoolean started = new AtomicBoolean();
+            Flux<V> flight = inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                return newFlight(k, call);
+            });
+            if (!started.get()) {
+                coalesced.incrementAndGet();
+            }
+            return flight;
+        });
+    }
+
+    private Flux<V> newFlight(K key, Supplier<? extends Publisher<V>> call) {
+        AtomicReference<Flux<V>> self = new AtomicReference<>();
+        Runnable leave = () -> inFlight.remove(key, self.get());
+        // Leave the map before the terminal signal is delivered, so nobody joins a finished call.
+        // Replay from the start so late joiners see the whole result; refCount cancels once nobody listens.
+        Flux<V> flight = Flux.<V>defer(call)
+            .doOnTerminate(leave)
+            .doOnCancel(leave)
+            .replay()
+            .refCount();
+        self.set(flight);
+        return flight;
+    }
+
+    /**
+     * Snapshot of how many calls were issued and how many joined an existing one
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("requests", requests.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("in_flight", inFlight.size());
+        return stats;
+    }
+}
@@ -0,0 +1,99 @@
+package com.hemendra.ocr.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Writes an Ollama JSON request whose image is base64-encoded chunk by chunk straight into
+ * outgoing buffers.
+ *
+ * The request is serialized without its images and the image array is spliced in before the
+ * closing brace, so neither the raw image, its base64 string nor the full JSON body is ever
+ * held in memory. Chunks are produced on demand, keeping peak heap per request constant.
+ */
+final class StreamingImageRequestBody {
+
+    // A multiple of 3 so every chunk except the last encodes without padding
+    static final int CHUNK_SIZE = 3 * 16 * 1024;
+
+    private static final DataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+    private StreamingImageRequestBody() {
+    }
+
+    /**
+     * Body for the given request (its images are ignored) carrying a single streamed image.
+     * The image is read on the given scheduler.
+     */
+    static Flux<DataBuffer> of(ObjectMapper objectMapper, Object request, 
+                               VisionImageEncoder.EncodedImage image, Scheduler scheduler) {
+        String[] envelope = envelope(objectMapper, request);
+        return Flux.concat(
+            Flux.just(envelope[0]).map(StreamingImageRequestBody::utf8),
+            base64Chunks(image).subscribeOn(scheduler),
+            Flux.just(envelope[1]).map(StreamingImageRequestBody::utf8));
+    }
+
+    /**
+     * JSON before and after the image: {...,"images":[" and "]}
+     */
+    private static String[] envelope(ObjectMapper objectMapper, Object request) {
+        ObjectNode json = objectMapper.valueToTree(request);
+        json.remove("images");
+        try {
+            String serialized = objectMapper.writeValueAsString(json);
+            String head = serialized.substring(0, serialized.length() - 1) + (json.isEmpty() ? "" : ",");
+            return new String[] { head + "\"images\":[\"", "\"]}" };
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize Ollama request: " + e.getMessage(), e);
+        }
+    }
+
+    private static Flux<DataBuffer> base64Chunks(VisionImageEncoder.EncodedImage image) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return Flux.using(
+            image::openStream,
+            input -> Flux.<DataBuffer>generate(sink -> {
+                try {
+                    byte[] chunk = readChunk(input);
+                    if (chunk.length == 0) {
+                        sink.complete();
+                    } else {
+                        sink.next(BUFFERS.wrap(encoder.encode(chunk)));
+                    }
+                } catch (IOException e) {
+                    sink.error(new UncheckedIOException(e));
+                }
+            }),
+            input -> {
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                    // Nothing useful to do if closing the upload fails
+                }
+            });
+    }
+
+    /**
+     * Read a full chunk unless the stream ends first, so padding only appears at the very end
+     */
+    private static byte[] readChunk(InputStream input) throws IOException {
+        return input.readNBytes(CHUNK_SIZE);
+    }
+
+    private static DataBuffer utf8(String text) {
+        return BUFFERS.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,317 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.exception.OcrException;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.ITesseract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded pool of Tesseract engines keyed by language.
+ *
+ * A global semaphore caps the number of engines in use at once (one per core by default).
+ * Idle engines are kept per language so a borrowed engine never needs its language switched,
+ * which means concurrent requests can no longer see each other's settings. Engines keep their
+ * language data loaded between borrows; at most the pool size of them are kept idle, and the
+ * ones dropped beyond that are closed. Only languages with installed traineddata are accepted.
+ */
+@Component
+public class TesseractPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractPool.class);
+
+    // A single traineddata name, e.g. "eng" or "chi_sim"; no path separators
+    private static final Pattern LANGUAGE_CODE = Pattern.compile("[A-Za-z0-9_]{1,32}");
+
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final Function<String, ITesseract> engineFactory;
+    private final String tessDataPath;
+
+    private final Semaphore permits;
+    private final Map<String, BlockingDeque<ITesseract>> idleEngines = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger evicted = new AtomicInteger();
+    private final AtomicLong rejectedLanguages = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+
+    @Autowired
+    public TesseractPool(@Value("${ocr.pool.size:0}") int size,
+                         @Value("${ocr.pool.borrow-timeout-ms:30000}") long borrowTimeoutMs) {
+        // Auto-detect tessdata path based on environment
+        this(size, borrowTimeoutMs, detectTessDataPath(), null);
+    }
+
+    TesseractPool(int size, long borrowTimeoutMs, String tessDataPath, Function<String, ITesseract> engineFactory) {
+        this.maxSize = size > 0 ? size : Runtime.getRuntime().availableProcessors();
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.engineFactory = engineFactory != null ? engineFactory : this::createEngine;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.tessDataPath = tessDataPath;
+        if (tessDataPath != null) {
+            logger.info("Using tessdata path: {}", tessDataPath);
+        } else {
+            logger.warn("Could not detect tessdata path, using default");
+        }
+        logger.info("Tesseract pool initialised with {} engines", maxSize);
+    }
+
+    /**
+     * Borrow an engine configured for the given language, waiting up to the borrow timeout
+     */
+    public Lease borrow(String language) throws OcrException {
+        BlockingDeque<ITesseract> idle = idleQueue(language);
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new OcrException("OCR engines are busy, please retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrException("Interrupted while waiting for an OCR engine", e);
+        }
+
+        long waited = System.nanoTime() - waitStart;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        borrowCount.incrementAndGet();
+        inUse.incrementAndGet();
+
+        try {
+            ITesseract engine = idle.pollFirst();
+            if (engine == null) {
+                trimIdle(language);
+                engine = engineFactory.apply(language);
+                created.incrementAndGet();
+            }
+            return new Lease(language, engine);
+        } catch (RuntimeException e) {
+            inUse.decrementAndGet();
+            permits.release();
+            throw new OcrException("Failed to create OCR engine for language: " + language, e);
+        }
+    }
+
+    private void giveBack(Lease lease) {
+        busyNanos.addAndGet(System.nanoTime() - lease.borrowedAt);
+        BlockingDeque<ITesseract> idle = idleEngines.get(lease.language);
+        if (!idle.offerFirst(lease.engine)) {
+            evict(lease.engine);
+        } else if (closed && idle.remove(lease.engine)) {
+            // Returned after shutdown() drained the pool
+            close(lease.engine);
+        }
+        inUse.decrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * Idle engines for a language, refusing languages without installed traineddata so
+     * client-supplied strings cannot create pools
+     */
+    private BlockingDeque<ITesseract> idleQueue(String language) throws OcrException {
+        BlockingDeque<ITesseract> idle = idleEngines.get(language);
+        if (idle != null) {
+            return idle;
+        }
+        if (!isInstalled(language)) {
+            rejectedLanguages.incrementAndGet();
+            throw new OcrException("Unsupported OCR language: " + language);
+        }
+        return idleEngines.computeIfAbsent(language, k -> new LinkedBlockingDeque<>(maxSize));
+    }
+
+    /**
+     * True if every part of a language spec such as "eng+deu" is a language code with a
+     * traineddata file. Without a detected tessdata path Tesseract falls back to its own
+     * default location, which cannot be listed, so only the codes are checked.
+     */
+    boolean isInstalled(String language) {
+        if (language == null || language.isEmpty()) {
+            return false;
+        }
+        for (String part : language.split("\\+", -1)) {
+            if (!LANGUAGE_CODE.matcher(part).matches()) {
+                return false;
+            }
+            if (tessDataPath != null && !Files.isRegularFile(Paths.get(tessDataPath, part + ".traineddata"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keep at most maxSize engines idle across all languages, closing the least recently
+     * used ones of other languages to make room for a new engine
+     */
+    private void trimIdle(String language) {
+        while (idleEngines.values().stream().mapToInt(BlockingDeque::size).sum() >= maxSize) {
+            ITesseract victim = null;
+            for (Map.Entry<String, BlockingDeque<ITesseract>> entry : idleEngines.entrySet()) {
+                if (!entry.getKey().equals(language) && (victim = entry.getValue().pollLast()) != null) {
+                    break;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            evict(victim);
+        }
+    }
+
+    private void evict(ITesseract engine) {
+        evicted.incrementAndGet();
+        close(engine);
+    }
+
+    private static void close(ITesseract engine) {
+        if (engine instanceof ConfidenceTesseract confidenceEngine) {
+            confidenceEngine.close();
+        }
+    }
+
+    /**
+     * Release the native handles of all idle engines; engines in use are released when returned
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        idleEngines.values().forEach(queue -> {
+            ITesseract engine;
+            while ((engine = queue.pollFirst()) != null) {
+                close(engine);
+            }
+        });
+    }
+
+    private ITesseract createEngine(String language) {
+        ConfidenceTesseract engine = new ConfidenceTesseract();
+        if (tessDataPath != null) {
+            engine.setDatapath(tessDataPath);
+        }
+        engine.setLanguage(language);
+        // Load the language data now, once for the life of the engine
+        engine.open();
+        logger.debug("Created Tesseract engine for language: {}", language);
+        return engine;
+    }
+
+    /**
+     * Auto-detect tessdata path based on the environment
+     */
+    private static String detectTessDataPath() {
+        // Common tessdata paths to check
+        String[] possiblePaths = {
+            "/usr/share/tesseract-ocr/4.00/tessdata",  // Ubuntu/Debian Docker
+            "/usr/share/tesseract-ocr/tessdata",       // Alternative Ubuntu/Debian
+            "/usr/share/tessdata",                     // Some Linux distributions
+            "/opt/homebrew/share/tessdata",            // macOS Homebrew
+            "/usr/local/share/tessdata",               // macOS alternative
+            "C:\\Program Files\\Tesseract-OCR\\tessdata" // Windows
+        };
+
+        for (String path : possiblePaths) {
+            java.io.File tessDataDir = new java.io.File(path);
+            if (tessDataDir.exists() && tessDataDir.isDirectory()) {
+                return path;
+            }
+        }
+
+        // Check environment variable
+        String envPath = System.getenv("TESSDATA_PREFIX");
+        if (envPath != null) {
+            java.io.File tessDataDir = new java.io.File(envPath);
+            if (tessDataDir.exists() && tessDataDir.isDirectory()) {
+                return envPath;
+            }
+        }
+
+        return null;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Snapshot of pool wait time and utilization
+     */
+    public Map<String, Object> getStats() {
+        long borrows = borrowCount.get();
+        long elapsed = Math.max(1, System.nanoTime() - startNanos);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("max_size", maxSize);
+        stats.put("in_use", inUse.get());
+        stats.put("engines_created", created.get());
+        stats.put("engines_evicted", evicted.get());
+        stats.put("rejected_languages", rejectedLanguages.get());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("borrow_count", borrows);
+        stats.put("borrow_timeouts", timeoutCount.get());
+        stats.put("avg_wait_ms", borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows);
+        stats.put("max_wait_ms", maxWaitNanos.get() / 1_000_000.0);
+        stats.put("utilization", Math.min(1.0, (double) busyNanos.get() / ((double) elapsed * maxSize)));
+
+        Map<String, Integer> idle = new HashMap<>();
+        idleEngines.forEach((language, queue) -> idle.put(language, queue.size()));
+        stats.put("idle_by_language", idle);
+        return stats;
+    }
+
+    /**
+     * A borrowed engine; closing it returns the engine to the pool
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final String language;
+        private final ITesseract engine;
+        private final long borrowedAt = System.nanoTime();
+        private boolean returned;
+
+        private Lease(String language, ITesseract engine) {
+            this.language = language;
+            this.engine = engine;
+        }
+
+        public ITesseract engine() {
+            return engine;
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                giveBack(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.hemendra.ocr.service;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spools large uploads to temporary files.
+ *
+ * Spooled files are hashed through memory-mapped buffers and decoded through file-backed
+ * image streams, so a large scan is never held on the heap as a byte array. Uploads at or
+ * below the threshold are used as they are.
+ */
+@Component
+public class UploadSpooler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSpooler.class);
+
+    private final long thresholdBytes;
+    private final Path spoolDir;
+
+    private final AtomicLong spooledFiles = new AtomicLong();
+    private final AtomicLong spooledBytes = new AtomicLong();
+
+    public UploadSpooler(@Value("${upload.spool.threshold:1MB}") DataSize threshold,
+                         @Value("${upload.spool.dir:}") String spoolDir) {
+        this.thresholdBytes = threshold.toBytes();
+        this.spoolDir = spoolDir != null && !spoolDir.isBlank() ? Paths.get(spoolDir) : null;
+
+        if (this.spoolDir != null) {
+            try {
+                Files.createDirectories(this.spoolDir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to create upload spool directory: " + spoolDir, e);
+            }
+        }
+    }
+
+    /**
+     * Spooler that never spools, keeping every upload where it is
+     */
+    public static UploadSpooler disabled() {
+        return new UploadSpooler(DataSize.ofBytes(Long.MAX_VALUE), null);
+    }
+
+    /**
+     * Spool the upload to disk if it is larger than the threshold. Closing the result
+     * deletes the temp file. A spooled upload is moved, so only its metadata may be read afterwards.
+     */
+    public Spooled spool(MultipartFile file) throws IOException {
+        if (file instanceof FileBackedMultipartFile || file.getSize() <= thresholdBytes) {
+            return new Spooled(file, null);
+        }
+        FileBackedMultipartFile copy = copyToDisk(file);
+        return new Spooled(copy, copy);
+    }
+
+    /**
+     * Move an upload to a temp file regardless of its size, e.g. so it outlives the request.
+     * A multipart part already written to disk by the container is renamed rather than copied,
+     * so its content must not be read through the original upload afterwards. The caller owns
+     * the returned file and must close it.
+     */
+    public FileBackedMultipartFile copyToDisk(MultipartFile file) throws IOException {
+        Path temp = createTempFile(file.getOriginalFilename());
+        try {
+            // transferTo(File) goes through Part.write, which renames the container's temp file
+            file.transferTo(temp.toFile());
+            return spooled(file.getName(), file.getOriginalFilename(), file.getContentType(), temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Write a stream, such as an archive entry, to a temp file. Writing stops one byte past
+     * maxBytes, so the caller can reject oversized content by its size without inflating all
+     * of it. The caller owns the returned file and must close it.
+     */
+    public FileBackedMultipartFile spoolStream(InputStream input, String originalFilename, long maxBytes)
+            throws IOException {
+        Path temp = createTempFile(originalFilename);
+        try {
+            Files.copy(new BoundedInputStream(input, maxBytes + 1), temp, StandardCopyOption.REPLACE_EXISTING);
+            return spooled("file", originalFilename, null, temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private Path createTempFile(String originalFilename) throws IOException {
+        String extension = FilenameUtils.getExtension(originalFilename);
+        String suffix = extension == null || extension.isEmpty() ? ".upload" : "." + extension;
+        return spoolDir != null
+            ? Files.createTempFile(spoolDir, "upload-", suffix)
+            : Files.createTempFile("upload-", suffix);
+    }
+
+    private FileBackedMultipartFile spooled(String name, String originalFilename, String contentType, Path temp)
+            throws IOException {
+        FileBackedMultipartFile copy = new FileBackedMultipartFile(name, originalFilename, contentType, temp);
+        spooledFiles.incrementAndGet();
+        spooledBytes.addAndGet(copy.getSize());
+        logger.debug("Spooled upload {} ({} bytes) to {}", originalFilename, copy.getSize(), temp);
+        return copy;
+    }
+
+    /**
+     * Snapshot of spooling statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threshold_bytes", thresholdBytes);
+        stats.put("spooled_files", spooledFiles.get());
+        stats.put("spooled_bytes", spooledBytes.get());
+        return stats;
+    }
+
+    /**
+     * An upload that may have been spooled; closing it deletes any temp file that was created
+     */
+    public static final class Spooled implements AutoCloseable {
+
+        private final MultipartFile file;
+        private final FileBackedMultipartFile owned;
+
+        private Spooled(MultipartFile file, FileBackedMultipartFile owned) {
+            this.file = file;
+            this.owned = owned;
+        }
+
+        public MultipartFile file() {
+            return file;
+        }
+
+        @Override
+        public void close() {
+            if (owned != null) {
+                owned.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.service.preprocess.DownscaleStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Prepares images for the vision model.
+ *
+ * Vision models resize their input to a small grid anyway, so large uploads are decoded,
+ * downscaled to the model's effective resolution and re-encoded as compact JPEG (photos)
+ * or PNG (grayscale scans). Images that are already small enough are sent as they are.
+ */
+@Component
+public class VisionImageEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisionImageEncoder.class);
+
+    private static final Set<String> PASSTHROUGH_FORMATS = Set.of("jpeg", "png");
+
+    private final boolean enabled;
+    private final int maxDimension;
+    private final long passthroughBytes;
+    private final float jpegQuality;
+
+    public VisionImageEncoder(@Value("${ollama.vision.resize.enabled:true}") boolean enabled,
+                              @Value("${ollama.vision.resize.max-dimension:1344}") int maxDimension,
+                              @Value("${ollama.vision.resize.passthrough-size:512KB}") DataSize passthroughSize,
+                              @Value("${ollama.vision.resize.jpeg-quality:0.85}") float jpegQuality) {
+        this.enabled = enabled;
+        this.maxDimension = maxDimension;
+        this.passthroughBytes = passthroughSize.toBytes();
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Encoder that always sends the upload unchanged
+     */
+    public static VisionImageEncoder disabled() {
+        return new VisionImageEncoder(false, 0, DataSize.ofBytes(0), 0);
+    }
+
+    /**
+     * Image ready for Ollama: either the re-encoded bytes or the original upload, with the
+     * byte counts before and after re-encoding. The content is read when the request is written.
+     */
+    public record EncodedImage(MultipartFile original, byte[] reencodedBytes, long originalBytes, long sentBytes) {
+
+        public boolean reencoded() {
+            return reencodedBytes != null;
+        }
+
+        /**
+         * Open the bytes to send
+         */
+        public InputStream openStream() throws IOException {
+            return reencoded() ? new ByteArrayInputStream(reencodedBytes) : original.getInputStream();
+        }
+    }
+
+    /**
+     * Prepare an upload for the vision model, downscaling and re-encoding it when that makes it smaller
+     */
+    public EncodedImage encode(MultipartFile file) throws IOException {
+        if (enabled) {
+            BufferedImage resized = decodeForVision(file);
+            if (resized != null) {
+                byte[] encoded = writeCompact(resized);
+                if (encoded.length < file.getSize()) {
+                    logger.debug("Re-encoded {} for vision model: {} -> {} bytes ({}x{})", file.getOriginalFilename(),
+                                file.getSize(), encoded.length, resized.getWidth(), resized.getHeight());
+                    return new EncodedImage(file, encoded, file.getSize(), encoded.length);
+                }
+            }
+        }
+        return new EncodedImage(file, null, file.getSize(), file.getSize());
+    }
+
+    /**
+     * Decode and downscale the upload, or return null if it should be sent unchanged
+     * (already small and compact, or in a format ImageIO cannot read)
+     */
+    private BufferedImage decodeForVision(MultipartFile file) throws IOException {
+        try (ImageInputStream imageStream = openImageStream(file)) {
+            Iterator<ImageReader> readers = imageStream != null ? ImageIO.getImageReaders(imageStream) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int longestEdge = Math.max(width, height);
+                String format = reader.getFormatName().toLowerCase();
+
+                if (longestEdge <= maxDimension && file.getSize() <= passthroughBytes
+                        && PASSTHROUGH_FORMATS.contains(format)) {
+                    return null;
+                }
+
+                // Let the decoder skip pixels for very large images so the full raster is never allocated
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longestEdge / (maxDimension * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = flatten(reader.read(0, param));
+
+                double scale = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+                if (scale < 1.0) {
+                    image = DownscaleStage.resize(image, 
+                                                  Math.max(1, (int) Math.round(image.getWidth() * scale)),
+                                                  Math.max(1, (int) Math.round(image.getHeight() * scale)));
+                }
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not decode {} for resizing, sending it unchanged: {}", 
+                       file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Spooled uploads are read in place; others go through ImageIO's stream cache
+     */
+    private static ImageInputStream openImageStream(MultipartFile file) throws IOException {
+        if (file instanceof FileBackedMultipartFile spooled) {
+            return ImageIO.createImageInputStream(spooled.getPath().toFile());
+        }
+        return ImageIO.createImageInputStream(file.getInputStream());
+    }
+
+    /**
+     * Drop alpha by compositing onto white, so transparent areas do not turn black
+     */
+    private static BufferedImage flatten(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage flattened = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = flattened.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return flattened;
+    }
+
+    /**
+     * PNG for grayscale and bilevel images (scanned text compresses well and stays sharp), JPEG otherwise
+     */
+    private byte[] writeCompact(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_BYTE_GRAY || type == BufferedImage.TYPE_BYTE_BINARY) {
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.hemendra.ocr.service.preprocess;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * Convert to black and white using Otsu's global threshold
+ */
+@Component
+public class BinarizeStage implements PreprocessingStage {
+
+    @Override
+    public String getName() {
+        return "binarize";
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, PreprocessingContext context) {
+        if (image.getType() == BufferedImage.TYPE_BYTE_BINARY) {
+            return image;
+        }
+        BufferedImage gray = image.getType() == BufferedImage.TYPE_BYTE_GRAY ? image : GrayscaleStage.toGray(image);
+
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        Raster source = gray.getRaster();
+
+        int[] histogram = new int[256];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            source.getSamples(0, y, width, 1, 0, row);
+            for (int value : row) {
+                histogram[value]++;
+            }
+        }
+        int threshold = otsuThreshold(histogram, (long) width * height);
+
+        BufferedImage binary = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        WritableRaster target = binary.getRaster();
+        for (int y = 0; y < height; y++) {
+            source.getSamples(0, y, width, 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                row[x] = row[x] > threshold ? 1 : 0;
+            }
+            target.setSamples(0, y, width, 1, 0, row);
+        }
+        return binary;
+    }
+
+    /**
+     * Threshold that maximises the between-class variance of the histogram
+     */
+    static int otsuThreshold(int[] histogram, long totalPixels) {
+        double weightedSum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            weightedSum += (double) i * histogram[i];
+        }
+
+        double backgroundSum = 0;
+        long backgroundWeight = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+
+        for (int i = 0; i < histogram.length; i++) {
+            backgroundWeight += histogram[i];
+            if (backgroundWeight == 0) {
+                continue;
+            }
+            long foregroundWeight = totalPixels - backgroundWeight;
+            if (foregroundWeight == 0) {
+                break;
+            }
+            backgroundSum += (double) i * histogram[i];
+
+            double backgroundMean = backgroundSum / backgroundWeight;
+            double foregroundMean = (weightedSum - backgroundSum) / foregroundWeight;
+            double variance = (double) backgroundWeight * foregroundWeight
+                * (backgroundMean - foregroundMean) * (backgroundMean - foregroundMean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = i;
+            }
+        }
+        return threshold;
+    }
+}
@@ -0,0 +1,159 @@
+package com.hemendra.ocr.service.preprocess;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+/**
+ * Straighten slightly rotated scans.
+ *
+ * The skew angle is estimated with a projection profile: dark pixels of a reduced copy are
+ * projected onto rows at each candidate angle, and the angle at which text lines produce
+ * the sharpest row histogram wins.
+ */
+@Component
+public class DeskewStage implements PreprocessingStage {
+
+    private static final int ANALYSIS_MAX_DIMENSION = 1000;
+    private static final double MIN_CORRECTION_DEGREES = 0.2;
+
+    private final double maxAngleDegrees;
+
+    public DeskewStage(@Value("${ocr.preprocess.deskew.max-angle:10}") double maxAngleDegrees) {
+        this.maxAngleDegrees = maxAngleDegrees;
+    }
+
+    @Override
+    public String getName() {
+        return "deskew";
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, PreprocessingContext context) {
+        double angle = estimateSkewDegrees(image);
+        if (Math.abs(angle) < MIN_CORRECTION_DEGREES) {
+            return image;
+        }
+        return rotate(image, -angle);
+    }
+
+    /**
+     * Estimate how far text lines are rotated from horizontal, in degrees (clockwise positive)
+     */
+    double estimateSkewDegrees(BufferedImage image) {
+        BufferedImage sample = GrayscaleStage.toGray(image);
+        int longestEdge = Math.max(sample.getWidth(), sample.getHeight());
+        if (longestEdge > ANALYSIS_MAX_DIMENSION) {
+            double scale = (double) ANALYSIS_MAX_DIMENSION / longestEdge;
+            sample = DownscaleStage.resize(sample,
+                Math.max(1, (int) (sample.getWidth() * scale)),
+                Math.max(1, (int) (sample.getHeight() * scale)));
+        }
+
+        int[][] darkPixels = collectDarkPixels(sample);
+        if (darkPixels[0].length == 0) {
+            return 0;
+        }
+
+        // Coarse search over the whole range, then refine around the best candidate
+        double best = searchAngle(darkPixels, sample.getHeight(), -maxAngleDegrees, maxAngleDegrees, 1.0);
+        return searchAngle(darkPixels, sample.getHeight(), best - 1.0, best + 1.0, 0.1);
+    }
+
+    private double searchAngle(int[][] darkPixels, int height, double from, double to, double step) {
+        double bestAngle = 0;
+        double bestScore = -1;
+        for (double angle = from; angle <= to + 1e-9; angle += step) {
+            double score = profileScore(darkPixels, height, angle);
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        return bestAngle;
+    }
+
+    private double profileScore(int[][] darkPixels, int height, double angleDegrees) {
+        double radians = Math.toRadians(angleDegrees);
+        double sin = Math.sin(radians);
+        double cos = Math.cos(radians);
+
+        int margin = height;
+        int[] bins = new int[height + 2 * margin];
+        int[] xs = darkPixels[0];
+        int[] ys = darkPixels[1];
+        for (int i = 0; i < xs.length; i++) {
+            int row = (int) Math.round(ys[i] * cos - xs[i] * sin) + margin;
+            if (row >= 0 && row < bins.length) {
+                bins[row]++;
+            }
+        }
+
+        double score = 0;
+        for (int i = 1; i < bins.length; i++) {
+            double diff = bins[i] - bins[i - 1];
+            score += diff * diff;
+        }
+        return score;
+    }
+
+    private int[][] collectDarkPixels(BufferedImage gray) {
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        Raster raster = gray.getRaster();
+
+        int[] histogram = new int[256];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            for (int value : row) {
+                histogram[value]++;
+            }
+        }
+        int threshold = BinarizeStage.otsuThreshold(histogram, (long) width * height);
+
+        int count = 0;
+        for (int i = 0; i <= threshold; i++) {
+            count += histogram[i];
+        }
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        int index = 0;
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                if (row[x] <= threshold && index < count) {
+                    xs[index] = x;
+                    ys[index] = y;
+                    index++;
+                }
+            }
+        }
+        return new int[][] { xs, ys };
+    }
+
+    private BufferedImage rotate(BufferedImage image, double angleDegrees) {
+        int type = image.getType() == BufferedImage.TYPE_BYTE_GRAY || image.getType() == BufferedImage.TYPE_BYTE_BINARY
+            ? BufferedImage.TYPE_BYTE_GRAY
+            : BufferedImage.TYPE_INT_RGB;
+        BufferedImage rotated = new BufferedImage(image.getWidth(), image.getHeight(), type);
+
+        Graphics2D graphics = rotated.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, rotated.getWidth(), rotated.getHeight());
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, AffineTransform.getRotateInstance(
+                Math.toRadians(angleDegrees), image.getWidth() / 2.0, image.getHeight() / 2.0), null);
+        } finally {
+            graphics.dispose();
+        }
+        return rotated;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hemendra.ocr.service.preprocess;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Convert colour images to 8-bit grayscale
+ */
+@Component
+public class GrayscaleStage implements PreprocessingStage {
+
+    @Override
+    public String getName() {
+        return "grayscale";
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, PreprocessingContext context) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_BYTE_GRAY || type == BufferedImage.TYPE_BYTE_BINARY) {
+            return image;
+        }
+        return toGray(image);
+    }
+
+    static BufferedImage toGray(BufferedImage image) {
+        BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = gray.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return gray;
+    }
+}
@@ -0,0 +1,130 @@
+package com.hemendra.ocr.service.preprocess;
+
+import com.hemendra.ocr.exception.OcrException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a configurable sequence of preprocessing stages before OCR.
+ *
+ * A request selects stages either by profile name (see {@code ocr.preprocess.profiles})
+ * or as a comma-separated list of stage names; {@code none} disables preprocessing.
+ */
+@Component
+public class ImagePreprocessingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePreprocessingPipeline.class);
+
+    public static final String NONE = "none";
+
+    private final Map<String, PreprocessingStage> stages = new LinkedHashMap<>();
+    private final Map<String, List<PreprocessingStage>> profiles = new HashMap<>();
+    private final String defaultProfile;
+
+    /**
+     * @param profiles profile definitions in the form {@code name:stage,stage;name:stage}
+     */
+    public ImagePreprocessingPipeline(List<PreprocessingStage> stages,
+                                      @Value("${ocr.preprocess.default-profile:standard}") String defaultProfile,
+                                      @Value("${ocr.preprocess.profiles:standard:grayscale,downscale}") String profiles) {
+        for (PreprocessingStage stage : stages) {
+            this.stages.put(stage.getName(), stage);
+        }
+        this.profiles.put(NONE, Collections.emptyList());
+        for (String definition : profiles.split(";")) {
+            if (definition.isBlank()) {
+                continue;
+            }
+            String[] parts = definition.split(":", 2);
+            this.profiles.put(parts[0].trim(), parseStages(parts.length > 1 ? parts[1] : ""));
+        }
+        if (!this.profiles.containsKey(defaultProfile)) {
+            throw new IllegalStateException("Unknown default preprocessing profile: " + defaultProfile);
+        }
+        this.defaultProfile = defaultProfile;
+        logger.info("Image preprocessing profiles: {}, default: {}", this.profiles.keySet(), defaultProfile);
+    }
+
+    /**
+     * Pipeline that leaves every image untouched
+     */
+    public static ImagePreprocessingPipeline disabled() {
+        return new ImagePreprocessingPipeline(Collections.emptyList(), NONE, "");
+    }
+
+    /**
+     * Resolve a profile name or stage list to the stages to run; null selects the default profile
+     */
+    public List<PreprocessingStage> resolve(String spec) throws OcrException {
+        if (spec == null || spec.isBlank()) {
+            return profiles.get(defaultProfile);
+        }
+        List<PreprocessingStage> profile = profiles.get(spec.trim());
+        if (profile != null) {
+            return profile;
+        }
+        try {
+            return parseStages(spec);
+        } catch (IllegalArgumentException e) {
+            throw new OcrException(e.getMessage() + ". Available stages: " + stages.keySet()
+                + ", profiles: " + profiles.keySet());
+        }
+    }
+
+    /**
+     * Stable identifier for a stage list, used as part of cache keys
+     */
+    public static String signature(List<PreprocessingStage> selected) {
+        return selected.stream().map(PreprocessingStage::getName).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Run the selected stages in order, timing each one
+     */
+    public PreprocessingResult apply(BufferedImage image, int dpi, List<PreprocessingStage> selected) {
+        PreprocessingContext context = new PreprocessingContext(dpi);
+        Map<String, Long> timings = new LinkedHashMap<>();
+
+        BufferedImage current = image;
+        for (PreprocessingStage stage : selected) {
+            long start = System.nanoTime();
+            current = stage.apply(current, context);
+            timings.put(stage.getName(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return new PreprocessingResult(current, timings);
+    }
+
+    public List<String> getStageNames() {
+        return new ArrayList<>(stages.keySet());
+    }
+
+    public List<String> getProfileNames() {
+        return new ArrayList<>(profiles.keySet());
+    }
+
+    private List<PreprocessingStage> parseStages(String list) {
+        List<PreprocessingStage> selected = new ArrayList<>();
+        for (String name : list.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            PreprocessingStage stage = stages.get(name.trim());
+            if (stage == null) {
+                throw new IllegalArgumentException("Unknown preprocessing stage: " + name.trim());
+            }
+            selected.add(stage);
+        }
+        return Collections.unmodifiableList(selected);
+    }
+}
@@ -0,0 +1,28 @@
+package com.hemendra.ocr.service.preprocess;
+
+/**
+ * Mutable per-image state shared by the stages of one pipeline run
+ */
+public class PreprocessingContext {
+
+    private int dpi;
+
+    /**
+     * @param dpi resolution reported by the image metadata, or 0 if unknown
+     */
+    public PreprocessingContext(int dpi) {
+        this.dpi = dpi;
+    }
+
+    public int getDpi() {
+        return dpi;
+    }
+
+    public void setDpi(int dpi) {
+        this.dpi = dpi;
+    }
+
+    public boolean isDpiKnown() {
+        return dpi > 0;
+    }
+}
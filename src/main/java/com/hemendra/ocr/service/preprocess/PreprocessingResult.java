@@ -0,0 +1,10 @@
+package com.hemendra.ocr.service.preprocess;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+/**
+ * Output of a pipeline run: the transformed image and how long each stage took
+ */
+public record PreprocessingResult(BufferedImage image, Map<String, Long> stageTimingsMs) {
+}
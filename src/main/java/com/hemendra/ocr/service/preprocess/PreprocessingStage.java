@@ -0,0 +1,19 @@
+package com.hemendra.ocr.service.preprocess;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A single image transformation applied before OCR
+ */
+public interface PreprocessingStage {
+
+    /**
+     * Name used to select this stage in profiles and requests
+     */
+    String getName();
+
+    /**
+     * Transform the image, returning the input unchanged if the stage has nothing to do
+     */
+    BufferedImage apply(BufferedImage image, PreprocessingContext context);
+}
@@ -1,8 +1,12 @@
 package com.hemendra.ocr.controller;
 
+import com.hemendra.ocr.dto.BatchOcrResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrPageResult;
 import com.hemendra.ocr.dto.OcrResponse;
 import com.hemendra.ocr.exception.OcrException;
 import com.hemendra.ocr.service.OcrService;
+import com.hemendra.ocr.service.PageSource;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +15,19 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,7 +57,7 @@ class OcrControllerTest {
         OcrResponse mockResponse = new OcrResponse("Extracted text", "test.png", 1024L);
         mockResponse.setProcessingTimeMs(500L);
         
-        when(ocrService.extractTextFromImage(any(), eq("eng"))).thenReturn(mockResponse);
+        when(ocrService.extractTextFromImage(any(), englishOptions())).thenReturn(mockResponse);
 
         // Act & Assert
         mockMvc.perform(multipart("/api/ocr/extract")
@@ -67,7 +79,7 @@ class OcrControllerTest {
             "test image content".getBytes()
         );
         
-        when(ocrService.extractTextFromImage(any(), eq("eng")))
+        when(ocrService.extractTextFromImage(any(), englishOptions()))
             .thenThrow(new OcrException("OCR processing failed"));
 
         // Act & Assert
@@ -79,6 +91,40 @@ class OcrControllerTest {
                 .andExpect(jsonPath("$.error_message").value("OCR processing failed"));
     }
 
+    @Test
+    void testExtractBatch_PartialFailure() throws Exception {
+        // Arrange
+        MockMultipartFile first = new MockMultipartFile(
+            "files", 
+            "first.png", 
+            "image/png", 
+            "first image".getBytes()
+        );
+        MockMultipartFile second = new MockMultipartFile(
+            "files", 
+            "second.png", 
+            "image/png", 
+            "second image".getBytes()
+        );
+        
+        OcrResponse failure = new OcrResponse("Unable to read image file");
+        failure.setFileName("second.png");
+        BatchOcrResponse mockResponse = new BatchOcrResponse(
+            Arrays.asList(new OcrResponse("Extracted text", "first.png", 1024L), failure));
+        
+        when(ocrService.extractBatch(anyList(), englishOptions())).thenReturn(mockResponse);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/ocr/batch")
+                .file(first)
+                .file(second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_files").value(2))
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].error_message").value("Unable to read image file"));
+    }
+
     @Test
     void testHealthCheck() throws Exception {
         // Arrange
@@ -93,16 +139,83 @@ class OcrControllerTest {
                 .andExpect(jsonPath("$.supported_formats").isArray());
     }
 
+    @Test
+    void testExtractPages_StreamsOneLinePerPage() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile(
+            "file", 
+            "scan.pdf", 
+            "application/pdf", 
+            "pdf content".getBytes()
+        );
+        
+        PageSource pages = mock(PageSource.class);
+        when(ocrService.openPages(any())).thenReturn(pages);
+        doAnswer(invocation -> {
+            Consumer<OcrPageResult> consumer = invocation.getArgument(2);
+            consumer.accept(new OcrPageResult(2, 3, "second page"));
+            consumer.accept(OcrPageResult.failed(1, 3, "OCR processing failed: engine crashed"));
+            consumer.accept(new OcrPageResult(3, 3, "third page"));
+            return null;
+        }).when(ocrService).extractPages(any(), englishOptions(), any());
+
+        // Act
+        MvcResult started = mockMvc.perform(multipart("/api/ocr/pages").file(file))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(2, objectMapper.readTree(lines[0]).get("page").asInt());
+        assertFalse(objectMapper.readTree(lines[1]).get("success").asBoolean());
+        assertEquals("OCR processing failed: engine crashed", 
+                     objectMapper.readTree(lines[1]).get("error_message").asText());
+        assertEquals("third page", objectMapper.readTree(lines[2]).get("extracted_text").asText());
+        verify(pages).close();
+    }
+
+    @Test
+    void testExtractPages_UnreadableDocument() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile(
+            "file", 
+            "scan.pdf", 
+            "application/pdf", 
+            "not a pdf".getBytes()
+        );
+        
+        when(ocrService.openPages(any())).thenThrow(new OcrException("Unable to read document: bad header"));
+
+        // Act & Assert
+        MvcResult started = mockMvc.perform(multipart("/api/ocr/pages").file(file))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error_message").value("Unable to read document: bad header"));
+    }
+
     @Test
     void testGetSupportedFormats() throws Exception {
         // Arrange
         when(ocrService.getSupportedFormats())
             .thenReturn(Arrays.asList("png", "jpg", "jpeg"));
+        when(ocrService.getMaxFileSizeMb()).thenReturn(200L);
 
         // Act & Assert
         mockMvc.perform(get("/api/ocr/formats"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.supported_formats").isArray())
-                .andExpect(jsonPath("$.max_file_size_mb").value(10));
+                .andExpect(jsonPath("$.max_file_size_mb").value(200));
+    }
+
+    private static OcrOptions englishOptions() {
+        return argThat(options -> options != null && "eng".equals(options.getLanguage()));
     }
 }
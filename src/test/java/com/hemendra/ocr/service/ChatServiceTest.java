@@ -0,0 +1,339 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.ChatRequest;
+import com.hemendra.ocr.dto.ChatResponse;
+import com.hemendra.ocr.exception.OcrException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatServiceTest {
+
+    private HttpServer server;
+    private OllamaRouter router;
+    private OllamaModelRegistry registry;
+    private ChatService chatService;
+    private final Set<String> installed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger generateCalls = new AtomicInteger();
+    private final AtomicInteger tagsCalls = new AtomicInteger();
+    private final AtomicInteger pullCalls = new AtomicInteger();
+    private final List<String> chatBodies = new CopyOnWriteArrayList<>();
+    private volatile long chatDelayMs;
+    private final CountDownLatch streamRelease = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        installed.add("gemma2:2b");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", exchange -> {
+            tagsCalls.incrementAndGet();
+            String models = installed.stream()
+                .map(name -> "{\"name\":\"" + name + "\",\"digest\":\"" + name + "\",\"size\":1,"
+                    + "\"details\":{\"family\":\"gemma2\",\"families\":[\"gemma2\"]}}")
+                .collect(Collectors.joining(","));
+            respond(exchange, 200, "{\"models\":[" + models + "]}");
+        });
+        server.createContext("/api/show", exchange -> respond(exchange, 200, "{\"capabilities\":[\"completion\"]}"));
+        server.createContext("/api/pull", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            pullCalls.incrementAndGet();
+            installed.add(request.contains("phi3") ? "phi3:latest" : "unknown:latest");
+            respond(exchange, 200, "{\"status\":\"success\"}");
+        });
+        server.createContext("/api/generate", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            generateCalls.incrementAndGet();
+            if (isInstalled(request)) {
+                respond(exchange, 200, "{\"response\":\"Hello!\",\"done\":true,\"eval_count\":3}");
+            } else {
+                respond(exchange, 404, "{\"error\":\"model not found\"}");
+            }
+        });
+        server.createContext("/api/chat", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            generateCalls.incrementAndGet();
+            chatBodies.add(request);
+            sleep(chatDelayMs);
+            if (request.contains("\"stream\":true")) {
+                streamPartialReply(exchange);
+            } else if (isInstalled(request)) {
+                respond(exchange, 200, "{\"message\":{\"role\":\"assistant\",\"content\":\"Hello!\"},"
+                    + "\"done\":true,\"eval_count\":3,\"prompt_eval_count\":12}");
+            } else {
+                respond(exchange, 404, "{\"error\":\"model not found\"}");
+            }
+        });
+        server.start();
+
+        router = OllamaRouter.of("http://127.0.0.1:" + server.getAddress().getPort());
+        registry = new OllamaModelRegistry(router);
+        registry.refresh();
+        ModelWarmupManager warmupManager = new ModelWarmupManager(router, ModelConcurrencyLimiter.unlimited(), 
+                                                                  false, new String[0], "", "", 1000);
+        chatService = new ChatService(router, registry, warmupManager, ModelConcurrencyLimiter.unlimited(),
+                                      newConversationStore(), true, true);
+    }
+
+    private boolean isInstalled(String request) {
+        return installed.stream().anyMatch(name -> request.contains("\"" + name + "\"")
+            || request.contains("\"" + name.replace(":latest", "") + "\""));
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamRelease.countDown();
+        server.stop(0);
+        router.shutdown();
+    }
+
+    @Test
+    void testChat_InstalledModelMakesOneUpstreamCallPerTurn() throws Exception {
+        // Arrange
+        int tagsCallsBefore = tagsCalls.get();
+
+        // Act
+        ChatResponse first = chatService.chat(request("gemma2:2b", "conv-1", "Hi"));
+        chatService.chat(request("gemma2:2b", "conv-1", "How are you?"));
+
+        // Assert
+        assertEquals("Hello!", first.getResponse());
+        assertEquals(2, generateCalls.get());
+        assertEquals(tagsCallsBefore, tagsCalls.get());
+        Map<String, Object> stats = chatService.getTurnStats();
+        assertEquals(2L, stats.get("turns"));
+        assertEquals(1.0, stats.get("generate_calls_per_turn"));
+    }
+
+    @Test
+    void testChat_MissingModelFailsFastWithoutCallingOllama() {
+        // Arrange
+        int tagsCallsBefore = tagsCalls.get();
+
+        // Act
+        OcrException exception = assertThrows(OcrException.class,
+            () -> chatService.chat(request("phi3", "conv-1", "Hi")));
+
+        // Assert: no pull and no generation; only the background refresh lists models
+        assertTrue(exception.getMessage().contains("not installed"));
+        assertEquals(0, pullCalls.get());
+        assertEquals(0, generateCalls.get());
+        awaitCondition(() -> registry.getStats().get("requested_refreshes").equals(1L) 
+            && tagsCalls.get() > tagsCallsBefore);
+    }
+
+    @Test
+    void testChat_ModelPulledOutsideTheServiceIsFoundByBackgroundRefresh() throws Exception {
+        // Arrange: pulled with the ollama CLI after the last registry refresh
+        installed.add("phi3:latest");
+        assertThrows(OcrException.class, () -> chatService.chat(request("phi3", "conv-1", "Hi")));
+
+        // Act
+        awaitCondition(() -> chatService.isModelAvailable("phi3"));
+        ChatResponse response = chatService.chat(request("phi3", "conv-1", "Hi"));
+
+        // Assert
+        assertEquals("Hello!", response.getResponse());
+        assertEquals(0, pullCalls.get());
+        assertEquals(1L, chatService.getTurnStats().get("registry_refreshes"));
+    }
+
+    @Test
+    void testChat_NotFoundResponseMarksModelMissing() {
+        // Arrange
+        installed.remove("gemma2:2b");
+        assertTrue(chatService.isModelAvailable("gemma2:2b"));
+
+        // Act & Assert
+        assertThrows(OcrException.class, () -> chatService.chat(request("gemma2:2b", "conv-1", "Hi")));
+        assertFalse(chatService.isModelAvailable("gemma2:2b"));
+        assertEquals(1L, registry.getStats().get("not_found"));
+    }
+
+    @Test
+    void testChat_SendsConversationAsMessagesToNativeChatApi() throws Exception {
+        // Arrange
+        ChatRequest first = request("gemma2:2b", "conv-1", "Hi");
+        first.setSystemPrompt("Be brief");
+
+        // Act
+        chatService.chat(first);
+        ChatResponse second = chatService.chat(request("gemma2:2b", "conv-1", "And now?"));
+
+        // Assert
+        assertEquals(2, chatBodies.size());
+        String body = chatBodies.get(1);
+        assertTrue(body.contains("\"messages\":[{\"role\":\"system\",\"content\":\"Be brief\"},"
+            + "{\"role\":\"user\",\"content\":\"Hi\"},{\"role\":\"assistant\",\"content\":\"Hello!\"},"
+            + "{\"role\":\"user\",\"content\":\"And now?\"}]"));
+        assertFalse(body.contains("\"prompt\""));
+        assertEquals("Hello!", second.getResponse());
+        assertEquals(12, second.getPromptTokenCount());
+        assertEquals(24L, chatService.getTurnStats().get("prompt_eval_tokens"));
+    }
+
+    @Test
+    void testChat_GenerateModeSendsTranscriptPrompt() throws Exception {
+        // Arrange
+        ModelWarmupManager warmupManager = new ModelWarmupManager(router, ModelConcurrencyLimiter.unlimited(), 
+                                                                  false, new String[0], "", "", 1000);
+        ChatService generateChat = new ChatService(router, registry, warmupManager,
+                                                   ModelConcurrencyLimiter.unlimited(), newConversationStore(), true, false);
+
+        // Act
+        ChatResponse response = generateChat.chat(request("gemma2:2b", "conv-1", "Hi"));
+
+        // Assert
+        assertEquals("Hello!", response.getResponse());
+        assertTrue(chatBodies.isEmpty());
+        assertEquals(1, generateCalls.get());
+    }
+
+    @Test
+    void testChat_ConcurrentTurnsInOneConversationRunInOrder() throws Exception {
+        // Arrange
+        chatDelayMs = 100;
+
+        // Act
+        CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(() -> chatQuietly("One"));
+        CompletableFuture<ChatResponse> second = CompletableFuture.supplyAsync(() -> chatQuietly("Two"));
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        // Assert: the later turn saw the earlier turn's reply, and the history alternates roles
+        assertEquals(2, chatBodies.size());
+        assertTrue(chatBodies.get(1).contains("\"role\":\"assistant\",\"content\":\"Hello!\""));
+        List<String> roles = chatService.getConversationHistory("conv-1").stream()
+            .map(message -> message.get("role"))
+            .toList();
+        assertEquals(List.of("user", "assistant", "user", "assistant"), roles);
+    }
+
+    @Test
+    void testChat_RejectsOverlongConversationId() {
+        // Act & Assert
+        OcrException exception = assertThrows(OcrException.class,
+            () -> chatService.chat(request("gemma2:2b", "x".repeat(129), "Hi")));
+        assertTrue(exception.getMessage().contains("Conversation id too long"));
+        assertEquals(0, chatBodies.size());
+    }
+
+    @Test
+    void testChatStream_CancelledTurnKeepsPartialReply() throws Exception {
+        // Act: the client goes away after the first token
+        String first = chatService.chatStream(request("gemma2:2b", "conv-1", "Hi"))
+            .take(1)
+            .blockLast(Duration.ofSeconds(10));
+        streamRelease.countDown();
+        chatService.chat(request("gemma2:2b", "conv-1", "Still there?"));
+
+        // Assert: the next turn follows an assistant message, not a second user message
+        assertEquals("Hel", first);
+        List<Map<String, String>> history = chatService.getConversationHistory("conv-1");
+        assertEquals(List.of("user", "assistant", "user", "assistant"),
+                     history.stream().map(message -> message.get("role")).toList());
+        assertEquals("Hel", history.get(1).get("content"));
+        assertTrue(chatBodies.get(1).contains("{\"role\":\"assistant\",\"content\":\"Hel\"},"
+            + "{\"role\":\"user\",\"content\":\"Still there?\"}"));
+    }
+
+    @Test
+    void testChat_FailedTurnIsClosedWithEmptyReply() throws Exception {
+        // Arrange
+        installed.remove("gemma2:2b");
+        assertThrows(OcrException.class, () -> chatService.chat(request("gemma2:2b", "conv-1", "Hi")));
+
+        // Act
+        installed.add("gemma2:2b");
+        registry.refresh();
+        chatService.chat(request("gemma2:2b", "conv-1", "Again"));
+
+        // Assert
+        List<String> roles = chatService.getConversationHistory("conv-1").stream()
+            .map(message -> message.get("role"))
+            .toList();
+        assertEquals(List.of("user", "assistant", "user", "assistant"), roles);
+    }
+
+    private ChatResponse chatQuietly(String message) {
+        try {
+            return chatService.chat(request("gemma2:2b", "conv-1", message));
+        } catch (OcrException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Stream one token, then hold the response open until the test releases it
+     */
+    private void streamPartialReply(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        exchange.getResponseBody().write(
+            "{\"message\":{\"role\":\"assistant\",\"content\":\"Hel\"},\"done\":false}\n"
+                .getBytes(StandardCharsets.UTF_8));
+        exchange.getResponseBody().flush();
+        try {
+            streamRelease.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.close();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ConversationStore newConversationStore() {
+        return new ConversationStore(DataSize.ofMegabytes(1), 4096, 60, ConversationLog.disabled());
+    }
+
+    private static ChatRequest request(String model, String conversationId, String message) {
+        ChatRequest request = new ChatRequest();
+        request.setModel(model);
+        request.setConversationId(conversationId);
+        request.setMessage(message);
+        return request;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
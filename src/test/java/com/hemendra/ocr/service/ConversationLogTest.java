@@ -0,0 +1,296 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<ConversationLog> opened = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(ConversationLog::shutdown);
+    }
+
+    private ConversationLog open(long segmentBytes) {
+        return open(segmentBytes, 0);
+    }
+
+    private ConversationLog open(long segmentBytes, long retentionMillis) {
+        ConversationLog log = new ConversationLog(dir.toString(), DataSize.ofBytes(segmentBytes), 0.5, 
+                                                  retentionMillis, now::get);
+        opened.add(log);
+        return log;
+    }
+
+    @Test
+    void testLoad_RecoversMessagesInOrderAfterRestart() {
+        // Arrange
+        ConversationLog log = open(1024);
+        log.append("c1", "system", "Be brief");
+        log.append("c1", "user", "Hello");
+        log.append("c2", "user", "Other conversation");
+        log.append("c1", "assistant", "Hi! ünïcödé");
+        log.shutdown();
+
+        // Act
+        ConversationLog reopened = open(1024);
+        List<Map<String, String>> messages = reopened.load("c1");
+
+        // Assert
+        assertEquals(3, messages.size());
+        assertEquals(Map.of("role", "system", "content", "Be brief"), messages.get(0));
+        assertEquals(Map.of("role", "user", "content", "Hello"), messages.get(1));
+        assertEquals(Map.of("role", "assistant", "content", "Hi! ünïcödé"), messages.get(2));
+        assertTrue(reopened.contains("c2"));
+        assertEquals(4L, reopened.getStats().get("recovered_messages"));
+    }
+
+    @Test
+    void testDelete_TombstoneSurvivesRestart() {
+        // Arrange
+        ConversationLog log = open(1024);
+        log.append("c1", "user", "Hello");
+        log.append("c2", "user", "Keep me");
+
+        // Act
+        assertTrue(log.delete("c1"));
+        log.append("c1", "user", "New start");
+        log.shutdown();
+        ConversationLog reopened = open(1024);
+
+        // Assert
+        assertEquals(List.of(Map.of("role", "user", "content", "New start")), reopened.load("c1"));
+        assertEquals(1, reopened.load("c2").size());
+    }
+
+    @Test
+    void testCompact_ReclaimsDeletedConversationsAndKeepsOrder() throws Exception {
+        // Arrange: small segments so the log rolls many times
+        ConversationLog log = open(200);
+        for (int i = 0; i < 20; i++) {
+            log.append("dead", "user", "message " + i);
+            log.append("live", i % 2 == 0 ? "user" : "assistant", "turn " + i);
+        }
+        log.delete("dead");
+        log.load("live");
+        long diskBefore = (long) log.getStats().get("disk_bytes");
+
+        // Act
+        log.compact();
+        List<Map<String, String>> messages = log.load("live");
+        awaitCompactions(log, 1);
+
+        // Assert
+        assertEquals(20, messages.size());
+        assertEquals("turn 0", messages.get(0).get("content"));
+        assertEquals("turn 19", messages.get(19).get("content"));
+        Map<String, Object> stats = log.getStats();
+        assertEquals(1L, stats.get("compactions"));
+        assertTrue((long) stats.get("disk_bytes") < diskBefore);
+        assertEquals(sumSegmentSizes(), stats.get("disk_bytes"));
+
+        log.shutdown();
+        ConversationLog reopened = open(200);
+        assertEquals(messages, reopened.load("live"));
+        assertFalse(reopened.contains("dead"));
+    }
+
+    @Test
+    void testRecover_TruncatesTornWriteAtTail() throws IOException {
+        // Arrange
+        ConversationLog log = open(1024);
+        log.append("c1", "user", "Hello");
+        log.shutdown();
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        long goodSize = Files.size(segment);
+        Files.write(segment, new byte[] {0, 0, 0, 50, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        ConversationLog reopened = open(1024);
+        reopened.append("c1", "assistant", "Hi");
+
+        // Assert
+        assertEquals(2, reopened.load("c1").size());
+        assertTrue(Files.size(segment) > goodSize);
+        reopened.shutdown();
+        assertEquals(2, open(1024).load("c1").size());
+    }
+
+    @Test
+    void testAppend_RefusesIdTooLongForRecordInsteadOfTruncating() {
+        // Arrange
+        ConversationLog log = open(1024 * 1024);
+        String longId = "x".repeat(70_000);
+
+        // Act
+        log.append(longId, "user", "Hello");
+        log.append("c1", "user", "Still fine");
+        log.shutdown();
+        ConversationLog reopened = open(1024 * 1024);
+
+        // Assert: nothing was written for the long id and the records after it still parse
+        assertEquals(1L, log.getStats().get("write_errors"));
+        assertFalse(reopened.contains(longId));
+        assertEquals(List.of(Map.of("role", "user", "content", "Still fine")), reopened.load("c1"));
+        assertEquals(1L, reopened.getStats().get("recovered_messages"));
+    }
+
+    @Test
+    void testStore_RestoresEvictedConversationFromLog() {
+        // Arrange
+        ConversationLog log = open(1024);
+        ConversationStore store = new ConversationStore(1_000_000, 10_000, 0, log, System::currentTimeMillis);
+        store.addTurn("c1", "Be brief", "Hello");
+        store.addReply("c1", "Hi");
+        ConversationStore restarted = new ConversationStore(1_000_000, 10_000, 0, log, System::currentTimeMillis);
+
+        // Act
+        List<Map<String, String>> messages = restarted.addTurn("c1", null, "Again");
+
+        // Assert
+        assertEquals(4, messages.size());
+        assertEquals("Be brief", messages.get(0).get("content"));
+        assertEquals("Again", messages.get(3).get("content"));
+        assertEquals(1L, restarted.getStats().get("restored"));
+    }
+
+    @Test
+    void testStore_DeleteDuringRestoreIsNotUndone() {
+        // Arrange: a delete that lands while a history read is loading the conversation from the log
+        AtomicReference<Runnable> duringLoad = new AtomicReference<>(() -> { });
+        ConversationLog log = new ConversationLog(dir.toString(), DataSize.ofBytes(1024), 0.5, 0, now::get) {
+            @Override
+            public List<Map<String, String>> load(String conversationId) {
+                List<Map<String, String>> messages = super.load(conversationId);
+                duringLoad.get().run();
+                return messages;
+            }
+        };
+        opened.add(log);
+        new ConversationStore(1_000_000, 10_000, 0, log, System::currentTimeMillis).addTurn("c1", null, "Hello");
+        ConversationStore restarted = new ConversationStore(1_000_000, 10_000, 0, log, System::currentTimeMillis);
+        duringLoad.set(() -> restarted.remove("c1"));
+
+        // Act
+        List<Map<String, String>> history = restarted.history("c1");
+
+        // Assert
+        assertTrue(history.isEmpty());
+        assertEquals(0, restarted.size());
+        assertEquals(0L, restarted.getStats().get("restored"));
+    }
+
+    @Test
+    void testCompact_InterleavesWithWritesOneSegmentAtATime() throws Exception {
+        // Arrange
+        ConversationLog log = open(200);
+        for (int i = 0; i < 20; i++) {
+            log.append("dead", "user", "message " + i);
+            log.append("live", "user", "turn " + i);
+        }
+        log.delete("dead");
+
+        // Act: writes and reads queued while compaction is under way run between its segments
+        log.compact();
+        log.append("live", "assistant", "during compaction");
+        log.append("late", "user", "new conversation");
+        List<Map<String, String>> during = log.load("live");
+        log.delete("late");
+        awaitCompactions(log, 1);
+
+        // Assert
+        assertEquals(21, during.size());
+        assertEquals("during compaction", during.get(20).get("content"));
+        assertEquals(during, log.load("live"));
+        log.shutdown();
+        ConversationLog reopened = open(200);
+        assertEquals(during, reopened.load("live"));
+        assertFalse(reopened.contains("late"));
+        assertFalse(reopened.contains("dead"));
+    }
+
+    @Test
+    void testCompact_DeletesConversationsIdlePastRetention() throws Exception {
+        // Arrange
+        ConversationLog log = open(200, 60_000);
+        for (int i = 0; i < 10; i++) {
+            log.append("stale", "user", "old message " + i);
+        }
+        now.addAndGet(30_000);
+        log.append("recent", "user", "Hello");
+        now.addAndGet(40_000);
+
+        // Act
+        log.compact();
+        log.load("recent");
+        awaitCompactions(log, 1);
+
+        // Assert
+        assertFalse(log.contains("stale"));
+        assertTrue(log.load("stale").isEmpty());
+        assertEquals(1, log.load("recent").size());
+        Map<String, Object> stats = log.getStats();
+        assertEquals(1L, stats.get("expired_conversations"));
+        assertEquals(1, stats.get("conversations"));
+
+        log.shutdown();
+        ConversationLog reopened = open(200, 60_000);
+        assertFalse(reopened.contains("stale"));
+        assertTrue(reopened.contains("recent"));
+    }
+
+    @Test
+    void testCompact_RetentionCountsFromWriteTimeKeptAcrossRestart() {
+        // Arrange: the write time is stored in the record, so a restart does not make old messages look new
+        ConversationLog log = open(1024, 60_000);
+        log.append("c1", "user", "Hello");
+        log.shutdown();
+        now.addAndGet(61_000);
+        ConversationLog reopened = open(1024, 60_000);
+
+        // Act
+        reopened.compact();
+        reopened.load("c1");
+
+        // Assert
+        assertFalse(reopened.contains("c1"));
+        assertEquals(1L, reopened.getStats().get("expired_conversations"));
+    }
+
+    private static void awaitCompactions(ConversationLog log, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) log.getStats().get("compactions") < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, log.getStats().get("compactions"));
+    }
+
+    private long sumSegmentSizes() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void testAddTurn_SlidesWindowButKeepsSystemPrompt() {
+        // Arrange: each 40-character message is about 14 tokens
+        ConversationStore store = new ConversationStore(1_000_000, 50, 0, now::get);
+        String text = "x".repeat(40);
+        store.addTurn("c1", "Be brief", "first " + text);
+        store.addReply("c1", "reply " + text);
+
+        // Act
+        List<Map<String, String>> messages = store.addTurn("c1", null, "second " + text);
+
+        // Assert
+        assertEquals("system", messages.get(0).get("role"));
+        assertEquals("Be brief", messages.get(0).get("content"));
+        assertEquals("second " + text, messages.get(messages.size() - 1).get("content"));
+        assertTrue(messages.stream().noneMatch(message -> message.get("content").startsWith("first")));
+        assertEquals(1L, store.getStats().get("truncated_messages"));
+    }
+
+    @Test
+    void testAddTurn_EvictsLeastRecentlyUsedConversationsOverMemoryLimit() {
+        // Arrange: room for about two single-message conversations
+        String text = "y".repeat(100);
+        ConversationStore store = new ConversationStore(700, 10_000, 0, now::get);
+        store.addTurn("a", null, text);
+        store.addTurn("b", null, text);
+        store.history("a");
+
+        // Act
+        store.addTurn("c", null, text);
+
+        // Assert
+        assertTrue(store.history("b").isEmpty());
+        assertEquals(1, store.history("a").size());
+        assertEquals(1, store.history("c").size());
+        Map<String, Object> stats = store.getStats();
+        assertEquals(1L, stats.get("evictions"));
+        assertTrue((long) stats.get("memory_bytes") <= 700);
+    }
+
+    @Test
+    void testExpireIdle_DropsConversationsIdlePastTtl() {
+        // Arrange
+        ConversationStore store = new ConversationStore(1_000_000, 10_000, 60_000, now::get);
+        store.addTurn("old", null, "hello");
+        now.addAndGet(30_000);
+        store.addTurn("recent", null, "hello");
+        now.addAndGet(40_000);
+
+        // Act
+        store.expireIdle();
+
+        // Assert
+        assertEquals(1, store.size());
+        assertTrue(store.history("old").isEmpty());
+        assertEquals(1, store.history("recent").size());
+        assertEquals(1L, store.getStats().get("expirations"));
+    }
+
+    @Test
+    void testRemove_ReleasesMemory() {
+        // Arrange
+        ConversationStore store = new ConversationStore(1_000_000, 10_000, 0, now::get);
+        store.addTurn("c1", "system", "hello");
+        store.addReply("c1", "hi there");
+
+        // Act
+        boolean removed = store.remove("c1");
+
+        // Assert
+        assertTrue(removed);
+        assertEquals(0L, store.getStats().get("memory_bytes"));
+        assertTrue(store.history("c1").isEmpty());
+    }
+}
@@ -0,0 +1,184 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.AiAnalysisResponse;
+import com.hemendra.ocr.dto.HybridOcrResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.service.preprocess.ImagePreprocessingPipeline;
+import net.sourceforge.tess4j.ITesseract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HybridOcrServiceTest {
+
+    private OcrService ocrService;
+    private OllamaService ollamaService;
+    private HybridOcrService hybridOcrService;
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() {
+        ocrService = mock(OcrService.class);
+        ollamaService = mock(OllamaService.class);
+        hybridOcrService = new HybridOcrService(ocrService, ollamaService, UploadSpooler.disabled(), 70, "llava:latest", "Transcribe");
+        file = new MockMultipartFile("file", "scan.png", "image/png", "content".getBytes());
+    }
+
+    private void ocrReturns(String text, Double confidence) throws OcrException {
+        OcrResponse ocr = new OcrResponse(text, "scan.png", 7L);
+        ocr.setConfidence(confidence);
+        when(ocrService.extractTextFromImage(any(), any(OcrOptions.class))).thenReturn(ocr);
+    }
+
+    @Test
+    void testExtract_ConfidentOcrSkipsVisionModel() throws Exception {
+        // Arrange
+        ocrReturns("Clean text", 91.5);
+
+        // Act
+        HybridOcrResponse response = hybridOcrService.extract(file, new OcrOptions(), null);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("Clean text", response.getExtractedText());
+        assertEquals(HybridOcrService.ENGINE_TESSERACT, response.getEngine());
+        assertFalse(response.isEscalated());
+        verify(ollamaService, never()).analyzeImage(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testExtract_LowConfidenceEscalatesToVisionModel() throws Exception {
+        // Arrange
+        ocrReturns("Bl urry", 42.0);
+        when(ollamaService.analyzeImage(file, "Transcribe", "llava:latest"))
+            .thenReturn(new AiAnalysisResponse("Blurry", "llava:latest", "scan.png", 7L));
+
+        // Act
+        HybridOcrResponse response = hybridOcrService.extract(file, new OcrOptions(), null);
+
+        // Assert
+        assertTrue(response.isEscalated());
+        assertEquals(HybridOcrService.ENGINE_VISION, response.getEngine());
+        assertEquals("Blurry", response.getExtractedText());
+        assertEquals(42.0, response.getOcrConfidence());
+        assertEquals(1L, hybridOcrService.getStats().get("escalations"));
+    }
+
+    @Test
+    void testExtract_VisionFailureKeepsOcrText() throws Exception {
+        // Arrange
+        ocrReturns("Bl urry", 42.0);
+        when(ollamaService.analyzeImage(any(), anyString(), anyString()))
+            .thenThrow(new OcrException("Failed to communicate with AI service"));
+
+        // Act
+        HybridOcrResponse response = hybridOcrService.extract(file, new OcrOptions(), 50.0);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("Bl urry", response.getExtractedText());
+        assertEquals(HybridOcrService.ENGINE_TESSERACT, response.getEngine());
+        assertEquals("Failed to communicate with AI service", response.getEscalationError());
+        assertEquals(50.0, response.getConfidenceThreshold());
+    }
+
+    @Test
+    void testExtract_EscalatesDiskBackedUploadAfterOcrSpooledIt(@TempDir Path dir) throws Exception {
+        // Arrange: a real OCR service whose engine reports no confidence, and a part on disk like Tomcat's
+        Path tessData = Files.createDirectories(dir.resolve("tessdata"));
+        Files.createFile(tessData.resolve("eng.traineddata"));
+        ITesseract engine = mock(ITesseract.class);
+        when(engine.doOCR(any(BufferedImage.class))).thenReturn("Bl urry");
+        UploadSpooler spooler = new UploadSpooler(DataSize.ofKilobytes(1), 
+                                                  Files.createDirectories(dir.resolve("spool")).toString());
+        OcrService realOcr = new OcrService(new TesseractPool(1, 1000, tessData.toString(), language -> engine),
+                                            OcrResultCache.disabled(), ImagePreprocessingPipeline.disabled(), 
+                                            spooler);
+        byte[] png = noisePng();
+        when(ollamaService.analyzeImage(any(), eq("Transcribe"), eq("llava:latest"))).thenAnswer(invocation -> {
+            MultipartFile image = invocation.getArgument(0);
+            assertArrayEquals(png, image.getBytes());
+            return new AiAnalysisResponse("Blurry", "llava:latest", "scan.png", 7L);
+        });
+        HybridOcrService hybrid = new HybridOcrService(realOcr, ollamaService, spooler, 70, "llava:latest", 
+                                                       "Transcribe");
+        DiskPart part = new DiskPart(Files.write(dir.resolve("part.tmp"), png));
+
+        // Act
+        HybridOcrResponse response;
+        try {
+            response = hybrid.extract(part, new OcrOptions("eng"), null);
+        } finally {
+            realOcr.shutdown();
+        }
+
+        // Assert
+        assertTrue(response.isEscalated());
+        assertNull(response.getEscalationError());
+        assertEquals("Blurry", response.getExtractedText());
+        assertEquals(1L, spooler.getStats().get("spooled_files"));
+    }
+
+    private static byte[] noisePng() throws IOException {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_BYTE_GRAY);
+        Random random = new Random(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.getRaster().setSample(x, y, 0, random.nextInt(256));
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Upload that, like a container part written to disk, is moved away by transferTo
+     */
+    private static final class DiskPart extends MockMultipartFile {
+
+        private final Path path;
+
+        DiskPart(Path path) throws IOException {
+            super("file", "scan.png", "image/png", Files.readAllBytes(path));
+            this.path = path;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.move(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OcrTextSpan;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageTilerTest {
+
+    @Test
+    void testSplit_CoversImageWithOverlap() {
+        // Arrange
+        BufferedImage image = new BufferedImage(500, 3000, BufferedImage.TYPE_BYTE_GRAY);
+
+        // Act
+        List<ImageTiler.Tile> tiles = ImageTiler.split(image, 4, 100);
+
+        // Assert
+        assertEquals(4, tiles.size());
+        assertEquals(0, tiles.get(0).y());
+        for (int i = 1; i < tiles.size(); i++) {
+            ImageTiler.Tile previous = tiles.get(i - 1);
+            int previousBottom = previous.y() + previous.image().getHeight();
+            assertEquals(100, previousBottom - tiles.get(i).y());
+        }
+        ImageTiler.Tile last = tiles.get(tiles.size() - 1);
+        assertEquals(3000, last.y() + last.image().getHeight());
+    }
+
+    @Test
+    void testStitch_RemovesLinesRepeatedInOverlap() {
+        // Arrange
+        List<String> bands = List.of(
+            "Invoice 1042\nItem A   12.00\nItem B    4.50\n",
+            "Item B 4.50\nItem C    7.25\n\nSubtotal 23.75\n",
+            "Subtotal 23.75\nTotal   25.89\n"
+        );
+
+        // Act
+        String text = ImageTiler.stitch(bands);
+
+        // Assert
+        assertEquals("Invoice 1042\nItem A   12.00\nItem B    4.50\nItem C    7.25\nSubtotal 23.75\nTotal   25.89\n", text);
+    }
+
+    @Test
+    void testStitch_ToleratesSmallRecognitionDifferences() {
+        // Act
+        String text = ImageTiler.stitch(List.of(
+            "The quick brown fox\njumps over the lazy dog\n",
+            "jumps over the 1azy dog\nand keeps running\n"
+        ));
+
+        // Assert
+        assertEquals("The quick brown fox\njumps over the lazy dog\nand keeps running\n", text);
+    }
+
+    @Test
+    void testStitch_UsesBoxesToDropSlicedLinesAndKeepRepeatedRows() {
+        // Arrange: two bands of a 1000px page overlapping by 100px, cut at y=500
+        BufferedImage image = new BufferedImage(400, 1000, BufferedImage.TYPE_BYTE_GRAY);
+        List<ImageTiler.Tile> tiles = ImageTiler.split(image, 2, 100);
+        OcrRecognition upper = new OcrRecognition("Total\nRow 1\n5l1ced\n",
+            List.of(span("Total", 10, 100, 20), span("Row", 10, 460, 20), span("1", 60, 460, 20),
+                    span("5l1ced", 10, 530, 20)),
+            List.of(span("Total", 10, 100, 20), span("Row 1", 10, 460, 20), span("5l1ced", 10, 530, 20)));
+        OcrRecognition lower = new OcrRecognition("Row 1\nSliced\nRow 1\n",
+            List.of(span("Row", 10, 10, 20), span("1", 60, 10, 20), span("Sliced", 10, 80, 30),
+                    span("Row", 10, 300, 20), span("1", 60, 300, 20)),
+            List.of(span("Row 1", 10, 10, 20), span("Sliced", 10, 80, 30), span("Row 1", 10, 300, 20)));
+
+        // Act
+        OcrRecognition stitched = ImageTiler.stitch(tiles, List.of(upper, lower));
+
+        // Assert
+        assertEquals("Total\nRow 1\nSliced\nRow 1\n", stitched.text());
+        assertEquals(List.of("Total", "Row", "1", "Sliced", "Row", "1"),
+                     stitched.words().stream().map(OcrTextSpan::getText).toList());
+        assertEquals(List.of(100, 460, 530, 750),
+                     stitched.lines().stream().map(OcrTextSpan::getY).toList());
+    }
+
+    @Test
+    void testStitch_FallsBackToTextWithoutBoxes() {
+        // Arrange
+        BufferedImage image = new BufferedImage(400, 1000, BufferedImage.TYPE_BYTE_GRAY);
+        List<ImageTiler.Tile> tiles = ImageTiler.split(image, 2, 100);
+
+        // Act
+        OcrRecognition stitched = ImageTiler.stitch(tiles, List.of(
+            OcrRecognition.textOnly("The quick brown fox\njumps over the lazy dog\n"),
+            OcrRecognition.textOnly("jumps over the lazy dog\nand keeps running\n")));
+
+        // Assert
+        assertEquals("The quick brown fox\njumps over the lazy dog\nand keeps running\n", stitched.text());
+    }
+
+    private static OcrTextSpan span(String text, int x, int y, int height) {
+        return new OcrTextSpan(text, 90f, x, y, 40, height);
+    }
+}
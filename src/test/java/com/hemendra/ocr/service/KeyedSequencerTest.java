@@ -0,0 +1,117 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedSequencerTest {
+
+    private final KeyedSequencer<String> sequencer = new KeyedSequencer<>();
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testRun_SameKeyRunsInArrivalOrder() throws Exception {
+        // Arrange
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+
+        // Act
+        CompletableFuture<String> firstResult = sequencer.run("conv", () -> {
+            started.add("first");
+            return first.asMono();
+        }).toFuture();
+        CompletableFuture<String> secondResult = sequencer.run("conv", () -> {
+            started.add("second");
+            return second.asMono();
+        }).toFuture();
+
+        // Assert
+        assertEquals(List.of("first"), started);
+        first.tryEmitValue("one");
+        assertEquals("one", firstResult.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second"), started);
+        second.tryEmitValue("two");
+        assertEquals("two", secondResult.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, sequencer.getStats().get("queued"));
+        assertEquals(0, sequencer.getStats().get("active_keys"));
+    }
+
+    @Test
+    void testRun_DifferentKeysRunInParallel() {
+        // Act
+        sequencer.run("a", () -> {
+            started.add("a");
+            return Sinks.<String>one().asMono();
+        }).subscribe();
+        sequencer.run("b", () -> {
+            started.add("b");
+            return Sinks.<String>one().asMono();
+        }).subscribe();
+
+        // Assert
+        assertEquals(List.of("a", "b"), started);
+        assertEquals(0L, sequencer.getStats().get("queued"));
+    }
+
+    @Test
+    void testRun_CancelledWaiterDoesNotLetNextTaskJumpAhead() throws Exception {
+        // Arrange
+        Sinks.One<String> first = Sinks.one();
+        sequencer.run("conv", () -> {
+            started.add("first");
+            return first.asMono();
+        }).subscribe();
+        Disposable cancelled = sequencer.run("conv", () -> {
+            started.add("cancelled");
+            return Sinks.<String>one().asMono();
+        }).subscribe();
+        CompletableFuture<String> third = sequencer.run("conv", () -> {
+            started.add("third");
+            return Mono.just("three");
+        }).toFuture();
+
+        // Act
+        cancelled.dispose();
+
+        // Assert
+        assertEquals(List.of("first"), started);
+        first.tryEmitValue("one");
+        assertEquals("three", third.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "third"), started);
+    }
+
+    @Test
+    void testAwait_BlockingCallersTakeTurns() throws Exception {
+        // Arrange
+        KeyedSequencer.Ticket first = sequencer.enter("conv");
+        first.await();
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            KeyedSequencer.Ticket ticket = sequencer.enter("conv");
+            try {
+                ticket.await();
+                started.add("second");
+            } finally {
+                ticket.leave();
+            }
+        });
+
+        // Act
+        Thread.sleep(50);
+        boolean secondRanEarly = !started.isEmpty();
+        first.leave();
+        second.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(secondRanEarly);
+        assertEquals(List.of("second"), started);
+        assertEquals(0, sequencer.getStats().get("active_keys"));
+    }
+}
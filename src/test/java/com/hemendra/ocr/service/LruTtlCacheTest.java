@@ -0,0 +1,50 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruTtlCacheTest {
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsed() {
+        // Arrange
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a"); // touch "a" so "b" becomes the eldest
+
+        // Act
+        cache.put("c", "3");
+
+        // Assert
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        // Arrange
+        AtomicLong now = new AtomicLong(1_000);
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 500, now::get);
+        cache.put("a", "1");
+
+        // Act & Assert
+        now.addAndGet(499);
+        assertEquals("1", cache.get("a"));
+
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(1L, stats.get("expirations"));
+        assertEquals(0, stats.get("size"));
+    }
+}
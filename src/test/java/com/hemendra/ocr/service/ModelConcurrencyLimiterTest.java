@@ -0,0 +1,130 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.exception.QueueFullException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelConcurrencyLimiterTest {
+
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final List<Sinks.One<String>> running = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testAdmit_RunsAtMostMaxConcurrentPerModel() throws Exception {
+        // Arrange
+        ModelConcurrencyLimiter limiter = new ModelConcurrencyLimiter(1, "gemma2:2b=2", 10, 0);
+
+        // Act
+        CompletableFuture<String> first = call(limiter, "llava:latest", "a", "llava-1");
+        CompletableFuture<String> second = call(limiter, "llava:latest", "b", "llava-2");
+        call(limiter, "gemma2:2b", "a", "gemma-1");
+        call(limiter, "gemma2:2b", "b", "gemma-2");
+
+        // Assert
+        assertEquals(List.of("llava-1", "gemma-1", "gemma-2"), started);
+        running.get(0).tryEmitValue("done");
+        assertEquals("done", first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("llava-1", "gemma-1", "gemma-2", "llava-2"), started);
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    void testAdmit_ServesWaitingClientsRoundRobin() {
+        // Arrange
+        ModelConcurrencyLimiter limiter = new ModelConcurrencyLimiter(1, "", 10, 0);
+        call(limiter, "llava", "busy", "busy-1");
+        call(limiter, "llava", "busy", "busy-2");
+        call(limiter, "llava", "busy", "busy-3");
+        call(limiter, "llava", "quiet", "quiet-1");
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            running.get(i).tryEmitValue("done");
+        }
+
+        // Assert
+        assertEquals(List.of("busy-1", "busy-2", "quiet-1", "busy-3"), started);
+    }
+
+    @Test
+    void testAdmit_RejectsWhenQueueIsFull() {
+        // Arrange
+        ModelConcurrencyLimiter limiter = new ModelConcurrencyLimiter(1, "", 1, 0);
+        call(limiter, "llava", "a", "running");
+        call(limiter, "llava", "a", "queued");
+
+        // Act
+        CompletableFuture<String> rejected = call(limiter, "llava", "b", "rejected");
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(QueueFullException.class, exception.getCause());
+        assertEquals(1L, modelStats(limiter, "llava:latest").get("rejected"));
+    }
+
+    @Test
+    void testAdmit_FailsFastPastDeadlineWithoutLeakingSlot() throws Exception {
+        // Arrange
+        ModelConcurrencyLimiter limiter = new ModelConcurrencyLimiter(1, "", 10, 100);
+        call(limiter, "llava", "a", "running");
+
+        // Act
+        CompletableFuture<String> waiting = call(limiter, "llava", "b", "late");
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        running.get(0).tryEmitValue("done");
+        CompletableFuture<String> next = call(limiter, "llava", "c", "next");
+
+        // Assert
+        assertInstanceOf(QueueFullException.class, exception.getCause());
+        assertEquals(List.of("running", "next"), started);
+        assertFalse(next.isDone());
+        Map<String, Object> stats = modelStats(limiter, "llava:latest");
+        assertEquals(1L, stats.get("timeouts"));
+        assertEquals(0, stats.get("queued"));
+        assertEquals(1, stats.get("active"));
+    }
+
+    @Test
+    void testAdmit_RecordsQueueTime() throws Exception {
+        // Arrange
+        ModelConcurrencyLimiter limiter = new ModelConcurrencyLimiter(1, "", 10, 0);
+        call(limiter, "llava", "a", "first");
+        call(limiter, "llava", "b", "second");
+
+        // Act
+        Thread.sleep(50);
+        running.get(0).tryEmitValue("done");
+
+        // Assert
+        Map<String, Object> stats = modelStats(limiter, "llava:latest");
+        assertEquals(2L, stats.get("admitted"));
+        assertTrue((double) stats.get("max_queue_ms") >= 40.0);
+    }
+
+    /**
+     * Start a call that runs until the test completes its sink
+     */
+    private CompletableFuture<String> call(ModelConcurrencyLimiter limiter, String model, String client, String name) {
+        return limiter.admit(model, client, () -> {
+            started.add(name);
+            Sinks.One<String> sink = Sinks.one();
+            running.add(sink);
+            return sink.asMono();
+        }).toFuture();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> modelStats(ModelConcurrencyLimiter limiter, String model) {
+        Map<String, Object> models = (Map<String, Object>) limiter.getStats().get("models");
+        return (Map<String, Object>) models.get(model);
+    }
+}
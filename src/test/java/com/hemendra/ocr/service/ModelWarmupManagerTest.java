@@ -0,0 +1,154 @@
+package com.hemendra.ocr.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelWarmupManagerTest {
+
+    private HttpServer server;
+    private OllamaRouter router;
+    private final ModelConcurrencyLimiter limiter = ModelConcurrencyLimiter.unlimited();
+    private final List<String> generateBodies = new CopyOnWriteArrayList<>();
+    private volatile String runningModels = "";
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub Ollama: generate loads a model, ps reports whatever the test says is loaded
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", exchange -> {
+            generateBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            respond(exchange, "{\"response\":\"\",\"done\":true,\"done_reason\":\"load\"}");
+        });
+        server.createContext("/api/ps", exchange -> respond(exchange, "{\"models\":[" + runningModels + "]}"));
+        server.start();
+
+        router = OllamaRouter.of("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        router.shutdown();
+    }
+
+    @Test
+    void testMaintain_PreloadsModelsWithKeepAliveAndReportsReady() throws Exception {
+        // Arrange
+        ModelWarmupManager manager = new ModelWarmupManager(router, limiter, true, new String[] {"llava", "gemma2:2b"},
+                                                            "5m", "llava:latest=30m", 1000);
+        assertFalse(manager.isReady());
+
+        // Act
+        manager.maintain();
+        waitUntil(manager::isReady);
+
+        // Assert
+        assertEquals(2, generateBodies.size());
+        assertTrue(generateBodies.stream().anyMatch(body -> body.contains("\"llava:latest\"") 
+                                                            && body.contains("\"keep_alive\":\"30m\"")));
+        assertTrue(generateBodies.stream().anyMatch(body -> body.contains("\"gemma2:2b\"") 
+                                                            && body.contains("\"keep_alive\":\"5m\"")));
+        assertEquals(Map.of("llava:latest", "ready", "gemma2:2b", "ready"), manager.getModelStates());
+    }
+
+    @Test
+    void testMaintain_RewarmsModelEvictedByOllama() throws Exception {
+        // Arrange
+        ModelWarmupManager manager = new ModelWarmupManager(router, limiter, true, new String[] {"gemma2:2b"}, "", "", 1000);
+        manager.maintain();
+        waitUntil(manager::isReady);
+
+        // Act
+        runningModels = "";
+        router.probeBackends();
+        boolean readyAfterEviction = manager.isReady();
+        manager.maintain();
+        waitUntil(manager::isReady);
+
+        // Assert
+        assertFalse(readyAfterEviction);
+        assertEquals(2, generateBodies.size());
+        assertEquals(1L, manager.getStats().get("rewarms"));
+    }
+
+    @Test
+    void testMaintain_SkipsModelsAlreadyLoaded() {
+        // Arrange
+        runningModels = "{\"name\":\"gemma2:2b\"}";
+        router.probeBackends();
+        ModelWarmupManager manager = new ModelWarmupManager(router, limiter, true, new String[] {"gemma2:2b"}, "", "", 1000);
+
+        // Act
+        manager.maintain();
+
+        // Assert
+        assertTrue(manager.isReady());
+        assertTrue(generateBodies.isEmpty());
+    }
+
+    @Test
+    void testMaintain_WaitsForAFreeModelSlot() throws Exception {
+        // Arrange
+        ModelConcurrencyLimiter oneSlot = new ModelConcurrencyLimiter(1, "", 10, 0);
+        Sinks.One<String> busy = Sinks.one();
+        oneSlot.admit("gemma2:2b", "client", busy::asMono).subscribe();
+        ModelWarmupManager manager = new ModelWarmupManager(router, oneSlot, true, new String[] {"gemma2:2b"}, "", "", 1000);
+
+        // Act
+        manager.maintain();
+        Thread.sleep(200);
+        List<String> sentWhileBusy = List.copyOf(generateBodies);
+        String stateWhileBusy = manager.getModelStates().get("gemma2:2b");
+        busy.tryEmitValue("done");
+        waitUntil(manager::isReady);
+
+        // Assert
+        assertTrue(sentWhileBusy.isEmpty());
+        assertEquals("warming", stateWhileBusy);
+        assertTrue(manager.isReady());
+        assertEquals(1, generateBodies.size());
+    }
+
+    @Test
+    void testRecordLoadDuration_CountsOnlySlowLoadsAsColdStarts() {
+        // Arrange
+        ModelWarmupManager manager = new ModelWarmupManager(router, limiter, false, new String[0], "", "", 1000);
+
+        // Act
+        manager.recordLoadDuration("llava", 5_000_000L);
+        manager.recordLoadDuration("llava", 12_000_000_000L);
+
+        // Assert
+        assertEquals(Map.of("llava:latest", 1L), manager.getStats().get("cold_starts"));
+        assertNull(manager.keepAliveFor("llava"));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OcrJobResponse;
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrResponse;
+import com.hemendra.ocr.exception.QueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OcrJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final UploadSpooler uploadSpooler = UploadSpooler.disabled();
+    private OcrJobService jobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        OcrService ocrService = mock(OcrService.class);
+        when(ocrService.extractTextFromImage(any(), any(OcrOptions.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new OcrResponse("Extracted text", "test.png", 10L);
+        });
+        jobService = new OcrJobService(ocrService, new TesseractPool(1, 100), uploadSpooler, 1, 1, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_RejectsWhenQueueIsFull() throws Exception {
+        // Arrange: one job running, one queued
+        jobService.submit(image(), new OcrOptions("eng"));
+        jobService.submit(image(), new OcrOptions("eng"));
+
+        // Act & Assert
+        QueueFullException exception = assertThrows(QueueFullException.class,
+            () -> jobService.submit(image(), new OcrOptions("eng")));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(1L, jobService.getStats().get("rejected"));
+        assertEquals(2L, uploadSpooler.getStats().get("spooled_files"));
+    }
+
+    @Test
+    void testSubmit_CompletesWithResult() throws Exception {
+        // Arrange
+        OcrJobResponse job = jobService.submit(image(), new OcrOptions("eng"));
+        assertNull(jobService.getResult(job.getJobId()));
+
+        // Act
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while ("QUEUED,RUNNING".contains(jobService.getStatus(job.getJobId()).getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals("Extracted text", jobService.getResult(job.getJobId()).getExtractedText());
+        assertEquals("COMPLETED", jobService.getStatus(job.getJobId()).getStatus());
+    }
+
+    private MockMultipartFile image() {
+        return new MockMultipartFile("file", "test.png", "image/png", "test image content".getBytes());
+    }
+}
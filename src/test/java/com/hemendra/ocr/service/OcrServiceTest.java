@@ -1,12 +1,42 @@
 package com.hemendra.ocr.service;
 
+import com.hemendra.ocr.dto.OcrOptions;
+import com.hemendra.ocr.dto.OcrPageResult;
+import com.hemendra.ocr.dto.OcrRegion;
 import com.hemendra.ocr.dto.OcrResponse;
 import com.hemendra.ocr.exception.OcrException;
+import com.hemendra.ocr.service.preprocess.ImagePreprocessingPipeline;
+import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class OcrServiceTest {
 
@@ -14,7 +44,8 @@ class OcrServiceTest {
 
     @BeforeEach
     void setUp() {
-        ocrService = new OcrService();
+        ocrService = new OcrService(new TesseractPool(2, 1000), OcrResultCache.disabled(),
+                                    ImagePreprocessingPipeline.disabled(), UploadSpooler.disabled());
     }
 
     @Test
@@ -67,6 +98,37 @@ class OcrServiceTest {
         assertTrue(exception.getMessage().contains("exceeds maximum limit"));
     }
 
+    @Test
+    void testExtractRegions_DuplicateRegionName() {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "form.png", "image/png", "content".getBytes());
+        List<OcrRegion> regions = List.of(
+            new OcrRegion("header", 0, 0, 100, 50, 6),
+            new OcrRegion("header", 0, 60, 100, 50, 7)
+        );
+
+        // Act & Assert
+        OcrException exception = assertThrows(OcrException.class, () -> {
+            ocrService.extractRegions(file, regions, new OcrOptions());
+        });
+        
+        assertTrue(exception.getMessage().contains("Duplicate region name"));
+    }
+
+    @Test
+    void testExtractRegions_InvalidPageSegMode() {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "form.png", "image/png", "content".getBytes());
+        List<OcrRegion> regions = List.of(new OcrRegion("total", 10, 10, 100, 50, 42));
+
+        // Act & Assert
+        OcrException exception = assertThrows(OcrException.class, () -> {
+            ocrService.extractRegions(file, regions, new OcrOptions());
+        });
+        
+        assertTrue(exception.getMessage().contains("invalid page segmentation mode"));
+    }
+
     @Test
     void testGetSupportedFormats() {
         // Act
@@ -79,4 +141,213 @@ class OcrServiceTest {
         assertTrue(formats.contains("jpg"));
         assertTrue(formats.contains("jpeg"));
     }
+
+    @Test
+    void testExpandArchive_SpoolsEntriesToDisk(@TempDir Path spoolDir) throws Exception {
+        // Arrange
+        OcrService service = new OcrService(new TesseractPool(2, 1000), OcrResultCache.disabled(),
+                                            ImagePreprocessingPipeline.disabled(),
+                                            new UploadSpooler(DataSize.ofMegabytes(1), spoolDir.toString()));
+        byte[] first = new byte[4096];
+        Arrays.fill(first, (byte) 1);
+        MockMultipartFile archive = zip(Map.of("scans/a.png", first, "b.png", new byte[16], 
+                                               "__MACOSX/._a.png", new byte[8]));
+
+        // Act
+        List<FileBackedMultipartFile> files = service.expandArchive(archive);
+
+        // Assert
+        try {
+            assertEquals(2, files.size());
+            FileBackedMultipartFile a = files.stream()
+                .filter(f -> "a.png".equals(f.getOriginalFilename())).findFirst().orElseThrow();
+            assertEquals(spoolDir, a.getPath().getParent());
+            assertArrayEquals(first, Files.readAllBytes(a.getPath()));
+        } finally {
+            files.forEach(FileBackedMultipartFile::close);
+        }
+        try (var remaining = Files.list(spoolDir)) {
+            assertEquals(0, remaining.count());
+        }
+    }
+
+    @Test
+    void testExpandArchive_OversizedEntryIsRejectedAndSpoolCleared(@TempDir Path spoolDir) throws Exception {
+        // Arrange
+        OcrService service = new OcrService(new TesseractPool(2, 1000), OcrResultCache.disabled(),
+                                            ImagePreprocessingPipeline.disabled(),
+                                            new UploadSpooler(DataSize.ofMegabytes(1), spoolDir.toString()));
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("small.png", new byte[16]);
+        // One byte over the default upload limit (ocr.upload.max-file-size)
+        entries.put("huge.png", new byte[10 * 1024 * 1024 + 1]);
+        MockMultipartFile archive = zip(entries);
+
+        // Act
+        OcrException exception = assertThrows(OcrException.class, () -> service.expandArchive(archive));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("huge.png"));
+        try (var remaining = Files.list(spoolDir)) {
+            assertEquals(0, remaining.count());
+        }
+    }
+
+    @Test
+    void testExtractTextFromImage_CacheHitReportsSameFieldsAsMiss(@TempDir Path tessData) throws Exception {
+        // Arrange: a tall image that is split across both engines of the pool
+        Files.createFile(tessData.resolve("eng.traineddata"));
+        ITesseract engine = mock(ITesseract.class);
+        when(engine.doOCR(any(BufferedImage.class))).thenReturn("text");
+        OcrService service = new OcrService(new TesseractPool(2, 1000, tessData.toString(), language -> engine),
+                                            new OcrResultCache(true, 10, 60, null), 
+                                            ImagePreprocessingPipeline.disabled(), UploadSpooler.disabled());
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(50, 1700, BufferedImage.TYPE_BYTE_GRAY), "png", png);
+        OcrOptions options = new OcrOptions("eng");
+        options.setTiled(true);
+
+        // Act
+        OcrResponse miss;
+        OcrResponse hit;
+        try {
+            miss = service.extractTextFromImage(new MockMultipartFile("file", "tall.png", "image/png", 
+                                                                      png.toByteArray()), options);
+            hit = service.extractTextFromImage(new MockMultipartFile("file", "tall.png", "image/png", 
+                                                                     png.toByteArray()), options);
+        } finally {
+            service.shutdown();
+        }
+
+        // Assert
+        assertFalse(miss.isCached());
+        assertTrue(hit.isCached());
+        assertEquals(2, miss.getTileCount());
+        assertEquals(miss.getTileCount(), hit.getTileCount());
+        assertNotNull(hit.getPreprocessingMs());
+        assertEquals(miss.getPreprocessingMs(), hit.getPreprocessingMs());
+    }
+
+    private static MockMultipartFile zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("archive", "scans.zip", "application/zip", bytes.toByteArray());
+    }
+
+    @Test
+    void testExtractPages_RecognizesEveryPdfPageAndReportsFailedPage(@TempDir Path tessData) throws Exception {
+        // Arrange: page 3 is twice as wide, and the engine fails on it
+        Files.createFile(tessData.resolve("eng.traineddata"));
+        ITesseract engine = mock(ITesseract.class);
+        when(engine.doOCR(any(BufferedImage.class))).thenAnswer(invocation -> {
+            BufferedImage image = invocation.getArgument(0);
+            if (image.getWidth() > image.getHeight()) {
+                throw new TesseractException("engine crashed");
+            }
+            return "page text";
+        });
+        OcrService service = new OcrService(new TesseractPool(2, 1000, tessData.toString(), language -> engine),
+                                            OcrResultCache.disabled(), ImagePreprocessingPipeline.disabled(),
+                                            UploadSpooler.disabled());
+        MockMultipartFile pdf = pdf(new PDRectangle(72, 72), new PDRectangle(72, 72), new PDRectangle(144, 72),
+                                    new PDRectangle(72, 72), new PDRectangle(72, 72));
+
+        // Act
+        List<OcrPageResult> results = new ArrayList<>();
+        try (PageSource pages = service.openPages(pdf)) {
+            service.extractPages(pages, new OcrOptions("eng"), results::add);
+        } finally {
+            service.shutdown();
+        }
+
+        // Assert
+        results.sort(Comparator.comparingInt(OcrPageResult::getPage));
+        assertEquals(5, results.size());
+        for (OcrPageResult result : results) {
+            assertEquals(5, result.getTotalPages());
+            if (result.getPage() == 3) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.getErrorMessage().contains("engine crashed"));
+            } else {
+                assertTrue(result.isSuccess());
+                assertEquals("page text", result.getExtractedText());
+            }
+        }
+    }
+
+    @Test
+    void testExtractPages_DecodesNoMorePagesThanTheWindow(@TempDir Path tessData) throws Exception {
+        // Arrange: a pool of one engine allows two pages in flight
+        Files.createFile(tessData.resolve("eng.traineddata"));
+        ITesseract engine = mock(ITesseract.class);
+        when(engine.doOCR(any(BufferedImage.class))).thenReturn("text");
+        OcrService service = new OcrService(new TesseractPool(1, 1000, tessData.toString(), language -> engine),
+                                            OcrResultCache.disabled(), ImagePreprocessingPipeline.disabled(),
+                                            UploadSpooler.disabled());
+        int totalPages = 12;
+        AtomicInteger decoded = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        PageSource pages = new PageSource() {
+            @Override
+            public int getPageCount() {
+                return totalPages;
+            }
+
+            @Override
+            public BufferedImage readPage(int pageIndex) throws IOException {
+                if (pageIndex == 7) {
+                    throw new IOException("corrupt page");
+                }
+                maxOutstanding.accumulateAndGet(decoded.incrementAndGet() - delivered.get(), Math::max);
+                return new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY);
+            }
+
+            @Override
+            public int getDpi(int pageIndex) {
+                return 300;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        // Act
+        List<OcrPageResult> results = new ArrayList<>();
+        try {
+            service.extractPages(pages, new OcrOptions("eng"), result -> {
+                if (result.isSuccess()) {
+                    delivered.incrementAndGet();
+                }
+                results.add(result);
+            });
+        } finally {
+            service.shutdown();
+        }
+
+        // Assert
+        assertEquals(totalPages, results.size());
+        assertTrue(maxOutstanding.get() <= 2, "decoded ahead: " + maxOutstanding.get());
+        OcrPageResult failed = results.stream().filter(r -> !r.isSuccess()).findFirst().orElseThrow();
+        assertEquals(8, failed.getPage());
+        assertTrue(failed.getErrorMessage().contains("corrupt page"));
+    }
+
+    private static MockMultipartFile pdf(PDRectangle... pageSizes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            for (PDRectangle size : pageSizes) {
+                document.addPage(new PDPage(size));
+            }
+            document.save(bytes);
+        }
+        return new MockMultipartFile("file", "scan.pdf", "application/pdf", bytes.toByteArray());
+    }
 }
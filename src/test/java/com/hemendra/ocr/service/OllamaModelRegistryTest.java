@@ -0,0 +1,123 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.dto.OllamaModelInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaModelRegistryTest {
+
+    private static final String TAGS = "{\"models\":["
+        + "{\"name\":\"llava:latest\",\"digest\":\"d1\",\"size\":4700000000,"
+        + "\"details\":{\"family\":\"llama\",\"families\":[\"llama\",\"clip\"],\"parameter_size\":\"7B\"}},"
+        + "{\"name\":\"gemma2:2b\",\"digest\":\"d2\",\"size\":1600000000,"
+        + "\"details\":{\"family\":\"gemma2\",\"families\":[\"gemma2\"],\"parameter_size\":\"2.6B\"}},"
+        + "{\"name\":\"nomic-embed-text:latest\",\"digest\":\"d3\",\"size\":270000000,"
+        + "\"details\":{\"family\":\"nomic-bert\"}}]}";
+
+    private HttpServer server;
+    private OllamaRouter router;
+    private OllamaModelRegistry registry;
+    private final AtomicInteger tagsCalls = new AtomicInteger();
+    private final AtomicInteger showCalls = new AtomicInteger();
+    private volatile int tagsStatus = 200;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", exchange -> {
+            tagsCalls.incrementAndGet();
+            respond(exchange, tagsStatus, TAGS);
+        });
+        server.createContext("/api/show", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            showCalls.incrementAndGet();
+            String capabilities = request.contains("llava") ? "[\"completion\",\"vision\"]"
+                : request.contains("embed") ? "[\"embedding\"]" : "[\"completion\"]";
+            respond(exchange, 200, "{\"capabilities\":" + capabilities + "}");
+        });
+        server.start();
+
+        router = OllamaRouter.of("http://127.0.0.1:" + server.getAddress().getPort());
+        registry = new OllamaModelRegistry(router);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        router.shutdown();
+    }
+
+    @Test
+    void testRefresh_ClassifiesVisionAndTextModels() {
+        // Act
+        registry.refresh();
+
+        // Assert
+        assertEquals(List.of("llava:latest"), registry.getVisionModelNames());
+        assertEquals(List.of("gemma2:2b"), registry.getTextModelNames());
+        OllamaModelInfo llava = registry.find("llava").orElseThrow();
+        assertTrue(llava.isVision());
+        assertEquals("7B", llava.getParameterSize());
+        assertEquals(List.of(router.getBackends().get(0).getBaseUrl()), llava.getBackends());
+    }
+
+    @Test
+    void testLookups_AreServedFromMemory() {
+        // Arrange
+        registry.refresh();
+        int callsAfterRefresh = tagsCalls.get() + showCalls.get();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            registry.getTextModelNames();
+            registry.isInstalled("gemma2:2b");
+        }
+
+        // Assert
+        assertEquals(callsAfterRefresh, tagsCalls.get() + showCalls.get());
+    }
+
+    @Test
+    void testRefresh_InspectsUnchangedModelsOnlyOnce() {
+        // Act
+        registry.refresh();
+        registry.refresh();
+
+        // Assert
+        assertEquals(2, tagsCalls.get());
+        assertEquals(3, showCalls.get());
+    }
+
+    @Test
+    void testRefresh_KeepsLastKnownModelsWhenBackendFails() {
+        // Arrange
+        registry.refresh();
+        tagsStatus = 500;
+
+        // Act
+        registry.refresh();
+
+        // Assert
+        assertTrue(registry.isInstalled("gemma2:2b"));
+        assertEquals(1L, registry.getStats().get("refresh_errors"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
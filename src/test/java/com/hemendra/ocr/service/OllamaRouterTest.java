@@ -0,0 +1,205 @@
+package com.hemendra.ocr.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaRouterTest {
+
+    private final List<StubOllama> stubs = new ArrayList<>();
+    private OllamaRouter router;
+
+    @AfterEach
+    void tearDown() {
+        stubs.forEach(stub -> {
+            stub.release.countDown();
+            stub.server.stop(0);
+        });
+        if (router != null) {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void testRoute_SpreadsOutstandingRequestsAcrossBackends() throws Exception {
+        // Arrange
+        StubOllama a = stub();
+        StubOllama b = stub();
+        a.holdRequests = true;
+        b.holdRequests = true;
+        router = OllamaRouter.of(a.url(), b.url());
+
+        // Act
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            pending.add(generate(null).toFuture());
+            waitForInFlight(i + 1);
+        }
+        a.release.countDown();
+        b.release.countDown();
+        for (CompletableFuture<String> call : pending) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertEquals(2, a.generateCalls.get());
+        assertEquals(2, b.generateCalls.get());
+        assertEquals(0, router.getBackends().get(0).getInFlight());
+    }
+
+    @Test
+    void testRoute_PrefersBackendWithModelLoaded() {
+        // Arrange
+        StubOllama a = stub();
+        StubOllama b = stub();
+        b.runningModels = "{\"name\":\"llava:latest\",\"model\":\"llava:latest\"}";
+        router = OllamaRouter.of(a.url(), b.url());
+        router.probeBackends();
+
+        // Act
+        generate("llava:latest").block();
+        generate("gemma2:2b").block();
+
+        // Assert
+        assertEquals(1, a.generateCalls.get());
+        assertEquals(1, b.generateCalls.get());
+        assertTrue(router.getBackends().get(1).hasModelLoaded("llava:latest"));
+        assertTrue(router.getBackends().get(0).hasModelLoaded("gemma2:2b"));
+    }
+
+    @Test
+    void testRoute_EjectsFailingBackendUntilProbeSucceeds() {
+        // Arrange
+        StubOllama a = stub();
+        StubOllama b = stub();
+        a.status = 500;
+        router = OllamaRouter.of(a.url(), b.url());
+        OllamaBackend failing = router.getBackends().get(0);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WebClientResponseException.class, () -> generate(null).block());
+        }
+        generate(null).block();
+        router.probeBackends();
+        boolean healthyWhileFailing = failing.isHealthy();
+        a.status = 200;
+        router.probeBackends();
+
+        // Assert
+        assertFalse(healthyWhileFailing);
+        assertTrue(failing.isHealthy());
+        assertEquals(3, a.generateCalls.get());
+        assertEquals(1, b.generateCalls.get());
+        assertEquals(1L, failing.getStats().get("ejections"));
+    }
+
+    @Test
+    void testRoute_ClientErrorsDoNotEjectBackend() {
+        // Arrange
+        StubOllama a = stub();
+        a.status = 404;
+        router = OllamaRouter.of(a.url());
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WebClientResponseException.class, () -> generate("missing:latest").block());
+        }
+
+        // Assert
+        OllamaBackend backend = router.getBackends().get(0);
+        assertTrue(backend.isHealthy());
+        assertFalse(backend.hasModelLoaded("missing:latest"));
+        Map<String, Object> stats = router.getStats();
+        assertEquals(1L, stats.get("healthy_count"));
+    }
+
+    private Mono<String> generate(String model) {
+        return router.route(model, backend -> backend.webClient().post()
+            .uri("/api/generate")
+            .bodyValue("{}")
+            .retrieve()
+            .bodyToMono(String.class));
+    }
+
+    private void waitForInFlight(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stubs.stream().mapToInt(stub -> stub.generateCalls.get()).sum() < expected
+               && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private StubOllama stub() {
+        try {
+            StubOllama stub = new StubOllama();
+            stubs.add(stub);
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Minimal Ollama stand-in with a configurable status for generate and probe calls
+     */
+    private static final class StubOllama {
+
+        final HttpServer server;
+        final AtomicInteger generateCalls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean holdRequests;
+        volatile int status = 200;
+        volatile String runningModels = "";
+
+        StubOllama() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/api/generate", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                generateCalls.incrementAndGet();
+                if (holdRequests) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                respond(exchange, status, "{\"response\":\"ok\",\"done\":true}");
+            });
+            server.createContext("/api/ps", exchange ->
+                respond(exchange, status == 500 ? 500 : 200, "{\"models\":[" + runningModels + "]}"));
+            server.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private static void respond(HttpExchange exchange, int status, String json) 
+                throws IOException {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.hemendra.ocr.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hemendra.ocr.dto.AiAnalysisResponse;
+import com.hemendra.ocr.dto.OllamaResponse;
+import com.hemendra.ocr.exception.OcrException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import reactor.core.Disposable;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OllamaServiceTest {
+
+    private static final String GENERATE_RESPONSE = 
+        "{\"model\":\"llava:latest\",\"response\":\"A cat on a mat\",\"done\":true,"
+        + "\"total_duration\":2000000000,\"eval_count\":12}";
+
+    private HttpServer server;
+    private OllamaRouter router;
+    private OllamaService ollamaService;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger generateCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub Ollama that holds every generate call until the test releases it
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            generateCalls.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = GENERATE_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        router = OllamaRouter.of("http://127.0.0.1:" + server.getAddress().getPort());
+        ollamaService = new OllamaService(VisionImageEncoder.disabled(), UploadSpooler.disabled(), new AiAnalysisCache(true, 10, 60), 
+                                          router, new OllamaModelRegistry(router), 
+                                          new ModelWarmupManager(router, ModelConcurrencyLimiter.unlimited(), 
+                                                                 false, new String[0], "", "", 1000), 
+                                          ModelConcurrencyLimiter.unlimited(), 
+                                          true, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        ollamaService.shutdown();
+        router.shutdown();
+    }
+
+    @Test
+    void testAnalyzeImageReactive_DoesNotBlockCaller() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "cat.png", "image/png", "image".getBytes());
+
+        // Act
+        CompletableFuture<AiAnalysisResponse> pending = ollamaService.analyzeImageReactive(file).toFuture();
+
+        // Assert
+        Thread.sleep(200);
+        assertFalse(pending.isDone());
+
+        release.countDown();
+        AiAnalysisResponse response = pending.get(10, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertEquals("A cat on a mat", response.getAnalysis());
+        assertEquals(2000L, response.getOllamaStats().getTotalDurationMs());
+    }
+
+    @Test
+    void testAnalyzeImageStream_RelaysChunksThenStats() throws Exception {
+        // Arrange
+        String chunks = "{\"model\":\"llava:latest\",\"response\":\"A cat\",\"done\":false}\n"
+            + "{\"model\":\"llava:latest\",\"response\":\" on a mat\",\"done\":false}\n"
+            + "{\"model\":\"llava:latest\",\"response\":\"\",\"done\":true,\"eval_count\":4,"
+            + "\"total_duration\":3000000000,\"prompt_eval_duration\":500000000}\n";
+        server.removeContext("/api/generate");
+        server.createContext("/api/generate", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(request.contains("\"stream\":true"));
+            byte[] body = chunks.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        MockMultipartFile file = new MockMultipartFile("file", "cat.png", "image/png", "image".getBytes());
+
+        // Act
+        List<OllamaResponse> received = ollamaService.analyzeImageStream(file, "Describe", "llava:latest")
+            .collectList()
+            .block();
+
+        // Assert
+        assertNotNull(received);
+        assertEquals(3, received.size());
+        assertEquals("A cat", received.get(0).getResponse());
+        assertTrue(received.get(2).isDone());
+        AiAnalysisResponse.OllamaStats stats = OllamaService.toStats(received.get(2));
+        assertEquals(3000L, stats.getTotalDurationMs());
+        assertEquals(500L, stats.getPromptEvalDurationMs());
+        assertEquals(4, stats.getEvalCount());
+    }
+
+    @Test
+    void testAnalyzeImage_StreamsImageAsBase64InRequestBody() throws Exception {
+        // Arrange
+        byte[] content = new byte[StreamingImageRequestBody.CHUNK_SIZE * 3 + 7];
+        new Random(7).nextBytes(content);
+        AtomicReference<String> requestBody = new AtomicReference<>();
+        server.removeContext("/api/generate");
+        server.createContext("/api/generate", exchange -> {
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = GENERATE_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        MockMultipartFile file = new MockMultipartFile("file", "scan.png", "image/png", content);
+
+        // Act
+        AiAnalysisResponse response = ollamaService.analyzeImage(file, "Read this", "llava:latest");
+
+        // Assert
+        assertTrue(response.isSuccess());
+        JsonNode json = new ObjectMapper().readTree(requestBody.get());
+        assertEquals("llava:latest", json.get("model").asText());
+        assertEquals("Read this", json.get("prompt").asText());
+        assertFalse(json.get("stream").asBoolean());
+        assertEquals(1, json.get("images").size());
+        assertArrayEquals(content, Base64.getDecoder().decode(json.get("images").get(0).asText()));
+    }
+
+    @Test
+    void testAnalyzeImage_RepeatedRequestServedFromCache() throws Exception {
+        // Arrange
+        release.countDown();
+        MockMultipartFile file = new MockMultipartFile("file", "cat.png", "image/png", "image".getBytes());
+        MockMultipartFile sameBytes = new MockMultipartFile("file", "copy.png", "image/png", "image".getBytes());
+
+        // Act
+        AiAnalysisResponse first = ollamaService.analyzeImage(file, "Describe", "llava:latest");
+        AiAnalysisResponse second = ollamaService.analyzeImage(sameBytes, "Describe", "llava:latest");
+        AiAnalysisResponse otherPrompt = ollamaService.analyzeImage(file, "Read the text", "llava:latest");
+
+        // Assert
+        assertFalse(first.isCached());
+        assertTrue(second.isCached());
+        assertFalse(otherPrompt.isCached());
+        assertEquals(2, generateCalls.get());
+        assertEquals("A cat on a mat", second.getAnalysis());
+        assertEquals("copy.png", second.getFileName());
+        assertEquals(2000L, second.getOllamaStats().getTotalDurationMs());
+    }
+
+    @Test
+    void testInvalidateCachedImage_ForcesNewGeneration() throws Exception {
+        // Arrange
+        release.countDown();
+        MockMultipartFile file = new MockMultipartFile("file", "cat.png", "image/png", "image".getBytes());
+        ollamaService.analyzeImage(file, "Describe", "llava:latest");
+
+        // Act
+        int removed = ollamaService.invalidateCachedImage(ContentHash.sha256(file));
+        AiAnalysisResponse response = ollamaService.analyzeImage(file, "Describe", "llava:latest");
+
+        // Assert
+        assertEquals(1, removed);
+        assertFalse(response.isCached());
+        assertEquals(2, generateCalls.get());
+    }
+
+    @Test
+    void testAnalyzeImageReactive_ConcurrentIdenticalRequestsShareOneCall() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "cat.png", "image/png", "image".getBytes());
+        MockMultipartFile retry = new MockMultipartFile("file", "retry.png", "image/png", "image".getBytes());
+
+        // Act
+        CompletableFuture<AiAnalysisResponse> first = ollamaService.analyzeImageReactive(file).toFuture();
+        CompletableFuture<AiAnalysisResponse> second = ollamaService.analyzeImageReactive(retry).toFuture();
+        Thread.sleep(200);
+        release.countDown();
+
+        // Assert
+        assertEquals("A cat on a mat", first.get(10, TimeUnit.SECONDS).getAnalysis());
+        AiAnalysisResponse joined = second.get(10, TimeUnit.SECONDS);
+        assertEquals("A cat on a mat", joined.getAnalysis());
+        assertEquals("retry.png", joined.getFileName());
+        assertFalse(joined.isCached());
+        assertEquals(1, generateCalls.get());
+    }
+
+    @Test
+    void testAnalyzeImageReactive_JoinedCallerOutlivesFirstCallersUpload() throws Exception {
+        // Arrange
+        AtomicReference<String> sentImage = new AtomicReference<>();
+        server.removeContext("/api/generate");
+        server.createContext("/api/generate", exchange -> {
+            JsonNode json = new ObjectMapper().readTree(exchange.getRequestBody().readAllBytes());
+            if (json.get("prompt").asText().equals("Hold")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                sentImage.set(json.get("images").get(0).asText());
+            }
+            byte[] body = GENERATE_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // One slot, so the shared call waits for admission while the first client goes away
+        OllamaService limited = new OllamaService(VisionImageEncoder.disabled(), UploadSpooler.disabled(),
+                                                  new AiAnalysisCache(true, 10, 60), router, 
+                                                  new OllamaModelRegistry(router),
+                                                  new ModelWarmupManager(router, ModelConcurrencyLimiter.unlimited(),
+                                                                         false, new String[0], "", "", 1000),
+                                                  new ModelConcurrencyLimiter(1, "", 10, 10000),
+                                                  true, 2, 100);
+        Path upload = Files.createTempFile("upload-", ".png");
+        Files.write(upload, "image".getBytes());
+        FileBackedMultipartFile first = new FileBackedMultipartFile("file", "cat.png", "image/png", upload);
+        MockMultipartFile joined = new MockMultipartFile("file", "retry.png", "image/png", "image".getBytes());
+        MockMultipartFile other = new MockMultipartFile("file", "other.png", "image/png", "other".getBytes());
+
+        try {
+            CompletableFuture<AiAnalysisResponse> holder = limited.analyzeImageReactive(other, "Hold", "llava:latest")
+                .toFuture();
+            Thread.sleep(200);
+
+            // Act
+            Disposable firstCaller = limited.analyzeImageReactive(first, "Describe", "llava:latest").subscribe();
+            CompletableFuture<AiAnalysisResponse> joinedCaller = 
+                limited.analyzeImageReactive(joined, "Describe", "llava:latest").toFuture();
+            Thread.sleep(200);
+            // The first client disconnects and the container deletes its multipart temp file
+            firstCaller.dispose();
+            first.close();
+            release.countDown();
+
+            // Assert
+            assertEquals("A cat on a mat", holder.get(10, TimeUnit.SECONDS).getAnalysis());
+            AiAnalysisResponse response = joinedCaller.get(10, TimeUnit.SECONDS);
+            assertEquals("A cat on a mat", response.getAnalysis());
+            assertEquals("retry.png", response.getFileName());
+            assertArrayEquals("image".getBytes(), Base64.getDecoder().decode(sentImage.get()));
+            Map<?, ?> stats = (Map<?, ?>) limited.getCoalescingStats().get("analyze");
+            assertEquals(1L, stats.get("coalesced"));
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void testAnalyzeImage_InvalidContentType() {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain", "text".getBytes());
+
+        // Act & Assert
+        OcrException exception = assertThrows(OcrException.class, () -> ollamaService.analyzeImage(file));
+        assertTrue(exception.getMessage().contains("File must be an image"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testExecute_IdenticalCallsShareOneUpstreamCall() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>(true);
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> first = flights.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).toFuture();
+        CompletableFuture<String> second = flights.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).toFuture();
+        upstream.tryEmitValue("result");
+
+        // Assert
+        assertEquals("result", first.get(5, TimeUnit.SECONDS));
+        assertEquals("result", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1L, flights.getStats().get("coalesced"));
+        assertEquals(0, flights.getStats().get("in_flight"));
+    }
+
+    @Test
+    void testExecute_DifferentKeysRunIndependently() {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String a = flights.execute("a", () -> Mono.fromCallable(() -> "a" + calls.incrementAndGet())).block();
+        String b = flights.execute("b", () -> Mono.fromCallable(() -> "b" + calls.incrementAndGet())).block();
+
+        // Assert
+        assertEquals("a1", a);
+        assertEquals("b2", b);
+        assertEquals(0L, flights.getStats().get("coalesced"));
+    }
+
+    @Test
+    void testExecute_CompletedCallIsNotReused() {
+        // Arrange
+        SingleFlight<String, Integer> flights = new SingleFlight<>(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        Integer first = flights.execute("key", () -> Mono.fromCallable(calls::incrementAndGet)).block();
+        Integer second = flights.execute("key", () -> Mono.fromCallable(calls::incrementAndGet)).block();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+    }
+
+    @Test
+    void testExecuteMany_LateJoinerReceivesWholeStream() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>(true);
+        Sinks.Many<String> upstream = Sinks.many().replay().all();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        CompletableFuture<List<String>> first = flights.executeMany("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asFlux();
+        }).collectList().toFuture();
+        upstream.tryEmitNext("A cat");
+        CompletableFuture<List<String>> joined = flights.executeMany("key", () -> {
+            calls.incrementAndGet();
+            return Flux.just("unexpected");
+        }).collectList().toFuture();
+        upstream.tryEmitNext(" on a mat");
+        upstream.tryEmitComplete();
+
+        // Assert
+        assertEquals(List.of("A cat", " on a mat"), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("A cat", " on a mat"), joined.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testExecute_ErrorIsSharedAndThenCleared() {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>(true);
+
+        // Act
+        Mono<String> failing = flights.execute("key", () -> Mono.error(new IllegalStateException("boom")));
+
+        // Assert
+        assertThrows(IllegalStateException.class, failing::block);
+        assertEquals("ok", flights.execute("key", () -> Mono.just("ok")).block());
+    }
+
+    @Test
+    void testExecute_DisabledAlwaysCallsUpstream() {
+        // Arrange
+        SingleFlight<String, Integer> flights = new SingleFlight<>(false);
+        Sinks.One<Integer> never = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        flights.execute("key", () -> {
+            calls.incrementAndGet();
+            return never.asMono();
+        }).subscribe();
+        flights.execute("key", () -> {
+            calls.incrementAndGet();
+            return never.asMono();
+        }).subscribe();
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+}
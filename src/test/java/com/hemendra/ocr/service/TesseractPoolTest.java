@@ -0,0 +1,147 @@
+package com.hemendra.ocr.service;
+
+import com.hemendra.ocr.exception.OcrException;
+import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.Tesseract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TesseractPoolTest {
+
+    @TempDir
+    Path tessData;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createFile(tessData.resolve("eng.traineddata"));
+        Files.createFile(tessData.resolve("deu.traineddata"));
+    }
+
+    @Test
+    void testBorrow_ReusesEngineForSameLanguage() throws Exception {
+        // Arrange
+        TesseractPool pool = new TesseractPool(2, 100, tessData.toString(), language -> new Tesseract());
+
+        // Act
+        ITesseract first;
+        try (TesseractPool.Lease lease = pool.borrow("eng")) {
+            first = lease.engine();
+        }
+        ITesseract second;
+        try (TesseractPool.Lease lease = pool.borrow("eng")) {
+            second = lease.engine();
+        }
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, pool.getStats().get("engines_created"));
+    }
+
+    @Test
+    void testBorrow_KeepsLanguagesSeparate() throws Exception {
+        // Arrange
+        TesseractPool pool = new TesseractPool(2, 100, tessData.toString(), language -> new Tesseract());
+
+        // Act
+        ITesseract english;
+        try (TesseractPool.Lease lease = pool.borrow("eng")) {
+            english = lease.engine();
+        }
+        ITesseract german;
+        try (TesseractPool.Lease lease = pool.borrow("deu")) {
+            german = lease.engine();
+        }
+
+        // Assert
+        assertNotSame(english, german);
+    }
+
+    @Test
+    void testBorrow_TimesOutWhenExhausted() throws Exception {
+        // Arrange
+        TesseractPool pool = new TesseractPool(1, 50, tessData.toString(), language -> new Tesseract());
+
+        // Act & Assert
+        try (TesseractPool.Lease ignored = pool.borrow("eng")) {
+            OcrException exception = assertThrows(OcrException.class, () -> pool.borrow("eng"));
+            assertTrue(exception.getMessage().contains("busy"));
+        }
+
+        Map<String, Object> stats = pool.getStats();
+        assertEquals(1L, stats.get("borrow_timeouts"));
+        assertEquals(0, stats.get("in_use"));
+    }
+
+    @Test
+    void testBorrow_RejectsLanguageWithoutTraineddata() {
+        // Arrange
+        TesseractPool pool = new TesseractPool(2, 100, tessData.toString(), language -> new Tesseract());
+
+        // Act & Assert
+        OcrException unknown = assertThrows(OcrException.class, () -> pool.borrow("xyz"));
+        assertTrue(unknown.getMessage().contains("Unsupported OCR language"));
+        assertThrows(OcrException.class, () -> pool.borrow("../eng"));
+        assertThrows(OcrException.class, () -> pool.borrow("eng+"));
+
+        Map<String, Object> stats = pool.getStats();
+        assertEquals(3L, stats.get("rejected_languages"));
+        assertEquals(0, stats.get("in_use"));
+        assertTrue(((Map<?, ?>) stats.get("idle_by_language")).isEmpty());
+    }
+
+    @Test
+    void testBorrow_AcceptsCombinedInstalledLanguages() throws Exception {
+        // Arrange
+        TesseractPool pool = new TesseractPool(2, 100, tessData.toString(), language -> new Tesseract());
+
+        // Act & Assert
+        try (TesseractPool.Lease lease = pool.borrow("eng+deu")) {
+            assertNotNull(lease.engine());
+        }
+        assertThrows(OcrException.class, () -> pool.borrow("eng+xyz"));
+    }
+
+    @Test
+    void testBorrow_WithoutTessDataPathChecksOnlyLanguageCodes() throws Exception {
+        // Arrange: Tesseract's own default location is used when no path was detected
+        TesseractPool pool = new TesseractPool(2, 100, null, language -> new Tesseract());
+
+        // Act & Assert
+        try (TesseractPool.Lease lease = pool.borrow("eng")) {
+            assertNotNull(lease.engine());
+        }
+        try (TesseractPool.Lease lease = pool.borrow("eng+deu")) {
+            assertNotNull(lease.engine());
+        }
+        assertThrows(OcrException.class, () -> pool.borrow("../eng"));
+        assertThrows(OcrException.class, () -> pool.borrow("eng+"));
+        assertEquals(2L, pool.getStats().get("rejected_languages"));
+    }
+
+    @Test
+    void testBorrow_ClosesIdleEngineOfOtherLanguageBeyondPoolSize() throws Exception {
+        // Arrange
+        TesseractPool pool = new TesseractPool(1, 100, tessData.toString(), language -> new Tesseract());
+        try (TesseractPool.Lease ignored = pool.borrow("eng")) {
+            // Returned idle
+        }
+
+        // Act
+        try (TesseractPool.Lease ignored = pool.borrow("deu")) {
+            // Needs a new engine while the English one is idle
+        }
+
+        // Assert
+        Map<String, Object> stats = pool.getStats();
+        assertEquals(2, stats.get("engines_created"));
+        assertEquals(1, stats.get("engines_evicted"));
+        assertEquals(0, ((Map<?, ?>) stats.get("idle_by_language")).get("eng"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadSpoolerTest {
+
+    @Test
+    void testSpool_SmallUploadIsUsedDirectly() throws Exception {
+        // Arrange
+        UploadSpooler spooler = new UploadSpooler(DataSize.ofKilobytes(1), null);
+        MockMultipartFile file = new MockMultipartFile("file", "small.png", "image/png", new byte[100]);
+
+        // Act
+        try (UploadSpooler.Spooled upload = spooler.spool(file)) {
+            // Assert
+            assertSame(file, upload.file());
+        }
+        assertEquals(0L, spooler.getStats().get("spooled_files"));
+    }
+
+    @Test
+    void testSpool_LargeUploadIsSpooledAndDeletedOnClose() throws Exception {
+        // Arrange
+        UploadSpooler spooler = new UploadSpooler(DataSize.ofKilobytes(1), null);
+        byte[] content = new byte[64 * 1024];
+        Arrays.fill(content, (byte) 7);
+        MockMultipartFile file = new MockMultipartFile("file", "large.png", "image/png", content);
+
+        // Act
+        Path spooledPath;
+        try (UploadSpooler.Spooled upload = spooler.spool(file)) {
+            FileBackedMultipartFile spooled = assertInstanceOf(FileBackedMultipartFile.class, upload.file());
+            spooledPath = spooled.getPath();
+
+            // Assert
+            assertTrue(Files.exists(spooledPath));
+            assertEquals("large.png", spooled.getOriginalFilename());
+            assertEquals(content.length, spooled.getSize());
+            assertEquals(ContentHash.sha256(new ByteArrayInputStream(content)), ContentHash.sha256(spooledPath));
+        }
+        assertFalse(Files.exists(spooledPath));
+        assertEquals(1L, spooler.getStats().get("spooled_files"));
+    }
+
+    @Test
+    void testSpool_MovesUploadInsteadOfCopyingIt(@TempDir Path dir) throws Exception {
+        // Arrange
+        UploadSpooler spooler = new UploadSpooler(DataSize.ofKilobytes(1), dir.toString());
+        byte[] content = new byte[64 * 1024];
+        Arrays.fill(content, (byte) 3);
+        Path partFile = Files.write(dir.resolve("part.tmp"), content);
+        MockMultipartFile file = new MockMultipartFile("file", "scan.png", "image/png", content) {
+            @Override
+            public InputStream getInputStream() {
+                throw new AssertionError("upload should be moved, not read");
+            }
+
+            @Override
+            public void transferTo(File dest) throws IOException {
+                Files.move(partFile, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        };
+
+        // Act
+        try (UploadSpooler.Spooled upload = spooler.spool(file)) {
+            FileBackedMultipartFile spooled = assertInstanceOf(FileBackedMultipartFile.class, upload.file());
+
+            // Assert
+            assertFalse(Files.exists(partFile));
+            assertArrayEquals(content, Files.readAllBytes(spooled.getPath()));
+            assertEquals(content.length, spooled.getSize());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.hemendra.ocr.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionImageEncoderTest {
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    @Test
+    void testEncode_LargeImageIsDownscaledAndReencoded() throws Exception {
+        // Arrange
+        VisionImageEncoder encoder = new VisionImageEncoder(true, 256, DataSize.ofKilobytes(8), 0.8f);
+        byte[] content = png(1200, 800);
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", content);
+
+        // Act
+        VisionImageEncoder.EncodedImage encoded = encoder.encode(file);
+
+        // Assert
+        assertTrue(encoded.reencoded());
+        assertEquals(content.length, encoded.originalBytes());
+        assertTrue(encoded.sentBytes() < encoded.originalBytes());
+        BufferedImage sent = ImageIO.read(encoded.openStream());
+        assertEquals(256, sent.getWidth());
+        assertEquals(171, sent.getHeight());
+    }
+
+    @Test
+    void testEncode_SmallImageIsSentUnchanged() throws Exception {
+        // Arrange
+        VisionImageEncoder encoder = new VisionImageEncoder(true, 256, DataSize.ofMegabytes(1), 0.8f);
+        byte[] content = png(64, 64);
+        MockMultipartFile file = new MockMultipartFile("file", "icon.png", "image/png", content);
+
+        // Act
+        VisionImageEncoder.EncodedImage encoded = encoder.encode(file);
+
+        // Assert
+        assertFalse(encoded.reencoded());
+        assertEquals(encoded.originalBytes(), encoded.sentBytes());
+        assertArrayEquals(content, encoded.openStream().readAllBytes());
+    }
+}
@@ -0,0 +1,104 @@
+package com.hemendra.ocr.service.preprocess;
+
+import com.hemendra.ocr.exception.OcrException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePreprocessingPipelineTest {
+
+    private ImagePreprocessingPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ImagePreprocessingPipeline(
+            List.of(new GrayscaleStage(), new DownscaleStage(300, 1000), new BinarizeStage(), new DeskewStage(10)),
+            "standard",
+            "standard:grayscale,downscale;accurate:grayscale,downscale,deskew,binarize"
+        );
+    }
+
+    @Test
+    void testApply_GrayscaleAndDownscaleByDpi() throws Exception {
+        // Arrange
+        BufferedImage image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        PreprocessingResult result = pipeline.apply(image, 600, pipeline.resolve(null));
+
+        // Assert
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, result.image().getType());
+        assertEquals(600, result.image().getWidth());
+        assertEquals(300, result.image().getHeight());
+        assertEquals(List.of("grayscale", "downscale"), List.copyOf(result.stageTimingsMs().keySet()));
+    }
+
+    @Test
+    void testApply_DownscaleCapsLongestEdgeWhenDpiUnknown() throws Exception {
+        // Arrange
+        BufferedImage image = new BufferedImage(800, 4000, BufferedImage.TYPE_BYTE_GRAY);
+
+        // Act
+        PreprocessingResult result = pipeline.apply(image, 0, pipeline.resolve("downscale"));
+
+        // Assert
+        assertEquals(200, result.image().getWidth());
+        assertEquals(1000, result.image().getHeight());
+    }
+
+    @Test
+    void testApply_BinarizeProducesBlackAndWhite() throws Exception {
+        // Arrange
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(220, 220, 220));
+        graphics.fillRect(0, 0, 100, 100);
+        graphics.setColor(new Color(40, 40, 40));
+        graphics.fillRect(20, 20, 30, 30);
+        graphics.dispose();
+
+        // Act
+        BufferedImage binary = pipeline.apply(image, 0, pipeline.resolve("binarize")).image();
+
+        // Assert
+        assertEquals(BufferedImage.TYPE_BYTE_BINARY, binary.getType());
+        assertEquals(0, binary.getRaster().getSample(30, 30, 0));
+        assertEquals(1, binary.getRaster().getSample(80, 80, 0));
+    }
+
+    @Test
+    void testEstimateSkew_DetectsRotatedLines() {
+        // Arrange
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 800, 600);
+        graphics.setColor(Color.BLACK);
+        graphics.setStroke(new BasicStroke(4));
+        graphics.rotate(Math.toRadians(3), 400, 300);
+        for (int y = 100; y < 500; y += 40) {
+            graphics.drawLine(100, y, 700, y);
+        }
+        graphics.dispose();
+
+        // Act
+        double angle = new DeskewStage(10).estimateSkewDegrees(image);
+
+        // Assert
+        assertEquals(3.0, angle, 0.3);
+    }
+
+    @Test
+    void testResolve_UnknownStage() {
+        // Act & Assert
+        OcrException exception = assertThrows(OcrException.class, () -> pipeline.resolve("grayscale,sharpen"));
+        assertTrue(exception.getMessage().contains("sharpen"));
+    }
+}